@@ -0,0 +1,90 @@
+package com.mygame;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks do "Motor" (AlgoritmoGenetico): avaliação e reprodução.
+ * A população é criada com semente fixa no início de cada iteração.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 8, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class AlgoritmoGeneticoBenchmark {
+
+    // Tamanho do mapa no formato "LARGURAxALTURA"
+    @Param({"21x11", "51x51"})
+    public String tamanho;
+
+    // Probabilidade de cada bloco interior ser parede na Geração 0
+    @Param({"0.2", "0.4"})
+    public float densidadeParedes;
+
+    @Param({"100"})
+    public int tamanhoPopulacao;
+
+    private AlgoritmoGenetico ag;
+    private AlgoritmoGenetico agEmLote;
+
+    @Setup(Level.Iteration)
+    public void criarPopulacao() {
+        String[] partes = tamanho.split("x");
+        ag = new AlgoritmoGenetico(
+                tamanhoPopulacao,
+                0.05f,
+                0.7f,
+                5,
+                Integer.parseInt(partes[0]),
+                Integer.parseInt(partes[1]),
+                PathfinderBenchmark.SEMENTE
+        );
+        ag.inicializarPopulacao(densidadeParedes);
+        ag.calcularFitnessPopulacao();
+
+        // A mesma população inicial, avaliada 64 mapas de cada vez (AvaliadorEmLote)
+        agEmLote = new AlgoritmoGenetico(
+                tamanhoPopulacao,
+                0.05f,
+                0.7f,
+                5,
+                Integer.parseInt(partes[0]),
+                Integer.parseInt(partes[1]),
+                PathfinderBenchmark.SEMENTE
+        );
+        agEmLote.setAvaliacaoEmLote(true);
+        agEmLote.inicializarPopulacao(densidadeParedes);
+        agEmLote.calcularFitnessPopulacao();
+    }
+
+    @Benchmark
+    public int calcularFitnessPopulacao() {
+        ag.calcularFitnessPopulacao();
+        return ag.getMelhorMapa().fitness;
+    }
+
+    @Benchmark
+    public int calcularFitnessPopulacaoEmLote() {
+        agEmLote.calcularFitnessPopulacao();
+        return agEmLote.getMelhorMapa().fitness;
+    }
+
+    @Benchmark
+    public MapaGenetico evoluirProximaGeracao() {
+        ag.evoluirProximaGeracao();
+        return ag.getMelhorMapa();
+    }
+}
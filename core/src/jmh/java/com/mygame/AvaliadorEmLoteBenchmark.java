@@ -0,0 +1,75 @@
+package com.mygame;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks da avaliação de uma população EVOLUÍDA (caminhos longos), onde a
+ * BFS dá muitos passos com uma fronteira pequena: o caso difícil do AvaliadorEmLote.
+ * A população é evoluída com semente fixa, uma vez por fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 8, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class AvaliadorEmLoteBenchmark {
+
+    // Tamanho do mapa no formato "LARGURAxALTURA"
+    @Param({"51x51", "101x101"})
+    public String tamanho;
+
+    // Gerações evoluídas antes de medir
+    @Param({"200"})
+    public int geracoes;
+
+    private MapaGenetico[] mapas;
+    private AvaliadorEmLote avaliador;
+
+    @Setup(Level.Trial)
+    public void evoluirPopulacao() {
+        String[] partes = tamanho.split("x");
+        int largura = Integer.parseInt(partes[0]);
+        int altura = Integer.parseInt(partes[1]);
+        AlgoritmoGenetico ag = new AlgoritmoGenetico(100, 0.05f, 0.7f, 5, largura, altura, PathfinderBenchmark.SEMENTE);
+        ag.setAvaliacaoEmLote(true);
+        ag.inicializarPopulacao();
+        for (int i = 0; i < geracoes; i++) {
+            ag.calcularFitnessPopulacao();
+            ag.evoluirProximaGeracao();
+        }
+        ag.calcularFitnessPopulacao();
+        mapas = ag.copiarMelhores(100).toArray(new MapaGenetico[0]);
+        avaliador = new AvaliadorEmLote(largura, altura);
+    }
+
+    @Benchmark
+    public int avaliarEmLote() {
+        avaliador.avaliar(mapas);
+        return mapas[0].fitness;
+    }
+
+    @Benchmark
+    public int avaliarUmAUm() {
+        int total = 0;
+        for (MapaGenetico mapa : mapas) {
+            Pathfinder professor = new Pathfinder(mapa.paraGrelhaCompacta());
+            professor.encontrarInicioEFimMaisLongos();
+            Caminho caminho = professor.encontrarCaminho();
+            total += caminho == null ? 0 : caminho.size();
+        }
+        return total;
+    }
+}
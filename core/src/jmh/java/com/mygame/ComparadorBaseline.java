@@ -0,0 +1,165 @@
+package com.mygame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compara os resultados de um run do JMH (CSV) com a "baseline" guardada no repositório.
+ * Se algum benchmark (tempo ou bytes alocados por operação) piorar mais do que
+ * a tolerância, imprime-o e termina com código 1, para que a regressão "salte à vista".
+ *
+ * Só conta como regressão se os intervalos de confiança (pontuação ± erro, os 99,9%
+ * do JMH) não se tocarem: uma diferença dentro do ruído da medição aparece como
+ * "ruído", mas não faz falhar a comparação.
+ *
+ * Um benchmark da baseline que não aparece nos resultados (apagado, renomeado,
+ * ou que falhou a meio do run) também faz falhar: aparece como "EM FALTA". Se o
+ * run foi só de uma parte dos benchmarks (o filtro do JMH, -Pjmh.incluir), passa-se
+ * o mesmo filtro aqui e só contam como em falta os da baseline que lhe correspondem.
+ *
+ * Uso: ComparadorBaseline baseline.csv resultados.csv [toleranciaPercentagem [filtro]]
+ */
+public class ComparadorBaseline {
+
+    // Métricas que comparamos: a pontuação principal e a alocação por operação (do -prof gc)
+    private static final String METRICA_ALOCACAO = ":gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ComparadorBaseline baseline.csv resultados.csv [toleranciaPercentagem [filtro]]");
+            System.exit(2);
+        }
+        Map<String, Resultado> baseline = lerResultados(Path.of(args[0]));
+        Map<String, Resultado> atual = lerResultados(Path.of(args[1]));
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        // (Como o JMH: uma expressão regular que basta encontrar no nome do benchmark)
+        Pattern filtro = args.length > 3 && !args[3].isEmpty() ? Pattern.compile(args[3]) : null;
+
+        int regressoes = 0;
+        for (Map.Entry<String, Resultado> entrada : atual.entrySet()) {
+            Resultado antes = baseline.get(entrada.getKey());
+            Resultado agora = entrada.getValue();
+            if (antes == null || antes.pontuacao <= 0) {
+                System.out.println("NOVO      " + entrada.getKey() + " = " + agora.pontuacao);
+                continue;
+            }
+            // Em todas as métricas que guardamos, "mais" é "pior" (tempo por op, bytes por op)
+            double variacao = (agora.pontuacao - antes.pontuacao) / antes.pontuacao * 100.0;
+            boolean separados = agora.pontuacao - agora.erro > antes.pontuacao + antes.erro;
+            String estado;
+            if (variacao > tolerancia && separados) {
+                estado = "REGRESSÃO";
+                regressoes++;
+            } else if (variacao > tolerancia) {
+                estado = "ruído    ";
+            } else {
+                estado = "ok       ";
+            }
+            System.out.printf("%s %s: %.3f ± %.3f -> %.3f ± %.3f (%+.1f%%)%n", estado, entrada.getKey(),
+                    antes.pontuacao, antes.erro, agora.pontuacao, agora.erro, variacao);
+        }
+
+        int emFalta = 0;
+        for (Map.Entry<String, Resultado> entrada : baseline.entrySet()) {
+            String chave = entrada.getKey();
+            if (atual.containsKey(chave)) {
+                continue;
+            }
+            String benchmark = chave.split(" ", 2)[0];
+            if (filtro != null && !filtro.matcher(benchmark).find()) {
+                continue; // Ficou de fora deste run de propósito
+            }
+            System.out.printf("EM FALTA  %s: %.3f ± %.3f -> (sem resultado)%n", chave,
+                    entrada.getValue().pontuacao, entrada.getValue().erro);
+            emFalta++;
+        }
+
+        if (regressoes > 0) {
+            System.out.println(regressoes + " benchmark(s) pioraram mais de " + tolerancia + "% (e fora do erro da medição).");
+        }
+        if (emFalta > 0) {
+            System.out.println(emFalta + " benchmark(s) da baseline não aparecem nos resultados.");
+        }
+        if (regressoes > 0 || emFalta > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Uma linha do CSV: a pontuação e o erro (meia largura do intervalo de confiança).
+     */
+    private static final class Resultado {
+        final double pontuacao;
+        final double erro;
+
+        Resultado(double pontuacao, double erro) {
+            this.pontuacao = pontuacao;
+            // (O JMH escreve NaN quando não consegue calcular o erro, por exemplo com uma só amostra)
+            this.erro = Double.isNaN(erro) ? 0.0 : erro;
+        }
+    }
+
+    /**
+     * Lê um CSV do JMH ("-rf csv") e devolve "benchmark [parâmetros]" -> pontuação e erro.
+     */
+    private static Map<String, Resultado> lerResultados(Path ficheiro) throws IOException {
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        List<String> linhas = Files.readAllLines(ficheiro, StandardCharsets.UTF_8);
+        if (linhas.isEmpty()) {
+            return resultados;
+        }
+        List<String> cabecalho = separarCampos(linhas.get(0));
+        int colunaScore = cabecalho.indexOf("Score");
+        int colunaErro = cabecalho.indexOf("Score Error (99.9%)");
+
+        for (int i = 1; i < linhas.size(); i++) {
+            List<String> campos = separarCampos(linhas.get(i));
+            if (campos.size() < cabecalho.size()) {
+                continue;
+            }
+            String benchmark = campos.get(0);
+            // Ignora as métricas secundárias que não nos interessam (gc.count, gc.time, ...)
+            if (benchmark.contains(":") && !benchmark.endsWith(METRICA_ALOCACAO)) {
+                continue;
+            }
+            StringBuilder chave = new StringBuilder(benchmark);
+            for (int c = 0; c < cabecalho.size(); c++) {
+                if (cabecalho.get(c).startsWith("Param: ") && !campos.get(c).isEmpty()) {
+                    chave.append(' ').append(cabecalho.get(c).substring(7)).append('=').append(campos.get(c));
+                }
+            }
+            double erro = colunaErro < 0 ? 0.0 : Double.parseDouble(campos.get(colunaErro));
+            resultados.put(chave.toString(), new Resultado(Double.parseDouble(campos.get(colunaScore)), erro));
+        }
+        return resultados;
+    }
+
+    /**
+     * Separa uma linha CSV em campos (o JMH põe os textos entre aspas).
+     */
+    private static List<String> separarCampos(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == '"') {
+                entreAspas = !entreAspas;
+            } else if (c == ',' && !entreAspas) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mygame;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks do "Professor" (Pathfinder).
+ * Cada medição usa mapas gerados com uma semente fixa, por isso
+ * dois runs em máquinas iguais medem exatamente o mesmo trabalho.
+ *
+ * Os mapas são "reparados" (ReparadorConectividade) depois de gerados: com 40%
+ * de paredes, o primeiro bloco livre ficava muitas vezes num bolso de poucos
+ * blocos, e o benchmark media um BFS de 2 ou 3 passos (ruído puro).
+ *
+ * O A* é medido duas vezes: com a heurística de Manhattan e com os marcos ALT
+ * (8 marcos, calculados uma vez no setup, como faz quem responde a muitas consultas).
+ *
+ * Vários forks e iterações de 2 segundos: com um só fork, o JIT de cada JVM
+ * decidia sozinho o resultado, e os intervalos de erro ficavam maiores do que a média.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 8, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class PathfinderBenchmark {
+
+    static final long SEMENTE = 42L;
+
+    // Tamanho do mapa no formato "LARGURAxALTURA"
+    @Param({"21x11", "51x51", "101x101"})
+    public String tamanho;
+
+    // Probabilidade de cada bloco interior ser parede
+    @Param({"0.2", "0.4"})
+    public float densidadeParedes;
+
+    private String[] mapa;
+
+    // Um Pathfinder para o fork inteiro: nem o BFS nem o A* deixam estado
+    // que mude a chamada seguinte (o A* cria os seus próprios Nós)
+    private Pathfinder pathfinder;
+    private Pathfinder pathfinderALT;
+    private Node inicio;
+    private Node fim;
+
+    @Setup(Level.Trial)
+    public void prepararPathfinder() {
+        mapa = gerarMapa(tamanho, densidadeParedes, SEMENTE);
+        pathfinder = new Pathfinder(mapa);
+        pathfinder.encontrarInicioEFimMaisLongos();
+        inicio = pathfinder.getNoInicio();
+        fim = pathfinder.getNoFim();
+        pathfinderALT = new Pathfinder(mapa);
+        pathfinderALT.setMarcos(MarcosALT.calcular(mapa, 8));
+    }
+
+    @Benchmark
+    public Pathfinder construirPathfinder() {
+        return new Pathfinder(mapa);
+    }
+
+    @Benchmark
+    public int executarBFS() {
+        return pathfinder.executarBFS(fim);
+    }
+
+    @Benchmark
+    public Node encontrarInicioEFimMaisLongos() {
+        pathfinder.encontrarInicioEFimMaisLongos();
+        return pathfinder.getNoInicio();
+    }
+
+    @Benchmark
+    public Caminho calcularCaminhoAStar() {
+        return pathfinder.calcularCaminhoAStar(inicio, fim);
+    }
+
+    @Benchmark
+    public Caminho calcularCaminhoAStarALT() {
+        return pathfinderALT.calcularCaminhoAStar(inicio, fim);
+    }
+
+    /**
+     * Gera um mapa aleatório reprodutível (a mesma semente dá o mesmo mapa),
+     * com os caminhos todos ligados.
+     */
+    static String[] gerarMapa(String tamanho, float densidadeParedes, long semente) {
+        String[] partes = tamanho.split("x");
+        MapaGenetico mapa = new MapaGenetico(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]));
+        mapa.inicializarAleatoriamente(densidadeParedes, new Random(semente));
+        new ReparadorConectividade(mapa.largura, mapa.altura, 4).reparar(mapa);
+        return mapa.paraStringArray();
+    }
+}
@@ -0,0 +1,310 @@
+package com.mygame;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * O "Afinador": procura (sem janela) os melhores parâmetros para a IA "Arquiteto"
+ * (população, mutação, crossover, elite e tamanho do torneio), em vez de os
+ * escolhermos "a olho" no Main.
+ *
+ * Usa "successive halving": todas as configurações começam com um orçamento
+ * pequeno (em AVALIAÇÕES de mapas, não em gerações, para que populações grandes
+ * e pequenas gastem o mesmo); em cada ronda só fica a melhor metade (1/eta) e o
+ * orçamento é multiplicado por eta, até sobrar uma.
+ *
+ * Cada configuração corre com as MESMAS sementes (as execuções são reprodutíveis
+ * e as comparações justas), em paralelo, uma execução por thread. Em cada ronda
+ * é impressa a tabela com o fitness médio, o tempo de CPU e o fitness por
+ * segundo de CPU. No fim, os melhores parâmetros são gravados num ficheiro
+ * ".properties" (que o EvolucaoHeadless lê com "--parametros").
+ *
+ * Uso: AfinadorParametros [--largura N] [--altura N] [--configuracoes N]
+ *                         [--sementes N] [--orcamentoInicial N] [--eta N]
+ *                         [--threads N] [--semente N] [--saida FICHEIRO]
+ */
+public class AfinadorParametros {
+
+    // O espaço de procura (as configurações são escolhidas ao acaso daqui)
+    private static final int[] POPULACOES = {50, 100, 200};
+    private static final float[] MUTACOES = {0.01f, 0.02f, 0.05f, 0.1f};
+    private static final float[] CROSSOVERS = {0.5f, 0.7f, 0.9f};
+    private static final int[] ELITES = {1, 2, 5};
+    private static final int[] TORNEIOS = {2, 3, 5, 8};
+
+    // As chaves do ficheiro de parâmetros
+    static final String CHAVE_POPULACAO = "populacao";
+    static final String CHAVE_MUTACAO = "mutacao";
+    static final String CHAVE_CROSSOVER = "crossover";
+    static final String CHAVE_ELITE = "elite";
+    static final String CHAVE_TORNEIO = "torneio";
+
+    private static final ThreadMXBean THREAD_MX = ManagementFactory.getThreadMXBean();
+
+    // (Guardado num campo: o Logger só guarda o nível enquanto houver quem o referencie)
+    private static final Logger LOG_AG = Logger.getLogger(AlgoritmoGenetico.class.getName());
+
+    private int largura = 21;
+    private int altura = 11;
+    private int numConfiguracoes = 48;
+    private int numSementes = 3;
+    private long orcamentoInicial = 2_000; // Avaliações na primeira ronda
+    private int eta = 2;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long semente = 42;
+    private Path saida = Path.of("afinacao.properties");
+
+    /**
+     * Uma combinação de parâmetros, e os resultados da última ronda em que entrou.
+     */
+    private static class Configuracao {
+        final int populacao;
+        final float mutacao;
+        final float crossover;
+        final int elite;
+        final int torneio;
+
+        double fitnessMedio;
+        double cpuMedioSegundos;
+        double geracoesMedias;
+
+        Configuracao(int populacao, float mutacao, float crossover, int elite, int torneio) {
+            this.populacao = populacao;
+            this.mutacao = mutacao;
+            this.crossover = crossover;
+            this.elite = elite;
+            this.torneio = torneio;
+        }
+
+        double fitnessPorSegundoCPU() {
+            return cpuMedioSegundos > 0 ? fitnessMedio / cpuMedioSegundos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pop %3d | mut %.2f | cross %.1f | elite %d | torneio %d",
+                    populacao, mutacao, crossover, elite, torneio);
+        }
+    }
+
+    // Melhor primeiro: mais fitness com o mesmo orçamento; em empate, o mais rápido
+    private static final Comparator<Configuracao> MELHOR_PRIMEIRO =
+            Comparator.comparingDouble((Configuracao c) -> c.fitnessMedio)
+                    .thenComparingDouble(Configuracao::fitnessPorSegundoCPU)
+                    .reversed();
+
+    /**
+     * Ponto de entrada do programa.
+     * @param args Os parâmetros do afinador (ver o comentário da classe).
+     */
+    public static void main(String[] args) {
+        AfinadorParametros afinador = new AfinadorParametros();
+        try {
+            afinador.lerArgumentos(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        try {
+            afinador.executar();
+        } catch (IOException | ExecutionException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lê os pares "--nome valor" da linha de comandos.
+     */
+    private void lerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String nome = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta o valor de " + nome);
+            }
+            String valor = args[++i];
+            try {
+                switch (nome) {
+                    case "--largura" -> largura = Integer.parseInt(valor);
+                    case "--altura" -> altura = Integer.parseInt(valor);
+                    case "--configuracoes" -> numConfiguracoes = Integer.parseInt(valor);
+                    case "--sementes" -> numSementes = Integer.parseInt(valor);
+                    case "--orcamentoInicial" -> orcamentoInicial = Long.parseLong(valor);
+                    case "--eta" -> eta = Integer.parseInt(valor);
+                    case "--threads" -> threads = Integer.parseInt(valor);
+                    case "--semente" -> semente = Long.parseLong(valor);
+                    case "--saida" -> saida = Path.of(valor);
+                    default -> throw new IllegalArgumentException("Argumento desconhecido: " + nome);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor inválido para " + nome + ": " + valor);
+            }
+        }
+        if (eta < 2) {
+            throw new IllegalArgumentException("--eta tem de ser pelo menos 2: " + eta);
+        }
+        if (numConfiguracoes < 1 || numSementes < 1 || threads < 1 || orcamentoInicial < 1) {
+            throw new IllegalArgumentException("--configuracoes, --sementes, --threads e --orcamentoInicial têm de ser positivos");
+        }
+    }
+
+    /**
+     * As rondas de "successive halving", e a gravação do vencedor.
+     */
+    private void executar() throws IOException, ExecutionException, InterruptedException {
+        LOG_AG.setLevel(Level.WARNING); // (Centenas de evoluções: sem o "Criando Geração 0" de cada uma)
+
+        List<Configuracao> candidatas = escolherConfiguracoes();
+        System.out.println("--- AFINADOR: " + candidatas.size() + " configurações, " + numSementes
+                + " sementes, mapas " + largura + "x" + altura + ", " + threads + " threads ---");
+
+        long inicio = System.nanoTime();
+        long orcamento = orcamentoInicial;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Minos-Afinador");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (int ronda = 1; ; ronda++) {
+                avaliarRonda(candidatas, orcamento, executor);
+                candidatas.sort(MELHOR_PRIMEIRO);
+                imprimirTabela(ronda, orcamento, candidatas);
+                // Fica a melhor fração (1/eta); as sobreviventes ganham eta vezes mais orçamento
+                int ficam = Math.max(1, candidatas.size() / eta);
+                candidatas = new ArrayList<>(candidatas.subList(0, ficam));
+                if (ficam == 1) {
+                    break;
+                }
+                orcamento *= eta;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Configuracao melhor = candidatas.get(0);
+        gravar(melhor, orcamento);
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        System.out.println("--- AFINAÇÃO CONCLUÍDA em " + duracaoMs + " ms | " + melhor + " ---");
+        System.out.println("--- Parâmetros gravados em " + saida.toAbsolutePath() + " ---");
+    }
+
+    /**
+     * Escolhe ao acaso (com a semente do afinador) configurações distintas do espaço de procura.
+     */
+    private List<Configuracao> escolherConfiguracoes() {
+        List<Configuracao> todas = new ArrayList<>();
+        for (int populacao : POPULACOES) {
+            for (float mutacao : MUTACOES) {
+                for (float crossover : CROSSOVERS) {
+                    for (int elite : ELITES) {
+                        for (int torneio : TORNEIOS) {
+                            todas.add(new Configuracao(populacao, mutacao, crossover, elite, torneio));
+                        }
+                    }
+                }
+            }
+        }
+        Collections.shuffle(todas, new Random(semente));
+        return new ArrayList<>(todas.subList(0, Math.min(numConfiguracoes, todas.size())));
+    }
+
+    /**
+     * Corre cada configuração com cada semente (em paralelo) e guarda as médias.
+     */
+    private void avaliarRonda(List<Configuracao> candidatas, long orcamento, ExecutorService executor)
+            throws ExecutionException, InterruptedException {
+        List<Future<double[]>> execucoes = new ArrayList<>(candidatas.size() * numSementes);
+        for (Configuracao c : candidatas) {
+            for (int s = 0; s < numSementes; s++) {
+                final long sementeExecucao = semente + s;
+                execucoes.add(executor.submit(() -> correr(c, sementeExecucao, orcamento)));
+            }
+        }
+        int i = 0;
+        for (Configuracao c : candidatas) {
+            double fitness = 0;
+            double cpu = 0;
+            double geracoes = 0;
+            for (int s = 0; s < numSementes; s++) {
+                double[] resultado = execucoes.get(i++).get();
+                fitness += resultado[0];
+                cpu += resultado[1];
+                geracoes += resultado[2];
+            }
+            c.fitnessMedio = fitness / numSementes;
+            c.cpuMedioSegundos = cpu / numSementes;
+            c.geracoesMedias = geracoes / numSementes;
+        }
+    }
+
+    /**
+     * Uma evolução com um orçamento fixo de avaliações (a última geração que
+     * não cabe inteira no orçamento já não é feita).
+     * @return { melhor fitness, segundos de CPU desta thread, gerações avaliadas }
+     */
+    private double[] correr(Configuracao c, long sementeExecucao, long orcamento) {
+        long cpuInicio = THREAD_MX.getCurrentThreadCpuTime();
+        AlgoritmoGenetico ag = new AlgoritmoGenetico(
+                c.populacao, c.mutacao, c.crossover, c.elite, largura, altura, sementeExecucao);
+        ag.setTamanhoTorneio(c.torneio);
+        ag.inicializarPopulacao();
+        ag.calcularFitnessPopulacao();
+        while (ag.getMetricas().getAvaliacoesTotais() + c.populacao <= orcamento) {
+            ag.evoluirProximaGeracao();
+            ag.calcularFitnessPopulacao();
+        }
+        double cpuSegundos = (THREAD_MX.getCurrentThreadCpuTime() - cpuInicio) / 1e9;
+        return new double[] { ag.getMelhorMapa().fitness, cpuSegundos, ag.getMetricas().getGeracao() + 1 };
+    }
+
+    private void imprimirTabela(int ronda, long orcamento, List<Configuracao> candidatas) {
+        System.out.println();
+        System.out.println("Ronda " + ronda + " | " + orcamento + " avaliações por execução | "
+                + candidatas.size() + " configurações");
+        System.out.println("  #  | Configuração                                          | Fitness | CPU (s) | Fitness/CPU-s | Gerações");
+        for (int i = 0; i < candidatas.size(); i++) {
+            Configuracao c = candidatas.get(i);
+            System.out.println(String.format(" %3d | %s | %7.1f | %7.3f | %13.1f | %8.1f",
+                    i + 1, c, c.fitnessMedio, c.cpuMedioSegundos, c.fitnessPorSegundoCPU(), c.geracoesMedias));
+        }
+    }
+
+    /**
+     * Grava os parâmetros vencedores (as chaves são as do "--parametros" do EvolucaoHeadless).
+     */
+    private void gravar(Configuracao melhor, long orcamento) throws IOException {
+        Properties propriedades = new Properties();
+        propriedades.setProperty(CHAVE_POPULACAO, Integer.toString(melhor.populacao));
+        propriedades.setProperty(CHAVE_MUTACAO, Float.toString(melhor.mutacao));
+        propriedades.setProperty(CHAVE_CROSSOVER, Float.toString(melhor.crossover));
+        propriedades.setProperty(CHAVE_ELITE, Integer.toString(melhor.elite));
+        propriedades.setProperty(CHAVE_TORNEIO, Integer.toString(melhor.torneio));
+        String comentario = String.format(
+                "Afinador do Projeto Minos: mapas %dx%d, %d avaliações, fitness médio %.1f, %.1f fitness/CPU-s",
+                largura, altura, orcamento, melhor.fitnessMedio, melhor.fitnessPorSegundoCPU());
+        try (Writer escritor = Files.newBufferedWriter(saida, StandardCharsets.UTF_8)) {
+            propriedades.store(escritor, comentario);
+        }
+    }
+}
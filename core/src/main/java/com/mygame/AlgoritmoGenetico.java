@@ -0,0 +1,738 @@
+package com.mygame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * O "Motor" da nossa IA "Arquiteto".
+ * Esta classe gere uma "população" de MapasGenéticos e usa um algoritmo
+ * genético (seleção, crossover, mutação) para os "evoluir"
+ * e criar labirintos cada vez melhores.
+ */
+public class AlgoritmoGenetico {
+
+    private static final Logger LOG = Logger.getLogger(AlgoritmoGenetico.class.getName());
+
+    // Para medir a memória alocada por avaliação (só quando o evento JFR está ligado)
+    private static final com.sun.management.ThreadMXBean THREAD_MX =
+            (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+
+    // --- 1. Parâmetros da Evolução ---
+    
+    private final int tamanhoPopulacao; // Quantos mapas em cada geração (ex: 100)
+    private final float taxaMutacao;      // Chance de um "gene" (bloco) mudar (ex: 1%)
+    private float taxaMutacaoAtual;       // A taxa em uso (só muda durante evoluirComOrcamento)
+    private final float taxaCrossover;    // Chance de dois pais "cruzarem" (ex: 70%)
+    private final int numElite;           // Quantos "melhores" mapas sobrevivem automaticamente
+    private int tamanhoTorneio = TAMANHO_TORNEIO; // Quantos mapas entram em cada "torneio" da seleção
+
+    /** O tamanho do torneio por defeito (ver setTamanhoTorneio). */
+    public static final int TAMANHO_TORNEIO = 5;
+    
+    private final int larguraMapa;
+    private final int alturaMapa;
+    
+    // Gerador de números aleatórios desta evolução (com semente fixa, é reprodutível)
+    private final Random rand;
+
+    // Ordena do melhor (maior fitness) para o pior
+    private static final Comparator<MapaGenetico> POR_FITNESS_DESC =
+            Comparator.comparingInt((MapaGenetico m) -> m.fitness).reversed();
+
+    // Os "alunos" da geração atual, e o "buffer" onde nasce a próxima geração.
+    // Os dois arrays (e os mapas dentro deles) são criados UMA vez e trocam de
+    // papel a cada geração: os filhos são escritos "por cima" dos mapas velhos,
+    // por isso a reprodução não aloca memória nenhuma.
+    private MapaGenetico[] populacao;
+    private MapaGenetico[] populacaoSeguinte;
+
+    /**
+     * O que decide quem são os "pais" da próxima geração.
+     * FITNESS: só o comprimento do caminho (o modo original).
+     * NOVIDADE: só o quão diferente o mapa é dos outros (ver ArquivoNovidade).
+     * NOVIDADE_E_FITNESS: uma mistura dos dois (ver setModoAvaliacao).
+     * Em todos os modos, os "elite" e o getMelhorMapa continuam a ser os de maior fitness.
+     */
+    public enum ModoAvaliacao { FITNESS, NOVIDADE, NOVIDADE_E_FITNESS }
+
+    // Quantos dos mapas mais "novos" de cada geração entram no arquivo
+    private static final int NOVOS_NO_ARQUIVO_POR_GERACAO = 3;
+
+    private ModoAvaliacao modoAvaliacao = ModoAvaliacao.FITNESS;
+    private float pesoNovidade = 0.5f;
+    private ArquivoNovidade arquivoNovidade;
+    private long[][] descritores;
+    private float[] novidades;
+
+    // Reparação opcional dos filhos (liga os "bolsos" de caminho; ver ReparadorConectividade)
+    private static final int TAMANHO_MINIMO_BOLSO = 4;
+    private ReparadorConectividade reparador;
+
+    // Avaliação opcional de 64 mapas de uma vez (ver AvaliadorEmLote)
+    private AvaliadorEmLote avaliadorEmLote;
+
+    // Quantas gerações já foram avaliadas, e o "painel" com as métricas
+    private int geracaoAtual = 0;
+    private final MetricasEvolucao metricas = new MetricasEvolucao();
+
+    /**
+     * Construtor: Prepara o motor de IA.
+     */
+    public AlgoritmoGenetico(int tamanhoPopulacao, float taxaMutacao, float taxaCrossover, int numElite, int larguraMapa, int alturaMapa) {
+        this(tamanhoPopulacao, taxaMutacao, taxaCrossover, numElite, larguraMapa, alturaMapa, new Random());
+    }
+
+    /**
+     * Construtor com "semente": a mesma semente dá sempre a mesma evolução.
+     * (Usado pelos benchmarks, para que as medições sejam comparáveis)
+     */
+    public AlgoritmoGenetico(int tamanhoPopulacao, float taxaMutacao, float taxaCrossover, int numElite, int larguraMapa, int alturaMapa, long semente) {
+        this(tamanhoPopulacao, taxaMutacao, taxaCrossover, numElite, larguraMapa, alturaMapa, new Random(semente));
+    }
+
+    private AlgoritmoGenetico(int tamanhoPopulacao, float taxaMutacao, float taxaCrossover, int numElite, int larguraMapa, int alturaMapa, Random rand) {
+        this.tamanhoPopulacao = tamanhoPopulacao;
+        this.taxaMutacao = taxaMutacao;
+        this.taxaMutacaoAtual = taxaMutacao;
+        this.taxaCrossover = taxaCrossover;
+        this.numElite = numElite;
+        this.larguraMapa = larguraMapa;
+        this.alturaMapa = alturaMapa;
+        this.rand = rand;
+    }
+
+    /**
+     * Muda o modo de avaliação (por defeito, FITNESS).
+     * @param modo O modo.
+     * @param pesoNovidade No modo NOVIDADE_E_FITNESS, o peso (0 a 1) da novidade;
+     *                     o fitness fica com o resto. (Os dois são normalizados pelo
+     *                     máximo da geração antes de somar.)
+     */
+    public void setModoAvaliacao(ModoAvaliacao modo, float pesoNovidade) {
+        this.modoAvaliacao = modo;
+        this.pesoNovidade = pesoNovidade;
+    }
+
+    /**
+     * Liga/desliga a reparação da conectividade dos filhos (depois da mutação).
+     * Com ela ligada, cada filho fica com UMA só zona de caminho: os bolsos
+     * pequenos são enchidos e os outros são ligados ao maior.
+     * @param ativa true para reparar os filhos.
+     */
+    public void setReparacaoConectividade(boolean ativa) {
+        this.reparador = ativa ? new ReparadorConectividade(larguraMapa, alturaMapa, TAMANHO_MINIMO_BOLSO) : null;
+    }
+
+    /**
+     * Liga/desliga a avaliação "em lote": o fitness de 64 mapas é calculado de uma
+     * vez, com uma BFS em bits (ver AvaliadorEmLote), em vez de um Pathfinder por mapa.
+     * Dá o mesmo fitness; só compensa em populações de mapas abertos (ver AvaliadorEmLote).
+     * Com ela ligada, não há eventos JFR por mapa (só os da geração).
+     * @param ativa true para avaliar em lote.
+     */
+    public void setAvaliacaoEmLote(boolean ativa) {
+        this.avaliadorEmLote = ativa ? new AvaliadorEmLote(larguraMapa, alturaMapa) : null;
+    }
+
+    /**
+     * Muda quantos mapas entram em cada "torneio" da seleção (por defeito, 5).
+     * Torneios maiores dão mais vantagem aos melhores (convergem mais depressa,
+     * perdem diversidade); com 1, a seleção é ao acaso.
+     * @param tamanhoTorneio O tamanho (pelo menos 1).
+     */
+    public void setTamanhoTorneio(int tamanhoTorneio) {
+        if (tamanhoTorneio < 1) {
+            throw new IllegalArgumentException("O torneio tem de ter pelo menos 1 mapa: " + tamanhoTorneio);
+        }
+        this.tamanhoTorneio = tamanhoTorneio;
+    }
+
+    /**
+     * Porque é que evoluirComOrcamento parou.
+     */
+    public enum MotivoParagem { ORCAMENTO, FITNESS_ALVO, ESTAGNACAO, MAXIMO_GERACOES }
+
+    /**
+     * Evolui até acabar o tempo, atingir o fitness alvo, ou o melhor fitness
+     * "estagnar" (o que acontecer primeiro), em vez de um número fixo de gerações.
+     *
+     * O tempo é respeitado "por previsão": só se começa outra geração se, pela
+     * duração da última, ela ainda couber no orçamento. Entre gerações, a taxa de
+     * mutação adapta-se: desce quando o melhor fitness melhora (afinar) e sobe
+     * quando fica parado (explorar), entre metade e 4x a taxa inicial. No fim,
+     * a taxa volta à configurada (as chamadas seguintes não herdam a adaptada).
+     *
+     * A população tem de estar inicializada. No fim, está avaliada e ordenada
+     * (getMelhorMapa é o melhor mapa).
+     * @param orcamentoMs O tempo máximo (em milissegundos).
+     * @param fitnessAlvo Pára assim que o melhor fitness chegar a isto (Integer.MAX_VALUE = nunca).
+     * @param janelaEstagnacao Pára se o melhor fitness não melhorar em tantas gerações (0 = nunca).
+     * @param maxGeracoes Um limite de segurança para o número de gerações.
+     * @param aCadaGeracao Chamado depois de avaliar cada geração (pode ser null).
+     * @return O motivo da paragem.
+     */
+    public MotivoParagem evoluirComOrcamento(long orcamentoMs, int fitnessAlvo, int janelaEstagnacao,
+                                             int maxGeracoes, Consumer<MetricasEvolucao> aCadaGeracao) {
+        long orcamentoNanos = orcamentoMs * 1_000_000L;
+        taxaMutacaoAtual = taxaMutacao;
+        try {
+            return evoluirAdaptando(orcamentoNanos, fitnessAlvo, janelaEstagnacao, maxGeracoes, aCadaGeracao);
+        } finally {
+            taxaMutacaoAtual = taxaMutacao;
+        }
+    }
+
+    /**
+     * O ciclo de evoluirComOrcamento (a taxa de mutação adaptada só vive aqui dentro).
+     */
+    private MotivoParagem evoluirAdaptando(long orcamentoNanos, int fitnessAlvo, int janelaEstagnacao,
+                                           int maxGeracoes, Consumer<MetricasEvolucao> aCadaGeracao) {
+        long inicio = System.nanoTime();
+        int melhorFitness = Integer.MIN_VALUE;
+        int geracoesSemMelhoria = 0;
+
+        for (int g = 0; ; g++) {
+            long inicioGeracao = System.nanoTime();
+            calcularFitnessPopulacao();
+            if (aCadaGeracao != null) {
+                aCadaGeracao.accept(metricas);
+            }
+
+            // 1. Os critérios de paragem
+            int fitness = getMelhorMapa().fitness;
+            boolean melhorou = fitness > melhorFitness;
+            if (melhorou) {
+                melhorFitness = fitness;
+                geracoesSemMelhoria = 0;
+            } else {
+                geracoesSemMelhoria++;
+            }
+            if (fitness >= fitnessAlvo) {
+                return MotivoParagem.FITNESS_ALVO;
+            }
+            if (janelaEstagnacao > 0 && geracoesSemMelhoria >= janelaEstagnacao) {
+                return MotivoParagem.ESTAGNACAO;
+            }
+            if (g >= maxGeracoes) {
+                return MotivoParagem.MAXIMO_GERACOES;
+            }
+
+            // 2. Adapta a mutação ao progresso
+            if (melhorou) {
+                taxaMutacaoAtual = Math.max(taxaMutacao * 0.5f, taxaMutacaoAtual * 0.85f);
+            } else {
+                taxaMutacaoAtual = Math.min(taxaMutacao * 4f, taxaMutacaoAtual * 1.25f);
+            }
+
+            // 3. Cabe mais uma geração (reprodução + avaliação) no tempo que falta?
+            long agora = System.nanoTime();
+            long duracaoGeracao = agora - inicioGeracao;
+            if (agora - inicio + duracaoGeracao > orcamentoNanos) {
+                return MotivoParagem.ORCAMENTO;
+            }
+            evoluirProximaGeracao();
+        }
+    }
+
+    /** @return A taxa de mutação em uso agora (só difere da configurada durante evoluirComOrcamento). */
+    public float getTaxaMutacaoAtual() {
+        return taxaMutacaoAtual;
+    }
+
+    /**
+     * Cria (só na primeira vez) os dois "buffers" de mapas da população.
+     */
+    private void prepararBuffers() {
+        if (populacao != null) {
+            return;
+        }
+        populacao = new MapaGenetico[tamanhoPopulacao];
+        populacaoSeguinte = new MapaGenetico[tamanhoPopulacao];
+        for (int i = 0; i < tamanhoPopulacao; i++) {
+            populacao[i] = new MapaGenetico(larguraMapa, alturaMapa);
+            populacaoSeguinte[i] = new MapaGenetico(larguraMapa, alturaMapa);
+        }
+    }
+
+    /**
+     * Cria a "Geração 0", a população inicial de mapas 100% aleatórios.
+     */
+    public void inicializarPopulacao() {
+        // 40% de chance de ser uma parede (podes ajustar isto!)
+        inicializarPopulacao(0.4f);
+    }
+
+    /**
+     * Cria a "Geração 0" com uma densidade de paredes à escolha.
+     * @param chanceDeParede A probabilidade (0.0 a 1.0) de um bloco ser 'X'.
+     */
+    public void inicializarPopulacao(float chanceDeParede) {
+        LOG.info("IA: Criando Geração 0 (mapas aleatórios)...");
+        prepararBuffers();
+        for (MapaGenetico mapa : populacao) {
+            mapa.inicializarAleatoriamente(chanceDeParede, rand);
+            mapa.fitness = 0;
+        }
+    }
+
+    /**
+     * Cria a "Geração 0" a partir de mapas já prontos (as "sementes"),
+     * por exemplo os melhores mapas de uma evolução a resolução mais baixa.
+     * As sementes entram tal como estão; o resto da população são cópias
+     * delas com mutação, para não começarmos com clones.
+     * @param sementes Mapas com o mesmo tamanho deste motor.
+     */
+    public void inicializarPopulacao(List<MapaGenetico> sementes) {
+        if (sementes.isEmpty()) {
+            inicializarPopulacao();
+            return;
+        }
+        prepararBuffers();
+        for (int i = 0; i < tamanhoPopulacao; i++) {
+            MapaGenetico semente = sementes.get(i % sementes.size());
+            if (semente.largura != larguraMapa || semente.altura != alturaMapa) {
+                throw new IllegalArgumentException("Semente com tamanho errado: " + semente.largura + "x" + semente.altura);
+            }
+            MapaGenetico mapa = populacao[i];
+            mapa.copiarDe(semente);
+            if (i >= sementes.size()) {
+                mutacao(mapa);
+            }
+        }
+    }
+
+    /**
+     * Evolução "do grosso para o fino" (multi-resolução).
+     * Começa com labirintos pequenos (baratos de avaliar), e a cada nível
+     * amplia os melhores mapas para o dobro da resolução e continua a evoluir
+     * a partir deles, até chegar ao tamanho final (larguraMapa x alturaMapa).
+     * Substitui a população atual. No fim, a população deste motor está
+     * avaliada e ordenada (como depois de calcularFitnessPopulacao()).
+     * @param niveis Quantas resoluções usar (1 = só a resolução final).
+     * @param geracoesPorNivel Quantas gerações evoluir em cada resolução.
+     */
+    public void evoluirMultiResolucao(int niveis, int geracoesPorNivel) {
+        List<MapaGenetico> sementes = new ArrayList<>();
+
+        // Dos níveis mais grossos (nível = niveis-1) até ao mais fino (nível 0)
+        for (int nivel = niveis - 1; nivel >= 0; nivel--) {
+            AlgoritmoGenetico motor;
+            if (nivel == 0) {
+                motor = this;
+            } else {
+                int largura = reduzirDimensao(larguraMapa, nivel);
+                int altura = reduzirDimensao(alturaMapa, nivel);
+                motor = new AlgoritmoGenetico(tamanhoPopulacao, taxaMutacao, taxaCrossover, numElite,
+                        largura, altura, new Random(rand.nextLong()));
+                motor.setModoAvaliacao(modoAvaliacao, pesoNovidade);
+                motor.setReparacaoConectividade(reparador != null);
+                motor.setTamanhoTorneio(tamanhoTorneio);
+                motor.setAvaliacaoEmLote(avaliadorEmLote != null);
+            }
+            LOG.info(() -> "IA: Resolução " + motor.larguraMapa + "x" + motor.alturaMapa);
+
+            // Amplia as sementes do nível anterior para esta resolução
+            List<MapaGenetico> sementesAmpliadas = new ArrayList<>(sementes.size());
+            for (MapaGenetico semente : sementes) {
+                sementesAmpliadas.add(semente.ampliar(motor.larguraMapa, motor.alturaMapa));
+            }
+            motor.inicializarPopulacao(sementesAmpliadas);
+
+            for (int g = 0; g < geracoesPorNivel; g++) {
+                motor.calcularFitnessPopulacao();
+                motor.evoluirProximaGeracao();
+            }
+            motor.calcularFitnessPopulacao();
+
+            // Os "elite" deste nível são as sementes do próximo
+            sementes.clear();
+            for (int i = 0; i < Math.max(1, numElite); i++) {
+                sementes.add(motor.populacao[i].copiar());
+            }
+        }
+    }
+
+    /**
+     * O tamanho de um lado do mapa num nível de resolução mais baixo:
+     * o interior é dividido por 2 em cada nível (as 2 bordas mantêm-se).
+     */
+    private static int reduzirDimensao(int dimensao, int nivel) {
+        int interior = (dimensao - 2) >> nivel;
+        return Math.max(3, interior + 2);
+    }
+
+    /**
+     * O "Professor": Avalia cada mapa na população e dá-lhe uma "nota" (fitness).
+     * Este é o "gargalo" (parte mais lenta) do processo.
+     */
+    public void calcularFitnessPopulacao() {
+        EventoGeracao eventoGeracao = new EventoGeracao();
+        eventoGeracao.begin();
+        long inicio = System.nanoTime();
+
+        if (avaliadorEmLote != null) {
+            avaliarEmLote();
+        } else {
+            avaliarUmAUm();
+        }
+        
+        // A pontuação que a seleção usa (fitness, novidade ou os dois)
+        atribuirPontuacoes();
+
+        // Organiza a população: os melhores (maior fitness) ficam no topo da lista.
+        Arrays.sort(populacao, POR_FITNESS_DESC);
+
+        // Resumo da geração (para o "painel" e para o JFR)
+        long duracao = System.nanoTime() - inicio;
+        eventoGeracao.end();
+        double fitnessMedio = calcularFitnessMedio();
+        double diversidade = calcularDiversidade();
+        metricas.registarGeracao(geracaoAtual, getMelhorMapa().fitness, fitnessMedio, diversidade, duracao);
+        if (eventoGeracao.shouldCommit()) {
+            eventoGeracao.geracao = geracaoAtual;
+            eventoGeracao.tamanhoPopulacao = populacao.length;
+            eventoGeracao.melhorFitness = getMelhorMapa().fitness;
+            eventoGeracao.fitnessMedio = fitnessMedio;
+            eventoGeracao.diversidade = diversidade;
+            eventoGeracao.commit();
+        }
+        LOG.fine(metricas::toString);
+        geracaoAtual++;
+    }
+
+    /**
+     * Avalia um mapa de cada vez, com um Pathfinder ("Professor") por mapa.
+     */
+    private void avaliarUmAUm() {
+        for (MapaGenetico mapa : populacao) {
+            EventoAvaliacao eventoAvaliacao = new EventoAvaliacao();
+            boolean medirAlocacao = eventoAvaliacao.isEnabled();
+            long bytesAntes = medirAlocacao ? THREAD_MX.getCurrentThreadAllocatedBytes() : 0;
+            eventoAvaliacao.begin();
+            
+            // 1. Converte o "DNA" (char[][]) para a grelha do Pathfinder (2 bits por bloco)
+            GrelhaCompacta grelha = mapa.paraGrelhaCompacta();
+            
+            // 2. Cria um "Professor" (Pathfinder) para este mapa
+            Pathfinder professor = new Pathfinder(grelha);
+            
+            // 3. Pede ao professor para encontrar o melhor S e F
+            professor.encontrarInicioEFimMaisLongos();
+            
+            // 4. Pede o caminho
+            Caminho caminho = professor.encontrarCaminho();
+
+            // 5. Calcula a "Nota" (Fitness)
+            if (caminho == null) {
+                // Se não há caminho, a nota é ZERO.
+                mapa.fitness = 0;
+            } else {
+                // A nota é o comprimento do caminho! (Regra 2 que definiste)
+                // Isto recompensa caminhos longos e complexos.
+                mapa.fitness = caminho.size();
+                
+                // TODO: Adicionar a "Regra 3" (becos sem saída)
+                // (mapa.fitness *= (numero de 'O's / caminho.size()) )
+            }
+
+            // 6. Regista o trabalho que o Professor teve
+            metricas.registarAvaliacao(professor.getVarrimentosBFS(), professor.getExpansoes());
+            eventoAvaliacao.end();
+            if (eventoAvaliacao.shouldCommit()) {
+                eventoAvaliacao.fitness = mapa.fitness;
+                eventoAvaliacao.varrimentosBFS = professor.getVarrimentosBFS();
+                eventoAvaliacao.expansoes = professor.getExpansoes();
+                eventoAvaliacao.bytesAlocados = medirAlocacao ? THREAD_MX.getCurrentThreadAllocatedBytes() - bytesAntes : 0;
+                eventoAvaliacao.commit();
+            }
+        }
+    }
+
+    /**
+     * Avalia 64 mapas de cada vez (ver AvaliadorEmLote). As métricas registam
+     * 2 varrimentos BFS por mapa e a média das expansões do lote.
+     */
+    private void avaliarEmLote() {
+        for (int inicio = 0; inicio < populacao.length; inicio += AvaliadorEmLote.FAIXAS) {
+            int quantos = Math.min(AvaliadorEmLote.FAIXAS, populacao.length - inicio);
+            avaliadorEmLote.avaliarLote(populacao, inicio, quantos);
+            long expansoesPorMapa = avaliadorEmLote.getExpansoesUltimoLote() / quantos;
+            for (int i = 0; i < quantos; i++) {
+                metricas.registarAvaliacao(2, expansoesPorMapa);
+            }
+        }
+    }
+
+    /**
+     * Dá a cada mapa a pontuação da seleção, conforme o modo de avaliação.
+     * Nos modos de novidade, os mapas mais "novos" desta geração entram no arquivo.
+     */
+    private void atribuirPontuacoes() {
+        if (modoAvaliacao == ModoAvaliacao.FITNESS) {
+            for (MapaGenetico mapa : populacao) {
+                mapa.pontuacao = mapa.fitness;
+            }
+            return;
+        }
+
+        int n = populacao.length;
+        if (arquivoNovidade == null) {
+            arquivoNovidade = new ArquivoNovidade(larguraMapa, alturaMapa, rand.nextLong());
+            descritores = new long[n][];
+            for (int i = 0; i < n; i++) {
+                descritores[i] = arquivoNovidade.novoDescritor();
+            }
+            novidades = new float[n];
+        }
+        for (int i = 0; i < n; i++) {
+            ArquivoNovidade.descrever(populacao[i], descritores[i]);
+        }
+        arquivoNovidade.calcularNovidade(descritores, n, novidades);
+
+        float maxFitness = 1;
+        float maxNovidade = 1e-6f;
+        for (int i = 0; i < n; i++) {
+            maxFitness = Math.max(maxFitness, populacao[i].fitness);
+            maxNovidade = Math.max(maxNovidade, novidades[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            populacao[i].pontuacao = modoAvaliacao == ModoAvaliacao.NOVIDADE
+                    ? novidades[i]
+                    : (1 - pesoNovidade) * populacao[i].fitness / maxFitness + pesoNovidade * novidades[i] / maxNovidade;
+        }
+
+        // Os mais "novos" desta geração entram no arquivo
+        for (int k = 0; k < NOVOS_NO_ARQUIVO_POR_GERACAO && k < n; k++) {
+            int maisNovo = 0;
+            for (int i = 1; i < n; i++) {
+                if (novidades[i] > novidades[maisNovo]) {
+                    maisNovo = i;
+                }
+            }
+            arquivoNovidade.adicionar(descritores[maisNovo]);
+            novidades[maisNovo] = -1;
+        }
+        LOG.fine(() -> "Arquivo de novidade: " + arquivoNovidade.getTamanho() + " mapas");
+    }
+
+    /**
+     * A média do fitness de toda a população.
+     */
+    private double calcularFitnessMedio() {
+        long soma = 0;
+        for (MapaGenetico mapa : populacao) {
+            soma += mapa.fitness;
+        }
+        return populacao.length == 0 ? 0 : (double) soma / populacao.length;
+    }
+
+    /**
+     * Mede a "diversidade genética": a fração média de blocos de cada mapa
+     * que são diferentes do melhor mapa. (0.0 = são todos clones do melhor)
+     * É O(população x blocos), muito mais barato do que comparar todos com todos.
+     */
+    private double calcularDiversidade() {
+        if (populacao.length < 2) {
+            return 0;
+        }
+        char[][] melhor = getMelhorMapa().grelha;
+        long diferentes = 0;
+        for (int i = 1; i < populacao.length; i++) {
+            char[][] outro = populacao[i].grelha;
+            for (int z = 0; z < alturaMapa; z++) {
+                for (int x = 0; x < larguraMapa; x++) {
+                    if (outro[z][x] != melhor[z][x]) {
+                        diferentes++;
+                    }
+                }
+            }
+        }
+        return (double) diferentes / ((long) (populacao.length - 1) * larguraMapa * alturaMapa);
+    }
+
+    /**
+     * O "painel" com as métricas da evolução (para o HUD ou a consola).
+     * @return As métricas, sempre o mesmo objeto (vai sendo atualizado).
+     */
+    public MetricasEvolucao getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Retorna o melhor mapa (o "vencedor") da geração atual.
+     * ATENÇÃO: o mapa pertence aos "buffers" da população e vai ser reescrito
+     * nas próximas gerações. Para o guardar, usa getMelhorMapa().copiar().
+     */
+    public MapaGenetico getMelhorMapa() {
+        return populacao[0]; // Como o array está ordenado, o melhor é o [0]
+    }
+
+    /**
+     * Cópias dos 'n' melhores mapas da geração atual (os "emigrantes" de uma ilha).
+     * Só faz sentido depois de calcularFitnessPopulacao (a população está ordenada).
+     * @param n Quantos mapas copiar.
+     * @return Cópias independentes (podem ir para outra thread ou processo).
+     */
+    public List<MapaGenetico> copiarMelhores(int n) {
+        int quantos = Math.min(n, populacao.length);
+        List<MapaGenetico> melhores = new ArrayList<>(quantos);
+        for (int i = 0; i < quantos; i++) {
+            melhores.add(populacao[i].copiar());
+        }
+        return melhores;
+    }
+
+    /**
+     * Recebe "imigrantes" de outra ilha: cada um substitui um dos PIORES mapas
+     * da geração atual (os elite nunca são tocados). Chama-se entre
+     * calcularFitnessPopulacao e evoluirProximaGeracao; os imigrantes trazem
+     * o fitness calculado na ilha de origem.
+     * @param migrantes Os mapas recebidos (do mesmo tamanho desta população).
+     */
+    public void receberMigrantes(List<MapaGenetico> migrantes) {
+        int quantos = Math.min(migrantes.size(), tamanhoPopulacao - numElite);
+        // A pontuação de origem não é comparável com a desta ilha (nos modos de
+        // novidade): os imigrantes ficam com a pontuação média daqui
+        float pontuacaoMedia = 0;
+        for (MapaGenetico mapa : populacao) {
+            pontuacaoMedia += mapa.pontuacao / populacao.length;
+        }
+        for (int i = 0; i < quantos; i++) {
+            MapaGenetico destino = populacao[tamanhoPopulacao - 1 - i];
+            destino.copiarDe(migrantes.get(i));
+            destino.pontuacao = modoAvaliacao == ModoAvaliacao.FITNESS ? destino.fitness : pontuacaoMedia;
+        }
+        if (quantos > 0) {
+            Arrays.sort(populacao, POR_FITNESS_DESC);
+        }
+    }
+
+    /**
+     * Executa UM ciclo de evolução (Geração N -> Geração N+1).
+     */
+    public void evoluirProximaGeracao() {
+
+        // 1. A "próxima geração" é escrita no buffer livre (sem alocar nada).
+        // Os pais (em 'populacao') só são lidos, nunca alterados.
+        MapaGenetico[] novaPopulacao = populacaoSeguinte;
+
+        // 2. Elitismo: Os "melhores" (numElite) sobrevivem automaticamente.
+        // Isto garante que o nosso melhor mapa nunca "piora".
+        // (São COPIADOS: a mutação dos filhos nunca toca nos elite)
+        int i = 0;
+        for (; i < numElite && i < tamanhoPopulacao; i++) {
+            novaPopulacao[i].copiarDe(populacao[i]);
+        }
+
+        // 3. Preenche o resto da população com "filhos"
+        for (; i < tamanhoPopulacao; i++) {
+            MapaGenetico filho = novaPopulacao[i];
+            
+            // 3a. Seleciona dois "pais" (os com melhor fitness têm mais chance)
+            MapaGenetico pai1 = selecionarPai();
+            MapaGenetico pai2 = selecionarPai();
+
+            // 3b. "Crossover" (Reprodução), escrito diretamente no filho
+            if (rand.nextFloat() < taxaCrossover) {
+                crossover(pai1, pai2, filho);
+            } else {
+                // Se não houver crossover, o filho é uma CÓPIA do Pai 1
+                // (antes era o próprio Pai 1, e a mutação estragava o pai)
+                filho.copiarDe(pai1);
+            }
+
+            // 3c. "Mutação"
+            mutacao(filho);
+
+            // 3d. (Opcional) "Reparação": volta a ligar os bolsos que ficaram soltos
+            if (reparador != null) {
+                reparador.reparar(filho);
+            }
+        }
+        
+        // 4. Troca os papéis dos dois buffers
+        this.populacaoSeguinte = populacao;
+        this.populacao = novaPopulacao;
+    }
+
+
+    // --- 4. Métodos Genéticos (Seleção, Crossover, Mutação) ---
+
+    /**
+     * Seleção por "Torneio": Pega em 'tamanhoTorneio' mapas aleatórios (5, por defeito)
+     * e retorna o melhor deles.
+     * Isto dá aos mapas "médios" uma chance de se reproduzirem,
+     * o que é bom para a diversidade genética.
+     */
+    private MapaGenetico selecionarPai() {
+        MapaGenetico melhorPai = null;
+        
+        for (int i = 0; i < tamanhoTorneio; i++) {
+            int index = rand.nextInt(tamanhoPopulacao);
+            MapaGenetico candidato = populacao[index];
+            
+            if (melhorPai == null || candidato.pontuacao > melhorPai.pontuacao) {
+                melhorPai = candidato;
+            }
+        }
+        return melhorPai;
+    }
+
+    /**
+     * Crossover (Reprodução): Escreve um "filho" a partir de dois "pais".
+     * Usa o método "Single-Point Crossover" (por linhas).
+     * O filho é reescrito por completo, por isso pode ser um mapa "velho" reutilizado.
+     */
+    private void crossover(MapaGenetico pai1, MapaGenetico pai2, MapaGenetico filho) {
+
+        // Escolhe um "ponto de corte" aleatório no DNA
+        int pontoCorteZ = rand.nextInt(alturaMapa); 
+        
+        for (int z = 0; z < alturaMapa; z++) { 
+            // Parte 1 (DNA do Pai 1) ou Parte 2 (DNA do Pai 2): uma linha inteira de cada vez
+            char[] origem = (z < pontoCorteZ) ? pai1.grelha[z] : pai2.grelha[z];
+            System.arraycopy(origem, 0, filho.grelha[z], 0, larguraMapa);
+        }
+        filho.fitness = 0;
+    }
+
+    /**
+     * Mutação: Percorre *cada* "gene" (bloco) do mapa de um "filho"
+     * e dá-lhe uma pequena chance (taxaMutacao) de "mudar"
+     * (de 'X' para 'O' ou de 'O' para 'X').
+     */
+    /**
+     * Mutação: Percorre *cada* "gene" (bloco) do mapa de um "filho"
+     * e dá-lhe uma pequena chance (taxaMutacao) de "mudar".
+     * (Versão CORRIGIDA com 'larguraMapa' e 'alturaMapa')
+     */
+    private void mutacao(MapaGenetico mapa) {
+        // CORRIGIDO: Usa 'alturaMapa'
+        for (int z = 0; z < alturaMapa; z++) { 
+            // CORRIGIDO: Usa 'larguraMapa'
+            for (int x = 0; x < larguraMapa; x++) { 
+                
+                // Ignora as bordas (elas DEVEM ser 'X')
+                // CORRIGIDO: Usa 'alturaMapa' e 'larguraMapa'
+                if (z == 0 || z == alturaMapa - 1 || x == 0 || x == larguraMapa - 1) {
+                    continue; 
+                }
+
+                // Se o "dado" (0.0 a 1.0) for menor que a taxa de mutação...
+                if (rand.nextFloat() < taxaMutacaoAtual) {
+                    // ... inverte o gene!
+                    if (mapa.grelha[z][x] == 'X') {
+                        mapa.grelha[z][x] = 'O';
+                    } else {
+                        mapa.grelha[z][x] = 'X';
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.mygame;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * O "Arquivo de Novidades" (novelty search): guarda mapas "diferentes" que já
+ * apareceram na evolução e mede o quão NOVO é cada mapa da população, como a
+ * distância média aos seus 'k' vizinhos mais parecidos (no arquivo e na população).
+ *
+ * Cada mapa é descrito pelo seu "bitmap" de paredes (1 bit por bloco, em long[]),
+ * e a distância entre dois mapas é a distância de Hamming (XOR + Long.bitCount).
+ *
+ * Comparar cada mapa com TODOS os outros custava O(n * arquivo) por geração.
+ * Aqui usamos LSH por amostragem de bits: cada "tabela" olha para alguns blocos
+ * escolhidos ao acaso, e mapas que coincidem nesses blocos caem no mesmo "balde".
+ * Só se compara com quem partilha pelo menos um balde (mapas parecidos têm muita
+ * probabilidade de partilhar um), por isso o custo fica quase linear.
+ */
+public class ArquivoNovidade {
+
+    // Valores por defeito (afinados para mapas pequenos, ~20x10 a 100x100)
+    public static final int NUM_TABELAS = 8;
+    public static final int BITS_POR_CHAVE = 12;
+    public static final int VIZINHOS = 15;
+    public static final int CAPACIDADE = 1000;
+
+    private final int largura;
+    private final int altura;
+    private final int palavras;
+    private final int vizinhos;
+    private final int bitsPorChave;
+
+    // Os blocos que cada tabela "amostra" ([tabela][bit da chave] -> índice do bloco)
+    private final int[][] amostras;
+
+    // O arquivo: um anel (quando enche, os mais antigos são substituídos)
+    private final long[][] arquivo;
+    private int tamanho = 0;
+    private int proximo = 0;
+
+    // Memória de trabalho reutilizada entre gerações: os baldes de cada tabela,
+    // guardados "em fila" (itens[t] do inicios[t][b] ao inicios[t][b + 1] são o balde b)
+    private final int[][] inicios;
+    private final int[][] itens;
+    private final int[] posicao;
+    private int[] chaves;
+    private int[] marca;
+    private int marcaAtual = 0;
+    private final int[] melhoresDistancias;
+
+    /**
+     * @param largura A largura dos mapas.
+     * @param altura A altura dos mapas.
+     * @param capacidade Quantos descritores o arquivo guarda, no máximo.
+     * @param numTabelas Quantas tabelas de LSH (mais tabelas = menos vizinhos perdidos, mais trabalho).
+     * @param bitsPorChave Quantos blocos cada tabela amostra (no máximo 20).
+     * @param vizinhos Quantos vizinhos contam para a novidade (o 'k').
+     * @param semente A semente para escolher os blocos amostrados.
+     */
+    public ArquivoNovidade(int largura, int altura, int capacidade, int numTabelas, int bitsPorChave, int vizinhos, long semente) {
+        if (bitsPorChave < 1 || bitsPorChave > 20) {
+            throw new IllegalArgumentException("bitsPorChave tem de estar entre 1 e 20: " + bitsPorChave);
+        }
+        this.largura = largura;
+        this.altura = altura;
+        this.palavras = (largura * altura + 63) / 64;
+        this.vizinhos = vizinhos;
+        this.bitsPorChave = bitsPorChave;
+        this.arquivo = new long[capacidade][];
+        this.melhoresDistancias = new int[vizinhos];
+
+        // Só amostramos o interior: as bordas são sempre parede e não distinguem nada
+        Random rand = new Random(semente);
+        this.amostras = new int[numTabelas][bitsPorChave];
+        this.inicios = new int[numTabelas][(1 << bitsPorChave) + 1];
+        this.itens = new int[numTabelas][];
+        this.posicao = new int[1 << bitsPorChave];
+        for (int t = 0; t < numTabelas; t++) {
+            for (int b = 0; b < bitsPorChave; b++) {
+                int x = 1 + rand.nextInt(Math.max(1, largura - 2));
+                int z = 1 + rand.nextInt(Math.max(1, altura - 2));
+                amostras[t][b] = z * largura + x;
+            }
+        }
+    }
+
+    /**
+     * Um arquivo com os valores por defeito.
+     */
+    public ArquivoNovidade(int largura, int altura, long semente) {
+        this(largura, altura, CAPACIDADE, NUM_TABELAS, BITS_POR_CHAVE, VIZINHOS, semente);
+    }
+
+    /**
+     * Escreve o "bitmap" de paredes de um mapa (1 = parede), bloco z * largura + x.
+     * @param mapa O mapa.
+     * @param destino Onde escrever (tem de ter (largura * altura + 63) / 64 posições).
+     */
+    public static void descrever(MapaGenetico mapa, long[] destino) {
+        Arrays.fill(destino, 0L);
+        int i = 0;
+        for (int z = 0; z < mapa.altura; z++) {
+            char[] linha = mapa.grelha[z];
+            for (int x = 0; x < mapa.largura; x++, i++) {
+                if (linha[x] == 'X') {
+                    destino[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Um descritor vazio do tamanho certo para este arquivo.
+     */
+    public long[] novoDescritor() {
+        return new long[palavras];
+    }
+
+    /**
+     * A distância de Hamming entre dois descritores (quantos blocos diferem).
+     */
+    public static int hamming(long[] a, long[] b) {
+        int distancia = 0;
+        for (int i = 0; i < a.length; i++) {
+            distancia += Long.bitCount(a[i] ^ b[i]);
+        }
+        return distancia;
+    }
+
+    /**
+     * Calcula a novidade de cada mapa da população: a distância média aos 'k'
+     * vizinhos mais próximos entre os que partilham um balde (no arquivo e na
+     * própria população, sem contar o próprio mapa). Vizinhos que faltam (o
+     * mapa está "sozinho" nos baldes) contam como metade dos blocos, que é a
+     * distância esperada entre dois mapas sem nada em comum.
+     * @param descritores Os descritores da população.
+     * @param n Quantos descritores usar.
+     * @param destino Onde escrever a novidade de cada um.
+     */
+    public void calcularNovidade(long[][] descritores, int n, float[] destino) {
+        int total = tamanho + n;
+        prepararMemoria(total);
+
+        // 1. Os baldes de cada tabela (tudo em arrays: "contar, acumular, colocar")
+        int numBaldes = 1 << bitsPorChave;
+        for (int t = 0; t < amostras.length; t++) {
+            int[] inicio = inicios[t];
+            Arrays.fill(inicio, 0);
+            for (int i = 0; i < total; i++) {
+                chaves[i] = chave(t, descritor(descritores, i));
+                inicio[chaves[i] + 1]++;
+            }
+            for (int b = 0; b < numBaldes; b++) {
+                inicio[b + 1] += inicio[b];
+            }
+            System.arraycopy(inicio, 0, posicao, 0, numBaldes);
+            int[] fila = itens[t];
+            for (int i = 0; i < total; i++) {
+                fila[posicao[chaves[i]]++] = i;
+            }
+        }
+
+        // 2. Para cada mapa da população, só compara com os candidatos dos seus baldes
+        int distanciaSemVizinho = (largura * altura) / 2;
+        for (int p = 0; p < n; p++) {
+            int eu = tamanho + p;
+            long[] meu = descritores[p];
+            marcaAtual++;
+            marca[eu] = marcaAtual;
+            int encontrados = 0;
+
+            for (int t = 0; t < amostras.length; t++) {
+                int balde = chave(t, meu);
+                for (int j = inicios[t][balde]; j < inicios[t][balde + 1]; j++) {
+                    int outro = itens[t][j];
+                    if (marca[outro] == marcaAtual) {
+                        continue; // Já comparado (ou é o próprio)
+                    }
+                    marca[outro] = marcaAtual;
+                    int d = hamming(meu, descritor(descritores, outro));
+                    encontrados = guardarVizinho(d, encontrados);
+                }
+            }
+
+            long soma = 0;
+            for (int k = 0; k < vizinhos; k++) {
+                soma += k < encontrados ? melhoresDistancias[k] : distanciaSemVizinho;
+            }
+            destino[p] = (float) soma / vizinhos;
+        }
+    }
+
+    /**
+     * Mantém as 'k' menores distâncias (ordenadas) em melhoresDistancias.
+     */
+    private int guardarVizinho(int d, int encontrados) {
+        if (encontrados == vizinhos && d >= melhoresDistancias[vizinhos - 1]) {
+            return encontrados;
+        }
+        int i = Math.min(encontrados, vizinhos - 1);
+        while (i > 0 && melhoresDistancias[i - 1] > d) {
+            melhoresDistancias[i] = melhoresDistancias[i - 1];
+            i--;
+        }
+        melhoresDistancias[i] = d;
+        return Math.min(encontrados + 1, vizinhos);
+    }
+
+    /**
+     * Junta um descritor ao arquivo (é copiado). Se o arquivo está cheio,
+     * substitui o mais antigo.
+     */
+    public void adicionar(long[] descritor) {
+        long[] destino = arquivo[proximo];
+        if (destino == null) {
+            destino = new long[palavras];
+            arquivo[proximo] = destino;
+        }
+        System.arraycopy(descritor, 0, destino, 0, palavras);
+        proximo = (proximo + 1) % arquivo.length;
+        tamanho = Math.min(tamanho + 1, arquivo.length);
+    }
+
+    /** @return Quantos descritores estão no arquivo. */
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    /** Os índices 0..tamanho-1 são o arquivo; os seguintes, a população. */
+    private long[] descritor(long[][] populacao, int i) {
+        return i < tamanho ? arquivo[i] : populacao[i - tamanho];
+    }
+
+    /** A chave (o balde) de um descritor numa tabela: os bits amostrados. */
+    private int chave(int tabela, long[] descritor) {
+        int[] blocos = amostras[tabela];
+        int chave = 0;
+        for (int b = 0; b < blocos.length; b++) {
+            int i = blocos[b];
+            chave = (chave << 1) | (int) ((descritor[i >>> 6] >>> i) & 1L);
+        }
+        return chave;
+    }
+
+    private void prepararMemoria(int total) {
+        if (chaves == null || chaves.length < total) {
+            chaves = new int[total];
+            marca = new int[total];
+            marcaAtual = 0;
+            for (int t = 0; t < itens.length; t++) {
+                itens[t] = new int[total];
+            }
+        }
+    }
+}
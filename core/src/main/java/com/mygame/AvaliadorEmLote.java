@@ -0,0 +1,281 @@
+package com.mygame;
+
+import java.util.Arrays;
+
+/**
+ * O "Avaliador em Lote": calcula o fitness de 64 mapas de uma só vez.
+ *
+ * Todos os mapas de uma população têm o mesmo tamanho, por isso podemos
+ * "transpor" 64 genomas: cada bloco do mapa passa a ser UM long, em que o bit 'l'
+ * diz se esse bloco está livre no mapa 'l' (a "faixa" l). Uma BFS avança então
+ * nos 64 mapas ao mesmo tempo: a fronteira seguinte de um bloco é o OR das
+ * fronteiras dos 4 vizinhos, AND livre, AND ainda não visitado. Um passo da BFS
+ * custa uma passagem pelos blocos, seja qual for o número de mapas no lote.
+ *
+ * Cada passo só passa, em cada linha, pelo troço que está na fronteira ou ao lado
+ * dela (guardamos o primeiro e o último bloco da fronteira em cada linha): o resto
+ * não pode ser alcançado nesse passo. Nos labirintos evoluídos (caminhos longos,
+ * fronteira com poucos blocos) a BFS deixa de custar blocos x comprimento do
+ * caminho e passa a custar perto dos blocos visitados.
+ *
+ * O fitness é o mesmo do Pathfinder (a "varredura dupla"): BFS a partir do
+ * primeiro bloco livre, o bloco mais longe passa a ser o Fim, e o fitness é a
+ * maior distância a partir do Fim + 1 (o número de blocos do caminho mais longo
+ * encontrado); 0 se o mapa não tem blocos livres.
+ *
+ * Quando há vários blocos "mais longe" empatados, os dois escolhem o primeiro
+ * linha a linha, por isso o fitness é sempre igual ao do Pathfinder.
+ *
+ * Quanto se ganha (baseline do JMH, 100 mapas, contra o Pathfinder um a um):
+ *   - populações aleatórias com 20% de paredes: 6 a 7 vezes (0,30 contra 1,78 ms
+ *     em 21x11; 3,5 contra 24 ms em 51x51);
+ *   - aleatórias com 40% de paredes: 2,3 vezes em 21x11, 1,1 vezes em 51x51;
+ *   - populações evoluídas (AvaliadorEmLoteBenchmark): só 1,1 a 1,3 vezes
+ *     (4,8 contra 6,3 ms em 51x51; 18,6 contra 20,7 ms em 101x101).
+ * As "10 vezes" ficam fora de alcance nos labirintos: um passo em lote só poupa
+ * trabalho quando várias faixas estão no MESMO bloco à mesma distância, e as
+ * fronteiras de 64 labirintos diferentes quase nunca se tocam. Nos 100 mapas
+ * evoluídos de 101x101, as faixas visitam 131 mil blocos (tantos como um a um),
+ * mas a BFS em lote examina 399 mil blocos candidatos em 1021 passos. Só os mapas
+ * abertos (fronteiras largas, sobrepostas) tiram partido dos 64 bits.
+ *
+ * Toda a memória é criada uma vez e reutilizada entre lotes.
+ */
+public class AvaliadorEmLote {
+
+    /** Quantos mapas cabem num lote (um por bit de um long). */
+    public static final int FAIXAS = 64;
+
+    private final int largura;
+    private final int altura;
+
+    // [bloco] -> um bit por mapa do lote
+    private final long[] livre;
+    private long[] fronteira;
+    private long[] proxima;
+    private final long[] visitado;
+
+    // [linha] -> o primeiro e o último X com blocos na fronteira / na próxima
+    // (fora deste troço a linha está a zeros; linha vazia: primeiro > último)
+    private int[] primeiroFronteira;
+    private int[] ultimoFronteira;
+    private int[] primeiroProxima;
+    private int[] ultimoProxima;
+
+    // [faixa] -> valores de cada mapa do lote
+    private final int[] origem;
+    private final int[] maisLonge;
+    private final int[] excentricidade;
+
+    // Blocos visitados (somando todas as faixas) no último lote
+    private long expansoesUltimoLote;
+
+    /**
+     * @param largura A largura dos mapas.
+     * @param altura A altura dos mapas.
+     */
+    public AvaliadorEmLote(int largura, int altura) {
+        this.largura = largura;
+        this.altura = altura;
+        int n = largura * altura;
+        this.livre = new long[n];
+        this.fronteira = new long[n];
+        this.proxima = new long[n];
+        this.visitado = new long[n];
+        this.primeiroFronteira = new int[altura];
+        this.ultimoFronteira = new int[altura];
+        this.primeiroProxima = new int[altura];
+        this.ultimoProxima = new int[altura];
+        this.origem = new int[FAIXAS];
+        this.maisLonge = new int[FAIXAS];
+        this.excentricidade = new int[FAIXAS];
+    }
+
+    /**
+     * Calcula (e escreve em mapa.fitness) o fitness de todos os mapas, de 64 em 64.
+     * @param mapas Os mapas (todos do tamanho deste avaliador).
+     */
+    public void avaliar(MapaGenetico[] mapas) {
+        for (int inicio = 0; inicio < mapas.length; inicio += FAIXAS) {
+            avaliarLote(mapas, inicio, Math.min(FAIXAS, mapas.length - inicio));
+        }
+    }
+
+    /**
+     * Calcula o fitness de 'quantos' mapas (no máximo 64) a partir de mapas[inicio].
+     */
+    public void avaliarLote(MapaGenetico[] mapas, int inicio, int quantos) {
+        if (quantos > FAIXAS) {
+            throw new IllegalArgumentException("Um lote tem no máximo " + FAIXAS + " mapas: " + quantos);
+        }
+        expansoesUltimoLote = 0;
+
+        // 1. Transpõe os genomas (e encontra o primeiro bloco livre de cada mapa)
+        Arrays.fill(livre, 0L);
+        Arrays.fill(origem, -1);
+        Arrays.fill(maisLonge, -1);
+        for (int l = 0; l < quantos; l++) {
+            MapaGenetico mapa = mapas[inicio + l];
+            if (mapa.largura != largura || mapa.altura != altura) {
+                throw new IllegalArgumentException("Mapa com tamanho errado: " + mapa.largura + "x" + mapa.altura);
+            }
+            long bit = 1L << l;
+            int bloco = 0;
+            for (int z = 0; z < altura; z++) {
+                char[] linha = mapa.grelha[z];
+                for (int x = 0; x < largura; x++, bloco++) {
+                    if (linha[x] != 'X') {
+                        livre[bloco] |= bit;
+                        if (origem[l] < 0) {
+                            origem[l] = bloco;
+                        }
+                    }
+                }
+            }
+        }
+
+        // 2. Varredura dupla: do primeiro bloco livre ao mais longe (o Fim), e do Fim ao mais longe
+        bfs(origem);
+        bfs(maisLonge);
+
+        for (int l = 0; l < quantos; l++) {
+            mapas[inicio + l].fitness = origem[l] < 0 ? 0 : excentricidade[l] + 1;
+        }
+    }
+
+    /**
+     * Uma BFS nas 64 faixas ao mesmo tempo. Para cada faixa com partida (>= 0),
+     * escreve em 'excentricidade' a maior distância alcançada e em 'maisLonge'
+     * o primeiro bloco (linha a linha) a essa distância.
+     * @param partidas [faixa] -> bloco de partida (ou -1).
+     */
+    private void bfs(int[] partidas) {
+        Arrays.fill(fronteira, 0L);
+        Arrays.fill(proxima, 0L);
+        Arrays.fill(primeiroFronteira, largura);
+        Arrays.fill(ultimoFronteira, -1);
+        Arrays.fill(primeiroProxima, largura);
+        Arrays.fill(ultimoProxima, -1);
+        long ativas = 0;
+        for (int l = 0; l < FAIXAS; l++) {
+            int bloco = partidas[l];
+            if (bloco >= 0) {
+                fronteira[bloco] |= 1L << l;
+                int z = bloco / largura;
+                int x = bloco % largura;
+                primeiroFronteira[z] = Math.min(primeiroFronteira[z], x);
+                ultimoFronteira[z] = Math.max(ultimoFronteira[z], x);
+                ativas |= 1L << l;
+            }
+        }
+        System.arraycopy(fronteira, 0, visitado, 0, visitado.length);
+        expansoesUltimoLote += Long.bitCount(ativas);
+
+        int distancia = 0;
+        while (ativas != 0) {
+            // 1. A fronteira seguinte, para as 64 faixas de uma vez
+            long alcancadas = 0;
+            for (int z = 0; z < altura; z++) {
+                // O troço desta linha que pode ser alcançado: ao lado da fronteira
+                // nesta linha ou por baixo/por cima dela nas linhas vizinhas
+                int de = primeiroFronteira[z];
+                int ate = ultimoFronteira[z];
+                if (z > 0) {
+                    de = Math.min(de, primeiroFronteira[z - 1]);
+                    ate = Math.max(ate, ultimoFronteira[z - 1]);
+                }
+                if (z + 1 < altura) {
+                    de = Math.min(de, primeiroFronteira[z + 1]);
+                    ate = Math.max(ate, ultimoFronteira[z + 1]);
+                }
+
+                // Limpa o que ficou nesta linha de dois passos atrás
+                int inicioLinha = z * largura;
+                if (primeiroProxima[z] <= ultimoProxima[z]) {
+                    Arrays.fill(proxima, inicioLinha + primeiroProxima[z], inicioLinha + ultimoProxima[z] + 1, 0L);
+                }
+                int primeiro = largura;
+                int ultimo = -1;
+                if (de <= ate) {
+                    de = Math.max(de - 1, 0);
+                    ate = Math.min(ate + 1, largura - 1);
+                    int bloco = inicioLinha + de;
+                    for (int x = de; x <= ate; x++, bloco++) {
+                        long vizinhos = 0;
+                        if (x > 0) {
+                            vizinhos |= fronteira[bloco - 1];
+                        }
+                        if (x + 1 < largura) {
+                            vizinhos |= fronteira[bloco + 1];
+                        }
+                        if (z > 0) {
+                            vizinhos |= fronteira[bloco - largura];
+                        }
+                        if (z + 1 < altura) {
+                            vizinhos |= fronteira[bloco + largura];
+                        }
+                        long novo = vizinhos & livre[bloco] & ~visitado[bloco];
+                        if (novo != 0) {
+                            proxima[bloco] = novo;
+                            // (Marcar já não muda os outros blocos: os vizinhos leem a fronteira)
+                            visitado[bloco] |= novo;
+                            alcancadas |= novo;
+                            expansoesUltimoLote += Long.bitCount(novo);
+                            if (primeiro > x) {
+                                primeiro = x;
+                            }
+                            ultimo = x;
+                        }
+                    }
+                }
+                primeiroProxima[z] = primeiro;
+                ultimoProxima[z] = ultimo;
+            }
+
+            // 2. As faixas que não avançaram "convergiram": a fronteira atual é a mais longe
+            long convergiram = ativas & ~alcancadas;
+            if (convergiram != 0) {
+                registarConvergencia(convergiram, distancia);
+            }
+
+            // 3. Avança
+            long[] t = fronteira;
+            fronteira = proxima;
+            proxima = t;
+            int[] troca = primeiroFronteira;
+            primeiroFronteira = primeiroProxima;
+            primeiroProxima = troca;
+            troca = ultimoFronteira;
+            ultimoFronteira = ultimoProxima;
+            ultimoProxima = troca;
+            ativas = alcancadas;
+            distancia++;
+        }
+    }
+
+    /**
+     * Guarda a distância e o primeiro bloco da fronteira (linha a linha) das faixas que terminaram.
+     */
+    private void registarConvergencia(long faixas, int distancia) {
+        long porEncontrar = faixas;
+        for (int z = 0; z < altura && porEncontrar != 0; z++) {
+            int inicioLinha = z * largura;
+            for (int x = primeiroFronteira[z]; x <= ultimoFronteira[z] && porEncontrar != 0; x++) {
+                int bloco = inicioLinha + x;
+                long aqui = fronteira[bloco] & porEncontrar;
+                while (aqui != 0) {
+                    int l = Long.numberOfTrailingZeros(aqui);
+                    maisLonge[l] = bloco;
+                    excentricidade[l] = distancia;
+                    aqui &= aqui - 1;
+                }
+                porEncontrar &= ~fronteira[bloco];
+            }
+        }
+    }
+
+    /** @return Quantos blocos foram visitados (somando os mapas e as duas BFS) no último lote. */
+    public long getExpansoesUltimoLote() {
+        return expansoesUltimoLote;
+    }
+}
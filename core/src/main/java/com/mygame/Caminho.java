@@ -0,0 +1,71 @@
+package com.mygame;
+
+/**
+ * Um caminho encontrado pelo Pathfinder, do Início ao Fim.
+ *
+ * Em vez de uma List de Nodes (um objeto por passo, mais a lista), guarda só o
+ * índice de cada bloco (z * largura + x) num int[]: o tamanho, o passo 'i' e as
+ * coordenadas de cada passo são O(1), e percorrer o caminho (com um ciclo e
+ * getX/getZ, ou com percorrer) não cria objeto nenhum.
+ *
+ * É imutável: pode ser partilhado entre threads (por exemplo, o mesmo caminho
+ * entregue a vários pedidos no ServicoConsultaCaminho).
+ */
+public final class Caminho {
+
+    private final int[] blocos; // Índice (z * largura + x) de cada passo, do Início ao Fim
+    private final int largura;
+
+    /**
+     * @param blocos Os índices dos blocos, por ordem (o array passa a ser deste caminho).
+     * @param largura A largura do mapa (para passar de índice a x/z).
+     */
+    Caminho(int[] blocos, int largura) {
+        this.blocos = blocos;
+        this.largura = largura;
+    }
+
+    /** @return Quantos blocos tem o caminho (contando o Início e o Fim). */
+    public int size() {
+        return blocos.length;
+    }
+
+    /** @return O X do passo 'i' (0 = o Início). */
+    public int getX(int i) {
+        return blocos[i] % largura;
+    }
+
+    /** @return O Z do passo 'i' (0 = o Início). */
+    public int getZ(int i) {
+        return blocos[i] / largura;
+    }
+
+    /** @return O índice (z * largura + x) do bloco do passo 'i'. */
+    public int getIndiceBloco(int i) {
+        return blocos[i];
+    }
+
+    /**
+     * Quem recebe os passos em percorrer.
+     */
+    @FunctionalInterface
+    public interface VisitantePasso {
+        void visitar(int passo, int x, int z);
+    }
+
+    /**
+     * Percorre o caminho do Início ao Fim.
+     * @param visitante Chamado para cada passo.
+     */
+    public void percorrer(VisitantePasso visitante) {
+        for (int i = 0; i < blocos.length; i++) {
+            int bloco = blocos[i];
+            visitante.visitar(i, bloco % largura, bloco / largura);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Caminho de " + blocos.length + " blocos";
+    }
+}
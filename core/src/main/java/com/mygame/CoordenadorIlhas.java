@@ -0,0 +1,208 @@
+package com.mygame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * O "Coordenador" da evolução em ilhas: um pequeno servidor TCP a que várias
+ * ilhas (processos com o seu próprio AlgoritmoGenetico, ver IlhaRemota) se ligam.
+ *
+ * De tantas em tantas gerações, cada ilha envia os seus melhores mapas e recebe
+ * em troca os melhores que as OUTRAS ilhas enviaram por último (migração).
+ * O coordenador guarda também o melhor mapa global.
+ * O formato das mensagens está em ProtocoloGenoma.
+ *
+ * Se uma ilha se desliga sem enviar o resultado (o processo morreu, a rede caiu),
+ * a evolução é abortada logo: aguardarFim deixa de esperar e lança uma IOException.
+ */
+public class CoordenadorIlhas implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(CoordenadorIlhas.class.getName());
+
+    private final ServerSocket servidor;
+    private final int numIlhas;
+    private final CountDownLatch ilhasTerminadas;
+    private final Thread aceitador;
+
+    // Os últimos emigrantes de cada ilha (id -> mapas) e o melhor de todos
+    private final Map<Integer, List<MapaGenetico>> ultimosMigrantes = new HashMap<>();
+    private MapaGenetico melhorGlobal;
+    private int migracoes = 0;
+    private String motivoAborto; // null enquanto tudo corre bem
+
+    /**
+     * Abre o servidor e começa a aceitar ilhas.
+     * @param porta A porta TCP (0 = escolhe uma livre, ver getPorta).
+     * @param numIlhas Quantas ilhas vão participar (aguardarFim espera por todas).
+     * @return O coordenador, já à escuta.
+     * @throws IOException Se não for possível abrir a porta.
+     */
+    public static CoordenadorIlhas abrir(int porta, int numIlhas) throws IOException {
+        CoordenadorIlhas coordenador = new CoordenadorIlhas(porta, numIlhas);
+        // (A thread só arranca depois do construtor: não vê o objeto a meio de ser construído)
+        coordenador.aceitador.start();
+        return coordenador;
+    }
+
+    private CoordenadorIlhas(int porta, int numIlhas) throws IOException {
+        this.servidor = new ServerSocket(porta);
+        this.numIlhas = numIlhas;
+        this.ilhasTerminadas = new CountDownLatch(numIlhas);
+        this.aceitador = new Thread(this::aceitarIlhas, "Minos-Coordenador");
+        this.aceitador.setDaemon(true);
+    }
+
+    /** @return A porta TCP onde o coordenador está à escuta. */
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    private void aceitarIlhas() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket ligacao = servidor.accept();
+                ligacao.setTcpNoDelay(true);
+                Thread t = new Thread(() -> atender(ligacao), "Minos-Coordenador-Ilha");
+                t.setDaemon(true);
+                t.start();
+            } catch (SocketException e) {
+                return; // O servidor foi fechado
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Falhou a ligação de uma ilha", e);
+            }
+        }
+    }
+
+    /**
+     * Atende uma ilha até ela enviar FIM (ou a ligação cair).
+     */
+    private void atender(Socket ligacao) {
+        try (ligacao;
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(ligacao.getInputStream()));
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(ligacao.getOutputStream()))) {
+            while (true) {
+                byte tipo = entrada.readByte();
+                int idIlha = entrada.readInt();
+                switch (tipo) {
+                    case ProtocoloGenoma.MSG_MIGRANTES -> {
+                        int geracao = entrada.readInt();
+                        List<MapaGenetico> recebidos = ProtocoloGenoma.lerLista(entrada);
+                        List<MapaGenetico> resposta = trocar(idIlha, recebidos);
+                        LOG.fine(() -> "Ilha " + idIlha + " (geração " + geracao + "): "
+                                + recebidos.size() + " enviados, " + resposta.size() + " recebidos");
+                        ProtocoloGenoma.escreverLista(saida, resposta);
+                        saida.flush();
+                    }
+                    case ProtocoloGenoma.MSG_FIM -> {
+                        MapaGenetico melhor = ProtocoloGenoma.ler(entrada);
+                        registarMelhor(melhor);
+                        LOG.info(() -> "Ilha " + idIlha + " terminou (melhor fitness " + melhor.fitness + ")");
+                        ilhasTerminadas.countDown();
+                        return;
+                    }
+                    default -> throw new IOException("Mensagem desconhecida: " + tipo);
+                }
+            }
+        } catch (EOFException e) {
+            LOG.warning("Uma ilha desligou-se sem enviar FIM");
+            abortar("Uma ilha desligou-se sem enviar o resultado");
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Erro a falar com uma ilha", e);
+            abortar("Erro a falar com uma ilha: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aborta a evolução: aguardarFim deixa logo de esperar e lança uma IOException
+     * com este motivo (só o primeiro motivo é guardado).
+     * @param motivo Porque é que a evolução não pode continuar.
+     */
+    public void abortar(String motivo) {
+        synchronized (this) {
+            if (motivoAborto == null) {
+                motivoAborto = motivo;
+            }
+        }
+        while (ilhasTerminadas.getCount() > 0) {
+            ilhasTerminadas.countDown();
+        }
+    }
+
+    /**
+     * Guarda os emigrantes de uma ilha e devolve os melhores das outras
+     * (no máximo tantos como os que a ilha enviou).
+     */
+    private synchronized List<MapaGenetico> trocar(int idIlha, List<MapaGenetico> recebidos) {
+        ultimosMigrantes.put(idIlha, recebidos);
+        for (MapaGenetico mapa : recebidos) {
+            registarMelhor(mapa);
+        }
+        migracoes++;
+
+        List<MapaGenetico> candidatos = new ArrayList<>();
+        for (Map.Entry<Integer, List<MapaGenetico>> entrada : ultimosMigrantes.entrySet()) {
+            if (entrada.getKey() != idIlha) {
+                candidatos.addAll(entrada.getValue());
+            }
+        }
+        candidatos.sort((a, b) -> Integer.compare(b.fitness, a.fitness));
+        return candidatos.subList(0, Math.min(recebidos.size(), candidatos.size()));
+    }
+
+    private synchronized void registarMelhor(MapaGenetico mapa) {
+        if (melhorGlobal == null || mapa.fitness > melhorGlobal.fitness) {
+            melhorGlobal = mapa;
+        }
+    }
+
+    /**
+     * Espera que todas as ilhas enviem o resultado final.
+     * @param timeoutMs O tempo máximo de espera.
+     * @return O melhor mapa de todas as ilhas.
+     * @throws IOException Se a evolução foi abortada (uma ilha desligou-se sem terminar).
+     * @throws TimeoutException Se alguma ilha não terminou a tempo.
+     * @throws InterruptedException Se a espera foi interrompida.
+     */
+    public MapaGenetico aguardarFim(long timeoutMs) throws IOException, TimeoutException, InterruptedException {
+        if (!ilhasTerminadas.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException((ilhasTerminadas.getCount()) + " de " + numIlhas + " ilhas não terminaram a tempo");
+        }
+        synchronized (this) {
+            if (motivoAborto != null) {
+                throw new IOException("Evolução abortada: " + motivoAborto);
+            }
+            return melhorGlobal;
+        }
+    }
+
+    /** @return O melhor mapa visto até agora (ou null). */
+    public synchronized MapaGenetico getMelhorGlobal() {
+        return melhorGlobal;
+    }
+
+    /** @return Quantas trocas de migrantes já foram feitas. */
+    public synchronized int getMigracoes() {
+        return migracoes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+    }
+}
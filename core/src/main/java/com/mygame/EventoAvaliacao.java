@@ -0,0 +1,34 @@
+package com.mygame;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder: a avaliação (fitness) de UM mapa.
+ * Diz quanto trabalho o "Professor" (Pathfinder) teve com esse mapa.
+ */
+@Name("com.mygame.Avaliacao")
+@Label("Avaliação de Mapa")
+@Category({"Projeto Minos", "Algoritmo Genético"})
+@Description("Cálculo do fitness de um único labirinto")
+@StackTrace(false)
+public class EventoAvaliacao extends jdk.jfr.Event {
+
+    @Label("Fitness")
+    public int fitness;
+
+    @Label("Varrimentos BFS")
+    public int varrimentosBFS;
+
+    @Label("Nós Expandidos")
+    @Description("Nós retirados da fila do BFS e da Lista Aberta do A*")
+    public long expansoes;
+
+    @Label("Memória Alocada")
+    @DataAmount
+    public long bytesAlocados;
+}
@@ -0,0 +1,36 @@
+package com.mygame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder: uma geração avaliada pelo AlgoritmoGenetico.
+ * A duração do evento é o tempo de avaliação (calcularFitnessPopulacao).
+ * Ativar com: java -XX:StartFlightRecording ...
+ */
+@Name("com.mygame.Geracao")
+@Label("Geração Avaliada")
+@Category({"Projeto Minos", "Algoritmo Genético"})
+@Description("Avaliação de uma geração completa da população de labirintos")
+@StackTrace(false)
+public class EventoGeracao extends jdk.jfr.Event {
+
+    @Label("Geração")
+    public int geracao;
+
+    @Label("Tamanho da População")
+    public int tamanhoPopulacao;
+
+    @Label("Melhor Fitness")
+    public int melhorFitness;
+
+    @Label("Fitness Médio")
+    public double fitnessMedio;
+
+    @Label("Diversidade")
+    @Description("Fração média de blocos diferentes do melhor mapa (0.0 = população toda igual)")
+    public double diversidade;
+}
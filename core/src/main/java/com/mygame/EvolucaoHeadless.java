@@ -0,0 +1,473 @@
+package com.mygame;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ponto de entrada "headless" (sem janela, sem jMonkeyEngine).
+ * Corre a IA "Arquiteto" na consola e imprime o melhor labirinto encontrado.
+ * Útil para servidores sem gráficos e para medir o núcleo sozinho.
+ *
+ * Uso: EvolucaoHeadless [--largura N] [--altura N] [--populacao N]
+ *                       [--mutacao F] [--crossover F] [--elite N] [--geracoes N]
+ *                       [--niveis N] [--modo fitness|novidade|misto] [--pesoNovidade F]
+ *                       [--reparar true|false] [--torneio N] [--parametros FICHEIRO]
+ *                       [--registo FICHEIRO] [--lote true|false]
+ *                       [--orcamentoMs N] [--fitnessAlvo N] [--estagnacao N]
+ *
+ * Com "--orcamentoMs", "--fitnessAlvo" ou "--estagnacao", a evolução pára no
+ * primeiro critério que for atingido (e "--geracoes" passa a ser só um limite).
+ * Estes critérios não funcionam com "--niveis" nem com as ilhas.
+ *
+ * "--parametros" lê a população, mutação, crossover, elite e torneio de um ficheiro
+ * gravado pelo AfinadorParametros (os argumentos que vêm depois dele ganham).
+ *
+ * "--lote true" avalia 64 mapas de cada vez, com uma BFS em bits (ver AvaliadorEmLote).
+ *
+ * "--registo" grava o melhor mapa de cada geração (ver RegistoEvolucao; cada
+ * ilha grava no seu, FICHEIRO.N). Rever com: ReprodutorEvolucao FICHEIRO [GERACAO].
+ *
+ * Com "--niveis N" (N > 1), usa a evolução multi-resolução: "--geracoes"
+ * passa a ser o número de gerações em cada um dos N níveis (não funciona com as ilhas).
+ *
+ * Evolução em ilhas (vários processos, ver CoordenadorIlhas; só um destes três papéis de cada vez):
+ *   --coordenador PORTA --ilhas N   Só o coordenador: espera N ilhas e imprime o melhor global.
+ *   --ilha HOST:PORTA --id N        Uma ilha, ligada a um coordenador (noutra máquina ou não).
+ *   --local N                       Tudo nesta máquina: o coordenador + N processos-ilha.
+ *   [--intervaloMigracao G] [--migrantes K]  De G em G gerações, troca os K melhores.
+ *
+ * Mapas grandes ("--grelha FICHEIRO"): em vez de evoluir, avalia um só mapa guardado
+ * numa GrelhaCompacta mapeada em memória (2 bits por bloco), com o mesmo Pathfinder
+ * da evolução. Se o ficheiro não existir, é criado com um mapa aleatório de
+ * "--largura" x "--altura" (por exemplo, 8000x5000 = 40 milhões de blocos em 10 MB).
+ */
+public class EvolucaoHeadless {
+
+    // Os mesmos valores por defeito que o Main usa
+    private int largura = 21;
+    private int altura = 11;
+    private int tamanhoPopulacao = 100;
+    private float taxaMutacao = 0.05f;
+    private float taxaCrossover = 0.7f;
+    private int numElite = 5;
+    private int tamanhoTorneio = AlgoritmoGenetico.TAMANHO_TORNEIO;
+    private int geracoes = 50;
+    private int niveis = 1;
+    private AlgoritmoGenetico.ModoAvaliacao modo = AlgoritmoGenetico.ModoAvaliacao.FITNESS;
+    private float pesoNovidade = 0.5f;
+    private boolean reparar = false;
+    private boolean emLote = false;
+    private long orcamentoMs = Long.MAX_VALUE / 1_000_000L;
+    private int fitnessAlvo = Integer.MAX_VALUE;
+    private int janelaEstagnacao = 0;
+    private boolean comCriterios = false;
+    private Path ficheiroRegisto = null;
+
+    // Evolução em ilhas
+    private int portaCoordenador = -1;
+    private int numIlhas = 0;
+    private String enderecoIlha = null;
+    private int idIlha = 0;
+    private int ilhasLocais = 0;
+    private int intervaloMigracao = 10;
+    private int numMigrantes = 2;
+    // Mapas grandes: o ficheiro da GrelhaCompacta a avaliar
+    private Path ficheiroGrelha = null;
+
+    // Os argumentos da evolução em si (passados tal e qual aos processos-ilha)
+    private final List<String> argumentosEvolucao = new ArrayList<>();
+
+    // Paredes no interior dos mapas grandes aleatórios. Com os 40% da Geração 0, os
+    // caminhos de um mapa enorme ficam partidos em "bolsas" pequenas e o caminho mais
+    // longo não diz nada; com 30% quase tudo está ligado.
+    private static final float CHANCE_PAREDE_GRELHA = 0.3f;
+
+    // Tempo máximo à espera das ilhas
+    private static final long ESPERA_ILHAS_MS = 30 * 60 * 1000L;
+
+    /**
+     * Ponto de entrada do programa.
+     * @param args Os parâmetros da evolução (ver o comentário da classe).
+     */
+    public static void main(String[] args) {
+        EvolucaoHeadless cli = new EvolucaoHeadless();
+        try {
+            cli.lerArgumentos(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        try {
+            if (cli.ficheiroGrelha != null) {
+                cli.executarGrelha();
+            } else if (cli.ilhasLocais > 0) {
+                cli.executarLocal();
+            } else if (cli.portaCoordenador >= 0) {
+                cli.executarCoordenador();
+            } else if (cli.enderecoIlha != null) {
+                cli.executarIlha();
+            } else {
+                cli.executar();
+            }
+        } catch (IOException | TimeoutException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lê os pares "--nome valor" da linha de comandos.
+     */
+    private void lerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String nome = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta o valor de " + nome);
+            }
+            String valor = args[++i];
+            try {
+                switch (nome) {
+                    case "--largura" -> largura = Integer.parseInt(valor);
+                    case "--altura" -> altura = Integer.parseInt(valor);
+                    case "--populacao" -> tamanhoPopulacao = Integer.parseInt(valor);
+                    case "--mutacao" -> taxaMutacao = Float.parseFloat(valor);
+                    case "--crossover" -> taxaCrossover = Float.parseFloat(valor);
+                    case "--elite" -> numElite = Integer.parseInt(valor);
+                    case "--torneio" -> tamanhoTorneio = Integer.parseInt(valor);
+                    case "--parametros" -> lerParametros(Path.of(valor));
+                    case "--registo" -> ficheiroRegisto = Path.of(valor);
+                    case "--geracoes" -> geracoes = Integer.parseInt(valor);
+                    case "--niveis" -> niveis = Integer.parseInt(valor);
+                    case "--modo" -> modo = switch (valor) {
+                        case "fitness" -> AlgoritmoGenetico.ModoAvaliacao.FITNESS;
+                        case "novidade" -> AlgoritmoGenetico.ModoAvaliacao.NOVIDADE;
+                        case "misto" -> AlgoritmoGenetico.ModoAvaliacao.NOVIDADE_E_FITNESS;
+                        default -> throw new IllegalArgumentException("Modo desconhecido: " + valor);
+                    };
+                    case "--pesoNovidade" -> pesoNovidade = Float.parseFloat(valor);
+                    case "--reparar" -> reparar = Boolean.parseBoolean(valor);
+                    case "--lote" -> emLote = Boolean.parseBoolean(valor);
+                    case "--orcamentoMs" -> {
+                        orcamentoMs = Long.parseLong(valor);
+                        comCriterios = true;
+                    }
+                    case "--fitnessAlvo" -> {
+                        fitnessAlvo = Integer.parseInt(valor);
+                        comCriterios = true;
+                    }
+                    case "--estagnacao" -> {
+                        janelaEstagnacao = Integer.parseInt(valor);
+                        comCriterios = true;
+                    }
+                    case "--coordenador" -> portaCoordenador = Integer.parseInt(valor);
+                    case "--ilhas" -> numIlhas = Integer.parseInt(valor);
+                    case "--ilha" -> enderecoIlha = valor;
+                    case "--id" -> idIlha = Integer.parseInt(valor);
+                    case "--local" -> ilhasLocais = Integer.parseInt(valor);
+                    case "--intervaloMigracao" -> intervaloMigracao = Integer.parseInt(valor);
+                    case "--migrantes" -> numMigrantes = Integer.parseInt(valor);
+                    case "--grelha" -> ficheiroGrelha = Path.of(valor);
+                    default -> throw new IllegalArgumentException("Argumento desconhecido: " + nome);
+                }
+                if (!nome.equals("--coordenador") && !nome.equals("--ilhas") && !nome.equals("--ilha")
+                        && !nome.equals("--id") && !nome.equals("--local")) {
+                    argumentosEvolucao.add(nome);
+                    argumentosEvolucao.add(valor);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor inválido para " + nome + ": " + valor);
+            }
+        }
+        // As combinações que não são suportadas (em vez de ignorar um dos argumentos)
+        boolean emIlhas = enderecoIlha != null || ilhasLocais > 0;
+        int papeis = (ilhasLocais > 0 ? 1 : 0) + (portaCoordenador >= 0 ? 1 : 0) + (enderecoIlha != null ? 1 : 0);
+        if (papeis > 1) {
+            throw new IllegalArgumentException("Escolhe só um de --local, --coordenador e --ilha");
+        }
+        if (ficheiroRegisto != null && niveis > 1) {
+            throw new IllegalArgumentException("--registo não funciona com --niveis (o tamanho dos mapas muda)");
+        }
+        if (niveis > 1 && emIlhas) {
+            throw new IllegalArgumentException("--niveis não funciona com a evolução em ilhas");
+        }
+        if (comCriterios && niveis > 1) {
+            throw new IllegalArgumentException("--orcamentoMs, --fitnessAlvo e --estagnacao não funcionam com --niveis");
+        }
+        if (comCriterios && emIlhas) {
+            throw new IllegalArgumentException("--orcamentoMs, --fitnessAlvo e --estagnacao não funcionam com a evolução em ilhas");
+        }
+        if (ficheiroGrelha != null && (emIlhas || portaCoordenador >= 0 || niveis > 1 || comCriterios
+                || ficheiroRegisto != null || emLote)) {
+            throw new IllegalArgumentException("--grelha só avalia um mapa: não funciona com as ilhas, --niveis, "
+                    + "--orcamentoMs, --fitnessAlvo, --estagnacao, --registo nem --lote");
+        }
+    }
+
+    /**
+     * Lê os parâmetros gravados pelo AfinadorParametros (as chaves que faltam ficam como estão).
+     */
+    private void lerParametros(Path ficheiro) {
+        Properties propriedades = new Properties();
+        try (Reader leitor = Files.newBufferedReader(ficheiro, StandardCharsets.UTF_8)) {
+            propriedades.load(leitor);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Não foi possível ler " + ficheiro + ": " + e.getMessage());
+        }
+        tamanhoPopulacao = Integer.parseInt(propriedades.getProperty(AfinadorParametros.CHAVE_POPULACAO, Integer.toString(tamanhoPopulacao)));
+        taxaMutacao = Float.parseFloat(propriedades.getProperty(AfinadorParametros.CHAVE_MUTACAO, Float.toString(taxaMutacao)));
+        taxaCrossover = Float.parseFloat(propriedades.getProperty(AfinadorParametros.CHAVE_CROSSOVER, Float.toString(taxaCrossover)));
+        numElite = Integer.parseInt(propriedades.getProperty(AfinadorParametros.CHAVE_ELITE, Integer.toString(numElite)));
+        tamanhoTorneio = Integer.parseInt(propriedades.getProperty(AfinadorParametros.CHAVE_TORNEIO, Integer.toString(tamanhoTorneio)));
+    }
+
+    /**
+     * Corre o mesmo ciclo de evolução do Main.simpleInitApp, mas sem o jogo.
+     */
+    private void executar() throws IOException {
+        long inicio = System.nanoTime();
+        MapaGenetico melhorMapa = evoluir(null, "");
+        imprimirResultado(melhorMapa, inicio);
+    }
+
+    /**
+     * A evolução de uma população. Se 'ilha' não for null, de 'intervaloMigracao'
+     * em 'intervaloMigracao' gerações troca os melhores mapas com as outras ilhas.
+     */
+    private MapaGenetico evoluir(IlhaRemota ilha, String prefixo) throws IOException {
+        AlgoritmoGenetico ag = new AlgoritmoGenetico(
+                tamanhoPopulacao,
+                taxaMutacao,
+                taxaCrossover,
+                numElite,
+                largura,
+                altura
+        );
+        ag.setModoAvaliacao(modo, pesoNovidade);
+        ag.setReparacaoConectividade(reparar);
+        ag.setTamanhoTorneio(tamanhoTorneio);
+        ag.setAvaliacaoEmLote(emLote);
+        if (niveis > 1) {
+            ag.evoluirMultiResolucao(niveis, geracoes);
+            return ag.getMelhorMapa();
+        }
+
+        Path ficheiro = ficheiroRegisto == null || ilha == null ? ficheiroRegisto
+                : Path.of(ficheiroRegisto + "." + idIlha);
+        try (RegistoEvolucao registo = ficheiro == null ? null : new RegistoEvolucao(ficheiro, largura, altura)) {
+            try {
+                if (comCriterios) {
+                    ag.inicializarPopulacao();
+                    AlgoritmoGenetico.MotivoParagem motivo = ag.evoluirComOrcamento(
+                            orcamentoMs, fitnessAlvo, janelaEstagnacao, geracoes,
+                            m -> {
+                                System.out.println(prefixo + m + String.format(" | Mutação: %.3f", ag.getTaxaMutacaoAtual()));
+                                registar(registo, ag);
+                            });
+                    System.out.println(prefixo + "Parou: " + motivo);
+                } else {
+                    ag.inicializarPopulacao();
+
+                    for (int i = 0; i < geracoes; i++) {
+                        ag.calcularFitnessPopulacao();
+                        System.out.println(prefixo + ag.getMetricas());
+                        registar(registo, ag);
+                        if (ilha != null && (i + 1) % intervaloMigracao == 0) {
+                            ag.receberMigrantes(ilha.trocarMigrantes(i, ag.copiarMelhores(numMigrantes)));
+                        }
+                        ag.evoluirProximaGeracao();
+                    }
+                    ag.calcularFitnessPopulacao();
+                    registar(registo, ag);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // (Um erro do registo dentro do "callback")
+            }
+            if (registo != null) {
+                System.out.println(prefixo + "Registo: " + registo.getNumRegistos() + " gerações em "
+                        + registo.getBytesEscritos() + " bytes (" + ficheiro + ")");
+            }
+        }
+        return ag.getMelhorMapa();
+    }
+
+    /**
+     * Grava o melhor mapa da geração acabada de avaliar (se houver registo).
+     */
+    private static void registar(RegistoEvolucao registo, AlgoritmoGenetico ag) {
+        if (registo == null) {
+            return;
+        }
+        try {
+            registo.registar(ag.getMetricas().getGeracao(), ag.getMelhorMapa());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Uma ilha: evolui a sua população e troca migrantes com o coordenador.
+     */
+    private void executarIlha() throws IOException {
+        int separador = enderecoIlha.lastIndexOf(':');
+        if (separador < 0) {
+            throw new IllegalArgumentException("O endereço da ilha tem de ser HOST:PORTA: " + enderecoIlha);
+        }
+        String host = enderecoIlha.substring(0, separador);
+        int porta = Integer.parseInt(enderecoIlha.substring(separador + 1));
+
+        long inicio = System.nanoTime();
+        try (IlhaRemota ilha = new IlhaRemota(host, porta, idIlha)) {
+            MapaGenetico melhorMapa = evoluir(ilha, "[Ilha " + idIlha + "] ");
+            ilha.enviarResultado(melhorMapa);
+            long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println("[Ilha " + idIlha + "] Concluída em " + duracaoMs + " ms | Melhor Fitness: " + melhorMapa.fitness);
+        }
+    }
+
+    /**
+     * Só o coordenador: espera pelas ilhas e imprime o melhor mapa global.
+     */
+    private void executarCoordenador() throws IOException, TimeoutException, InterruptedException {
+        if (numIlhas <= 0) {
+            throw new IllegalArgumentException("Falta --ilhas N (quantas ilhas esperar)");
+        }
+        long inicio = System.nanoTime();
+        try (CoordenadorIlhas coordenador = CoordenadorIlhas.abrir(portaCoordenador, numIlhas)) {
+            System.out.println("--- COORDENADOR À ESCUTA NA PORTA " + coordenador.getPorta()
+                    + " (" + numIlhas + " ilhas) ---");
+            MapaGenetico melhorMapa = coordenador.aguardarFim(ESPERA_ILHAS_MS);
+            System.out.println("--- " + coordenador.getMigracoes() + " trocas de migrantes ---");
+            imprimirResultado(melhorMapa, inicio);
+        }
+    }
+
+    /**
+     * Tudo nesta máquina: abre o coordenador numa porta livre e lança N processos-ilha
+     * (com a mesma JVM e o mesmo classpath) ligados a ele pelo "loopback".
+     * Se um processo-ilha terminar com erro, a evolução é abortada logo (e os
+     * outros processos são terminados).
+     */
+    private void executarLocal() throws IOException, TimeoutException, InterruptedException {
+        long inicio = System.nanoTime();
+        try (CoordenadorIlhas coordenador = CoordenadorIlhas.abrir(0, ilhasLocais)) {
+            String java = ProcessHandle.current().info().command().orElse("java");
+            List<Process> processos = new ArrayList<>();
+            for (int i = 0; i < ilhasLocais; i++) {
+                List<String> comando = new ArrayList<>();
+                comando.add(java);
+                comando.add("-cp");
+                comando.add(System.getProperty("java.class.path"));
+                comando.add(EvolucaoHeadless.class.getName());
+                comando.addAll(argumentosEvolucao);
+                comando.add("--ilha");
+                comando.add("localhost:" + coordenador.getPorta());
+                comando.add("--id");
+                comando.add(Integer.toString(i));
+                Process processo = new ProcessBuilder(comando).inheritIO().start();
+                processos.add(processo);
+                int id = i;
+                processo.onExit().thenAccept(p -> {
+                    if (p.exitValue() != 0) {
+                        coordenador.abortar("A ilha " + id + " terminou com o código " + p.exitValue());
+                    }
+                });
+            }
+
+            MapaGenetico melhorMapa;
+            try {
+                melhorMapa = coordenador.aguardarFim(ESPERA_ILHAS_MS);
+            } catch (Exception e) {
+                for (Process processo : processos) {
+                    processo.destroy();
+                }
+                throw e;
+            }
+            String erro = null;
+            for (int i = 0; i < processos.size(); i++) {
+                Process processo = processos.get(i);
+                if (!processo.waitFor(5, TimeUnit.SECONDS)) {
+                    processo.destroy(); // (Já entregou o resultado, mas não terminou)
+                } else if (processo.exitValue() != 0 && erro == null) {
+                    erro = "A ilha " + i + " terminou com o código " + processo.exitValue();
+                }
+            }
+            if (erro != null) {
+                throw new IOException(erro);
+            }
+            System.out.println("--- " + ilhasLocais + " ilhas, " + coordenador.getMigracoes() + " trocas de migrantes ---");
+            imprimirResultado(melhorMapa, inicio);
+        }
+    }
+
+    /**
+     * Mapas grandes: abre (ou cria) a GrelhaCompacta do ficheiro e avalia-a como a
+     * evolução avalia cada mapa (o caminho mais longo entre o Início e o Fim).
+     * Nenhum passo cria um objeto por bloco, por isso a memória é a da grelha
+     * (mapeada) mais 3 bits por bloco para o BFS.
+     */
+    private void executarGrelha() throws IOException {
+        long inicio = System.nanoTime();
+        try (GrelhaCompacta grelha = abrirOuCriarGrelha()) {
+            long lida = System.nanoTime();
+            System.out.println("--- GRELHA " + grelha.getLargura() + "x" + grelha.getAltura() + " ("
+                    + grelha.getBytesOcupados() + " bytes) pronta em " + (lida - inicio) / 1_000_000 + " ms ---");
+
+            Pathfinder professor = new Pathfinder(grelha);
+            professor.encontrarInicioEFimMaisLongos();
+            Caminho caminho = professor.encontrarCaminho();
+            int fitness = caminho == null ? 0 : caminho.size();
+
+            long duracaoMs = (System.nanoTime() - lida) / 1_000_000;
+            System.out.println("--- AVALIAÇÃO CONCLUÍDA em " + duracaoMs + " ms | Fitness: " + fitness
+                    + " | Expansões: " + professor.getExpansoes() + " ---");
+            if (caminho != null) {
+                Node noInicio = professor.getNoInicio();
+                Node noFim = professor.getNoFim();
+                System.out.println("Início: (" + noInicio.x + ", " + noInicio.z + ") | Fim: ("
+                        + noFim.x + ", " + noFim.z + ")");
+            }
+        }
+    }
+
+    /**
+     * Abre a grelha de "--grelha", ou cria-a com um mapa aleatório (com as bordas em
+     * parede, como a Geração 0 do AlgoritmoGenetico).
+     */
+    private GrelhaCompacta abrirOuCriarGrelha() throws IOException {
+        if (Files.exists(ficheiroGrelha)) {
+            return GrelhaCompacta.abrirMapeada(ficheiroGrelha);
+        }
+        GrelhaCompacta grelha = GrelhaCompacta.criarMapeada(ficheiroGrelha, largura, altura);
+        Random rand = new Random();
+        for (int z = 0; z < altura; z++) {
+            for (int x = 0; x < largura; x++) {
+                boolean borda = z == 0 || z == altura - 1 || x == 0 || x == largura - 1;
+                if (borda || rand.nextFloat() < CHANCE_PAREDE_GRELHA) {
+                    grelha.set(x, z, GrelhaCompacta.PAREDE);
+                }
+            }
+        }
+        return grelha;
+    }
+
+    private static void imprimirResultado(MapaGenetico melhorMapa, long inicio) {
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        System.out.println("--- EVOLUÇÃO CONCLUÍDA em " + duracaoMs + " ms | Melhor Fitness: " + melhorMapa.fitness + " ---");
+        for (String linha : melhorMapa.paraStringArray()) {
+            System.out.println(linha);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.mygame;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A "Grelha Compacta": guarda labirintos ENORMES (dezenas de milhões de blocos)
+ * com 2 bits por bloco, em vez de um objeto Node (dezenas de bytes) por bloco.
+ *
+ * Os blocos estão agrupados em "azulejos" (tiles) de 64x64: cada azulejo ocupa
+ * 1 KB seguido de memória, e dentro dele os blocos estão linha a linha. Percorrer
+ * o mapa linha a linha (percorrerLinhas) lê a memória quase sempre em sequência.
+ *
+ * A memória pode ser normal (criar) ou um ficheiro mapeado em memória
+ * (criarMapeada / abrirMapeada): o sistema operativo só carrega as partes
+ * que forem usadas, e o mapa pode ser maior do que a memória da JVM.
+ *
+ * Quem precisar de um Node (por exemplo, para o A*) pede-o com getNode: os Nodes
+ * só são criados quando pedidos, não existem para o mapa inteiro.
+ */
+public class GrelhaCompacta implements AutoCloseable {
+
+    // Os valores de cada bloco (2 bits; o 2 e o 3 ainda não são usados)
+    public static final int CAMINHO = 0;
+    public static final int PAREDE = 1;
+
+    // Azulejos de 64x64 blocos (64 * 64 * 2 bits = 128 longs = 1 KB)
+    private static final int BITS_TILE = 6;
+    private static final int TAMANHO_TILE = 1 << BITS_TILE;
+    private static final int MASCARA_TILE = TAMANHO_TILE - 1;
+    private static final int LONGS_POR_TILE = TAMANHO_TILE * TAMANHO_TILE / 32;
+
+    // Cabeçalho dos ficheiros: "assinatura", largura, altura (e 4 bytes livres)
+    private static final int ASSINATURA = 0x4D494E4F; // "MINO"
+    private static final int TAMANHO_CABECALHO = 16;
+
+    private final int largura;
+    private final int altura;
+    private final int tilesX;
+    private final LongBuffer dados;
+    private final MappedByteBuffer mapeado; // null se estiver na memória normal
+    private final FileChannel canal;        // null se estiver na memória normal
+
+    private GrelhaCompacta(int largura, int altura, LongBuffer dados, MappedByteBuffer mapeado, FileChannel canal) {
+        this.largura = largura;
+        this.altura = altura;
+        this.tilesX = (largura + MASCARA_TILE) >> BITS_TILE;
+        this.dados = dados;
+        this.mapeado = mapeado;
+        this.canal = canal;
+    }
+
+    /**
+     * Quantos bytes são precisos para os azulejos de um mapa deste tamanho.
+     */
+    private static long bytesNecessarios(int largura, int altura) {
+        long tilesX = (largura + MASCARA_TILE) >> BITS_TILE;
+        long tilesZ = (altura + MASCARA_TILE) >> BITS_TILE;
+        return tilesX * tilesZ * LONGS_POR_TILE * Long.BYTES;
+    }
+
+    private static void validarTamanho(int largura, int altura) {
+        if (largura <= 0 || altura <= 0) {
+            throw new IllegalArgumentException("Tamanho inválido: " + largura + "x" + altura);
+        }
+        if (bytesNecessarios(largura, altura) + TAMANHO_CABECALHO > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mapa demasiado grande: " + largura + "x" + altura);
+        }
+    }
+
+    /**
+     * Cria uma grelha na memória (tudo CAMINHO).
+     * A memória é a da JVM (um long[]), e não "direta": o AlgoritmoGenetico cria
+     * uma grelha por mapa avaliado, e a memória direta é lenta de reservar e de libertar.
+     * @param largura A largura do mapa.
+     * @param altura A altura do mapa.
+     * @return A grelha.
+     */
+    public static GrelhaCompacta criar(int largura, int altura) {
+        validarTamanho(largura, altura);
+        LongBuffer dados = LongBuffer.allocate((int) (bytesNecessarios(largura, altura) / Long.BYTES));
+        return new GrelhaCompacta(largura, altura, dados, null, null);
+    }
+
+    /**
+     * Cria (ou substitui) um ficheiro mapeado em memória com uma grelha nova (tudo CAMINHO).
+     * @param ficheiro O ficheiro.
+     * @param largura A largura do mapa.
+     * @param altura A altura do mapa.
+     * @return A grelha (fechar com close, para gravar tudo no disco).
+     * @throws IOException Se o ficheiro não puder ser criado.
+     */
+    public static GrelhaCompacta criarMapeada(Path ficheiro, int largura, int altura) throws IOException {
+        validarTamanho(largura, altura);
+        FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        long tamanhoFicheiro = TAMANHO_CABECALHO + bytesNecessarios(largura, altura);
+        MappedByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoFicheiro);
+        mapeado.order(ByteOrder.LITTLE_ENDIAN);
+        mapeado.putInt(0, ASSINATURA);
+        mapeado.putInt(4, largura);
+        mapeado.putInt(8, altura);
+        return new GrelhaCompacta(largura, altura, dadosDoFicheiro(mapeado), mapeado, canal);
+    }
+
+    /**
+     * Abre um ficheiro criado por criarMapeada.
+     * @param ficheiro O ficheiro.
+     * @return A grelha (as alterações vão para o ficheiro).
+     * @throws IOException Se o ficheiro não existir ou não for uma grelha.
+     */
+    public static GrelhaCompacta abrirMapeada(Path ficheiro) throws IOException {
+        FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+            mapeado.order(ByteOrder.LITTLE_ENDIAN);
+            if (canal.size() < TAMANHO_CABECALHO || mapeado.getInt(0) != ASSINATURA) {
+                throw new IOException("Não é uma grelha do Projeto Minos: " + ficheiro);
+            }
+            int largura = mapeado.getInt(4);
+            int altura = mapeado.getInt(8);
+            if (largura <= 0 || altura <= 0
+                    || canal.size() < TAMANHO_CABECALHO + bytesNecessarios(largura, altura)) {
+                throw new IOException("Ficheiro de grelha incompleto: " + ficheiro);
+            }
+            return new GrelhaCompacta(largura, altura, dadosDoFicheiro(mapeado), mapeado, canal);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private static LongBuffer dadosDoFicheiro(MappedByteBuffer mapeado) {
+        return mapeado.slice(TAMANHO_CABECALHO, mapeado.capacity() - TAMANHO_CABECALHO)
+                .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    /**
+     * Copia um mapa "normal" ('X' = parede) para uma grelha na memória.
+     * @param mapa O mapa.
+     * @return A grelha.
+     */
+    public static GrelhaCompacta deMapa(String[] mapa) {
+        GrelhaCompacta grelha = criar(mapa[0].length(), mapa.length);
+        for (int z = 0; z < grelha.altura; z++) {
+            String linha = mapa[z];
+            for (int x = 0; x < grelha.largura; x++) {
+                if (linha.charAt(x) == 'X') {
+                    grelha.set(x, z, PAREDE);
+                }
+            }
+        }
+        return grelha;
+    }
+
+    // --- Endereços: (x, z) -> long e deslocamento dentro dele ---
+
+    private int indiceLong(int x, int z) {
+        int tile = (z >> BITS_TILE) * tilesX + (x >> BITS_TILE);
+        int local = ((z & MASCARA_TILE) << BITS_TILE) | (x & MASCARA_TILE);
+        return tile * LONGS_POR_TILE + (local >> 5);
+    }
+
+    private static int deslocamento(int x) {
+        // 32 blocos por long; dentro da linha do azulejo, o bloco x & 31 ocupa os bits 2*(x & 31)
+        return (x & 31) << 1;
+    }
+
+    /**
+     * @return O valor (CAMINHO ou PAREDE) de um bloco.
+     */
+    public int get(int x, int z) {
+        return (int) (dados.get(indiceLong(x, z)) >>> deslocamento(x)) & 3;
+    }
+
+    /**
+     * Muda o valor de um bloco.
+     */
+    public void set(int x, int z, int valor) {
+        int i = indiceLong(x, z);
+        int d = deslocamento(x);
+        long palavra = dados.get(i);
+        dados.put(i, (palavra & ~(3L << d)) | ((long) (valor & 3) << d));
+    }
+
+    /** @return true se o bloco é parede (ou está fora do mapa). */
+    public boolean isParede(int x, int z) {
+        if (x < 0 || z < 0 || x >= largura || z >= altura) {
+            return true;
+        }
+        return get(x, z) == PAREDE;
+    }
+
+    /**
+     * Uma "vista" de um bloco como Node (criado agora; alterar o Node não muda a grelha).
+     */
+    public Node getNode(int x, int z) {
+        return new Node(x, z, isParede(x, z));
+    }
+
+    /**
+     * Quem recebe os blocos em percorrerLinhas.
+     */
+    @FunctionalInterface
+    public interface VisitanteBloco {
+        void visitar(int x, int z, int valor);
+    }
+
+    /**
+     * Percorre todos os blocos, linha a linha (z, depois x). Cada long lido dá
+     * 32 blocos seguidos, por isso a memória é lida quase sempre em sequência.
+     * @param visitante Chamado para cada bloco.
+     */
+    public void percorrerLinhas(VisitanteBloco visitante) {
+        for (int z = 0; z < altura; z++) {
+            for (int x0 = 0; x0 < largura; x0 += 32) {
+                long palavra = dados.get(indiceLong(x0, z));
+                int fimBloco = Math.min(x0 + 32, largura);
+                for (int x = x0; x < fimBloco; x++) {
+                    visitante.visitar(x, z, (int) (palavra >>> deslocamento(x)) & 3);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lê uma linha inteira de uma vez.
+     * @param z A linha.
+     * @param destino Onde escrever os valores (pelo menos 'largura' posições).
+     */
+    public void lerLinha(int z, byte[] destino) {
+        for (int x0 = 0; x0 < largura; x0 += 32) {
+            long palavra = dados.get(indiceLong(x0, z));
+            int fimBloco = Math.min(x0 + 32, largura);
+            for (int x = x0; x < fimBloco; x++) {
+                destino[x] = (byte) ((palavra >>> deslocamento(x)) & 3);
+            }
+        }
+    }
+
+    public int getLargura() {
+        return largura;
+    }
+
+    public int getAltura() {
+        return altura;
+    }
+
+    /** @return Quantos bytes os blocos ocupam (sem o cabeçalho do ficheiro). */
+    public long getBytesOcupados() {
+        return (long) dados.capacity() * Long.BYTES;
+    }
+
+    /**
+     * Grava no disco (se for mapeada) e fecha o ficheiro.
+     */
+    @Override
+    public void close() throws IOException {
+        if (mapeado != null) {
+            mapeado.force();
+            canal.close();
+        }
+    }
+}
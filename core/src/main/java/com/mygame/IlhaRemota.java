@@ -0,0 +1,69 @@
+package com.mygame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * O lado da "ilha": a ligação de um processo de evolução ao CoordenadorIlhas.
+ * Uma única ligação TCP é usada durante toda a evolução.
+ */
+public class IlhaRemota implements AutoCloseable {
+
+    private final int idIlha;
+    private final Socket ligacao;
+    private final DataInputStream entrada;
+    private final DataOutputStream saida;
+
+    /**
+     * Liga-se ao coordenador.
+     * @param host O endereço do coordenador.
+     * @param porta A porta do coordenador.
+     * @param idIlha O número desta ilha (único entre as ilhas).
+     * @throws IOException Se a ligação falhar.
+     */
+    public IlhaRemota(String host, int porta, int idIlha) throws IOException {
+        this.idIlha = idIlha;
+        this.ligacao = new Socket(host, porta);
+        ligacao.setTcpNoDelay(true);
+        this.entrada = new DataInputStream(new BufferedInputStream(ligacao.getInputStream()));
+        this.saida = new DataOutputStream(new BufferedOutputStream(ligacao.getOutputStream()));
+    }
+
+    /**
+     * Envia os emigrantes desta ilha e recebe imigrantes das outras.
+     * @param geracao A geração atual (só para os logs do coordenador).
+     * @param emigrantes Os melhores mapas desta ilha.
+     * @return Os mapas vindos das outras ilhas (pode ser vazia no início).
+     * @throws IOException Se a ligação falhar.
+     */
+    public List<MapaGenetico> trocarMigrantes(int geracao, List<MapaGenetico> emigrantes) throws IOException {
+        saida.writeByte(ProtocoloGenoma.MSG_MIGRANTES);
+        saida.writeInt(idIlha);
+        saida.writeInt(geracao);
+        ProtocoloGenoma.escreverLista(saida, emigrantes);
+        saida.flush();
+        return ProtocoloGenoma.lerLista(entrada);
+    }
+
+    /**
+     * Envia o melhor mapa final desta ilha (depois disto a ligação fecha-se).
+     * @param melhor O melhor mapa da ilha.
+     * @throws IOException Se a ligação falhar.
+     */
+    public void enviarResultado(MapaGenetico melhor) throws IOException {
+        saida.writeByte(ProtocoloGenoma.MSG_FIM);
+        saida.writeInt(idIlha);
+        ProtocoloGenoma.escrever(saida, melhor);
+        saida.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ligacao.close();
+    }
+}
@@ -0,0 +1,170 @@
+package com.mygame;
+
+import java.util.Random;
+
+/**
+ * Representa um "Indivíduo" no nosso Algoritmo Genético.
+ * Este objeto contém um "genoma" (o mapa do labirinto) e a sua "pontuação" (fitness).
+ * É o "Aluno" que o nosso Pathfinder (Professor) vai avaliar.
+ */
+public class MapaGenetico {
+
+    // --- 1. O Genoma (O DNA) ---
+    
+    // O mapa em si. 'X' = Parede, 'O' = Caminho
+    public char[][] grelha; 
+    public final int largura;
+    public final int altura;
+
+    // --- 2. A Pontuação ---
+    
+    // A "nota" que o Pathfinder (Professor) dá a este mapa.
+    // Quanto maior, melhor.
+    public int fitness = 0;
+
+    // A pontuação usada para escolher os pais: igual ao fitness, a não ser
+    // nos modos de "novidade" (ver AlgoritmoGenetico.ModoAvaliacao)
+    public float pontuacao = 0;
+
+    // Um gerador de números aleatórios para mutações
+    private static final Random rand = new Random();
+
+    /**
+     * Construtor Principal: Cria um novo MapaGenetico (um "Aluno").
+     * @param largura A largura do mapa a ser gerado.
+     * @param altura A altura do mapa a ser gerado.
+     */
+    public MapaGenetico(int largura, int altura) {
+        this.largura = largura;
+        this.altura = altura;
+        this.grelha = new char[altura][largura]; // [Z][X] ou [Linha][Coluna]
+    }
+
+    /**
+     * Inicializa a Geração 0.
+     * Preenche a grelha com "genes" (X e O) 100% aleatórios.
+     * Isto cria o "lixo" inicial a partir do qual vamos evoluir.
+     * * @param chanceDeParede A probabilidade (0.0 a 1.0) de um bloco ser 'X'.
+     */
+    public void inicializarAleatoriamente(float chanceDeParede) {
+        inicializarAleatoriamente(chanceDeParede, rand);
+    }
+
+    /**
+     * Igual ao anterior, mas usa o gerador aleatório indicado
+     * (para que uma semente fixa dê sempre o mesmo mapa).
+     * @param chanceDeParede A probabilidade (0.0 a 1.0) de um bloco ser 'X'.
+     * @param rand O gerador de números aleatórios a usar.
+     */
+    public void inicializarAleatoriamente(float chanceDeParede, Random rand) {
+        for (int z = 0; z < altura; z++) {
+            for (int x = 0; x < largura; x++) {
+                
+                // Força as BORDAS a serem sempre paredes
+                if (z == 0 || z == altura - 1 || x == 0 || x == largura - 1) {
+                    grelha[z][x] = 'X';
+                } 
+                // Para o resto, decide aleatoriamente
+                else {
+                    if (rand.nextFloat() < chanceDeParede) {
+                        grelha[z][x] = 'X'; // Parede
+                    } else {
+                        grelha[z][x] = 'O'; // Caminho
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Um "ajudante" que converte a nossa grelha (char[][]) 
+     * para o formato que o Pathfinder entende (String[]).
+     * @return O mapa no formato String[].
+     */
+    public String[] paraStringArray() {
+        String[] mapaStrings = new String[altura];
+        for (int z = 0; z < altura; z++) {
+            mapaStrings[z] = new String(grelha[z]);
+        }
+        return mapaStrings;
+    }
+    
+    /**
+     * Copia a nossa grelha (char[][]) para uma GrelhaCompacta (2 bits por bloco),
+     * o formato em que o Pathfinder trabalha.
+     * @return O mapa numa GrelhaCompacta.
+     */
+    public GrelhaCompacta paraGrelhaCompacta() {
+        GrelhaCompacta compacta = GrelhaCompacta.criar(largura, altura);
+        for (int z = 0; z < altura; z++) {
+            for (int x = 0; x < largura; x++) {
+                if (grelha[z][x] == 'X') {
+                    compacta.set(x, z, GrelhaCompacta.PAREDE);
+                }
+            }
+        }
+        return compacta;
+    }
+
+    /**
+     * "Amplia" este mapa para uma resolução maior (ou igual).
+     * O interior do mapa novo é esticado sobre o interior deste (vizinho mais próximo):
+     * cada bloco antigo vira um retângulo de blocos novos, e blocos vizinhos continuam
+     * vizinhos. Assim, dois caminhos ligados continuam ligados depois de ampliar.
+     * As bordas do mapa novo são sempre paredes.
+     * @param novaLargura A largura do mapa ampliado (>= largura).
+     * @param novaAltura A altura do mapa ampliado (>= altura).
+     * @return Um novo MapaGenetico ampliado (o fitness fica a 0).
+     */
+    public MapaGenetico ampliar(int novaLargura, int novaAltura) {
+        if (novaLargura < largura || novaAltura < altura) {
+            throw new IllegalArgumentException("Só é possível ampliar: " + largura + "x" + altura
+                    + " -> " + novaLargura + "x" + novaAltura);
+        }
+        MapaGenetico ampliado = new MapaGenetico(novaLargura, novaAltura);
+        for (int z = 0; z < novaAltura; z++) {
+            for (int x = 0; x < novaLargura; x++) {
+                if (z == 0 || z == novaAltura - 1 || x == 0 || x == novaLargura - 1) {
+                    ampliado.grelha[z][x] = 'X';
+                } else {
+                    // Interior novo [1, N-2] -> interior antigo [1, n-2]
+                    int zOrigem = 1 + (z - 1) * (altura - 2) / (novaAltura - 2);
+                    int xOrigem = 1 + (x - 1) * (largura - 2) / (novaLargura - 2);
+                    ampliado.grelha[z][x] = grelha[zOrigem][xOrigem];
+                }
+            }
+        }
+        return ampliado;
+    }
+
+    /**
+     * Cria uma cópia independente deste mapa (o genoma é copiado, não partilhado).
+     * @return O clone, com o mesmo fitness.
+     */
+    public MapaGenetico copiar() {
+        MapaGenetico copia = new MapaGenetico(largura, altura);
+        copia.copiarDe(this);
+        return copia;
+    }
+
+    /**
+     * Copia o genoma (e o fitness) de outro mapa para DENTRO deste,
+     * sem alocar memória. Os dois mapas têm de ter o mesmo tamanho.
+     * @param outro O mapa a copiar.
+     */
+    public void copiarDe(MapaGenetico outro) {
+        if (outro.largura != largura || outro.altura != altura) {
+            throw new IllegalArgumentException("Tamanhos diferentes: " + outro.largura + "x" + outro.altura
+                    + " -> " + largura + "x" + altura);
+        }
+        for (int z = 0; z < altura; z++) {
+            System.arraycopy(outro.grelha[z], 0, grelha[z], 0, largura);
+        }
+        fitness = outro.fitness;
+        pontuacao = outro.pontuacao;
+    }
+
+    // --- 3. Métodos Genéticos (Crossover e Mutação) ---
+    // (Vamos implementar isto no próximo passo)
+    
+}
\ No newline at end of file
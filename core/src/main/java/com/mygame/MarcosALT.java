@@ -0,0 +1,227 @@
+package com.mygame;
+
+import java.util.Arrays;
+
+/**
+ * Os "Marcos" (landmarks) para a heurística ALT do A*.
+ *
+ * A distância de Manhattan é uma estimativa muito fraca num labirinto (o caminho
+ * verdadeiro dá muitas voltas), e o A* acaba a explorar quase tanto como um BFS.
+ * Aqui escolhemos 'k' blocos "marco", bem espalhados, e guardamos a distância REAL
+ * (pelo labirinto) de cada marco a todos os blocos. Pela desigualdade triangular,
+ * para qualquer marco L:  distância(n, fim) >= |d(L, fim) - d(L, n)|,
+ * o que dá uma estimativa muito melhor (e que nunca passa da distância real).
+ *
+ * Os marcos são escolhidos "do mais longe": o primeiro é o bloco mais afastado de
+ * um bloco da maior zona ligada, e cada marco seguinte é o bloco mais longe de
+ * TODOS os anteriores.
+ * As distâncias ficam em short[] (2 bytes por bloco e por marco), ou em int[] se o
+ * labirinto for tão grande que uma distância não caiba num short.
+ *
+ * Depois de calculados, os marcos só são lidos: podem ser partilhados por várias threads.
+ */
+public final class MarcosALT {
+
+    private static final int INALCANCAVEL = -1;
+
+    private final int largura;
+    private final int altura;
+    private final int[] marcos; // Índice (z * largura + x) de cada marco
+
+    // Uma (e só uma) das duas está preenchida: [marco][bloco] -> distância (em passos)
+    private final short[][] distanciasCurtas;
+    private final int[][] distanciasLongas;
+
+    private MarcosALT(int largura, int altura, int[] marcos, short[][] curtas, int[][] longas) {
+        this.largura = largura;
+        this.altura = altura;
+        this.marcos = marcos;
+        this.distanciasCurtas = curtas;
+        this.distanciasLongas = longas;
+    }
+
+    /**
+     * Escolhe os marcos e calcula as distâncias (k + 1 varrimentos BFS).
+     * @param mapa O mapa ('X' = parede).
+     * @param numMarcos Quantos marcos (tipicamente 4 a 16).
+     * @return Os marcos calculados.
+     */
+    public static MarcosALT calcular(String[] mapa, int numMarcos) {
+        int altura = mapa.length;
+        int largura = mapa[0].length();
+        int n = largura * altura;
+        boolean[] parede = new boolean[n];
+        for (int z = 0; z < altura; z++) {
+            String linha = mapa[z];
+            for (int x = 0; x < largura; x++) {
+                parede[z * largura + x] = linha.charAt(x) == 'X';
+            }
+        }
+
+        int[] fila = new int[n];
+        int inicio = blocoDaMaiorZona(parede, largura, altura, fila);
+        if (inicio < 0) {
+            return new MarcosALT(largura, altura, new int[0], new short[0][], null);
+        }
+        int[][] distancias = new int[numMarcos][];
+        int[] marcos = new int[numMarcos];
+
+        // A menor distância de cada bloco a um marco já escolhido
+        // (antes do primeiro marco: a distância a um bloco da maior zona do labirinto)
+        int[] menorDistancia = new int[n];
+        bfs(parede, largura, altura, inicio, menorDistancia, fila);
+
+        int quantos = 0;
+        int maiorDistancia = 0;
+        for (; quantos < numMarcos; quantos++) {
+            // O próximo marco é o bloco mais longe de todos os anteriores
+            int proximo = -1;
+            for (int i = 0; i < n; i++) {
+                if (menorDistancia[i] > 0 && (proximo < 0 || menorDistancia[i] > menorDistancia[proximo])) {
+                    proximo = i;
+                }
+            }
+            if (proximo < 0) {
+                break; // Não sobram blocos distintos (labirinto minúsculo)
+            }
+            marcos[quantos] = proximo;
+            distancias[quantos] = new int[n];
+            bfs(parede, largura, altura, proximo, distancias[quantos], fila);
+            for (int i = 0; i < n; i++) {
+                int d = distancias[quantos][i];
+                if (d != INALCANCAVEL) {
+                    maiorDistancia = Math.max(maiorDistancia, d);
+                    if (quantos == 0 || d < menorDistancia[i]) {
+                        menorDistancia[i] = d;
+                    }
+                }
+            }
+        }
+        marcos = Arrays.copyOf(marcos, quantos);
+
+        // Guarda em short[] sempre que couber (metade da memória)
+        if (maiorDistancia < Short.MAX_VALUE) {
+            short[][] curtas = new short[quantos][n];
+            for (int m = 0; m < quantos; m++) {
+                for (int i = 0; i < n; i++) {
+                    curtas[m][i] = (short) distancias[m][i];
+                }
+            }
+            return new MarcosALT(largura, altura, marcos, curtas, null);
+        }
+        return new MarcosALT(largura, altura, marcos, null, Arrays.copyOf(distancias, quantos));
+    }
+
+    /**
+     * Um bloco da maior zona ligada do labirinto (os marcos ficam todos nessa zona),
+     * ou -1 se o mapa não tem caminhos. Cada bloco é visitado uma só vez.
+     */
+    private static int blocoDaMaiorZona(boolean[] parede, int largura, int altura, int[] fila) {
+        boolean[] visitado = new boolean[parede.length];
+        int melhor = -1;
+        int melhorTamanho = 0;
+        for (int origem = 0; origem < parede.length; origem++) {
+            if (parede[origem] || visitado[origem]) {
+                continue;
+            }
+            int frente = 0;
+            int tras = 0;
+            fila[tras++] = origem;
+            visitado[origem] = true;
+            while (frente < tras) {
+                int atual = fila[frente++];
+                int x = atual % largura;
+                int z = atual / largura;
+                if (x + 1 < largura && !parede[atual + 1] && !visitado[atual + 1]) {
+                    visitado[atual + 1] = true;
+                    fila[tras++] = atual + 1;
+                }
+                if (x > 0 && !parede[atual - 1] && !visitado[atual - 1]) {
+                    visitado[atual - 1] = true;
+                    fila[tras++] = atual - 1;
+                }
+                if (z + 1 < altura && !parede[atual + largura] && !visitado[atual + largura]) {
+                    visitado[atual + largura] = true;
+                    fila[tras++] = atual + largura;
+                }
+                if (z > 0 && !parede[atual - largura] && !visitado[atual - largura]) {
+                    visitado[atual - largura] = true;
+                    fila[tras++] = atual - largura;
+                }
+            }
+            if (tras > melhorTamanho) {
+                melhorTamanho = tras;
+                melhor = origem;
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * BFS com arrays (sem objetos): a distância, em passos, de 'origem' a cada bloco
+     * (INALCANCAVEL para paredes e blocos sem ligação).
+     */
+    private static void bfs(boolean[] parede, int largura, int altura, int origem, int[] distancia, int[] fila) {
+        Arrays.fill(distancia, INALCANCAVEL);
+        distancia[origem] = 0;
+        int frente = 0;
+        int tras = 0;
+        fila[tras++] = origem;
+        while (frente < tras) {
+            int atual = fila[frente++];
+            int x = atual % largura;
+            int z = atual / largura;
+            int proxima = distancia[atual] + 1;
+            if (x + 1 < largura && !parede[atual + 1] && distancia[atual + 1] == INALCANCAVEL) {
+                distancia[atual + 1] = proxima;
+                fila[tras++] = atual + 1;
+            }
+            if (x > 0 && !parede[atual - 1] && distancia[atual - 1] == INALCANCAVEL) {
+                distancia[atual - 1] = proxima;
+                fila[tras++] = atual - 1;
+            }
+            if (z + 1 < altura && !parede[atual + largura] && distancia[atual + largura] == INALCANCAVEL) {
+                distancia[atual + largura] = proxima;
+                fila[tras++] = atual + largura;
+            }
+            if (z > 0 && !parede[atual - largura] && distancia[atual - largura] == INALCANCAVEL) {
+                distancia[atual - largura] = proxima;
+                fila[tras++] = atual - largura;
+            }
+        }
+    }
+
+    private int distancia(int marco, int bloco) {
+        return distanciasCurtas != null ? distanciasCurtas[marco][bloco] : distanciasLongas[marco][bloco];
+    }
+
+    /**
+     * A estimativa ALT (em passos) da distância entre dois blocos:
+     * o maior |d(L, b) - d(L, a)| entre os marcos que chegam aos dois.
+     * Nunca é maior do que a distância real.
+     * @return A estimativa, ou 0 se nenhum marco chega aos dois blocos.
+     */
+    public int estimar(int xa, int za, int xb, int zb) {
+        int a = za * largura + xa;
+        int b = zb * largura + xb;
+        int melhor = 0;
+        for (int m = 0; m < marcos.length; m++) {
+            int da = distancia(m, a);
+            int db = distancia(m, b);
+            if (da != INALCANCAVEL && db != INALCANCAVEL) {
+                melhor = Math.max(melhor, Math.abs(db - da));
+            }
+        }
+        return melhor;
+    }
+
+    /** @return Quantos marcos foram escolhidos. */
+    public int getNumMarcos() {
+        return marcos.length;
+    }
+
+    /** @return Se o mapa tem este tamanho (para não usar marcos de outro mapa). */
+    boolean serveParaMapa(int largura, int altura) {
+        return this.largura == largura && this.altura == altura;
+    }
+}
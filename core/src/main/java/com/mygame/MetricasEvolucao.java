@@ -0,0 +1,99 @@
+package com.mygame;
+
+/**
+ * O "Painel" da IA: métricas da evolução que qualquer um pode "ler" quando quiser
+ * (o HUD do jogo, a consola, um benchmark...).
+ * Só o AlgoritmoGenetico escreve aqui; os leitores podem estar noutras threads,
+ * por isso todos os campos são "volatile".
+ */
+public class MetricasEvolucao {
+
+    // --- Última geração avaliada ---
+    private volatile int geracao = -1;
+    private volatile int melhorFitness;
+    private volatile double fitnessMedio;
+    private volatile double diversidade;
+    private volatile long tempoAvaliacaoNanos;
+
+    // --- Totais desde o início ---
+    private volatile long avaliacoesTotais;
+    private volatile long varrimentosBFSTotais;
+    private volatile long expansoesTotais;
+    private volatile long tempoAvaliacaoTotalNanos;
+
+    /**
+     * Regista o trabalho do Pathfinder numa avaliação de um mapa.
+     */
+    void registarAvaliacao(int varrimentosBFS, long expansoes) {
+        avaliacoesTotais++;
+        varrimentosBFSTotais += varrimentosBFS;
+        expansoesTotais += expansoes;
+    }
+
+    /**
+     * Regista o resumo de uma geração acabada de avaliar.
+     */
+    void registarGeracao(int geracao, int melhorFitness, double fitnessMedio, double diversidade, long tempoAvaliacaoNanos) {
+        this.melhorFitness = melhorFitness;
+        this.fitnessMedio = fitnessMedio;
+        this.diversidade = diversidade;
+        this.tempoAvaliacaoNanos = tempoAvaliacaoNanos;
+        this.tempoAvaliacaoTotalNanos += tempoAvaliacaoNanos;
+        // Escrito por último: quem vê a geração nova vê também os valores dela
+        this.geracao = geracao;
+    }
+
+    /** @return O número da última geração avaliada (-1 se ainda nenhuma). */
+    public int getGeracao() {
+        return geracao;
+    }
+
+    /** @return O fitness do melhor mapa da última geração. */
+    public int getMelhorFitness() {
+        return melhorFitness;
+    }
+
+    /** @return O fitness médio da última geração. */
+    public double getFitnessMedio() {
+        return fitnessMedio;
+    }
+
+    /** @return A fração média de blocos que diferem do melhor mapa (0.0 a 1.0). */
+    public double getDiversidade() {
+        return diversidade;
+    }
+
+    /** @return Quanto tempo demorou a avaliar a última geração, em nanossegundos. */
+    public long getTempoAvaliacaoNanos() {
+        return tempoAvaliacaoNanos;
+    }
+
+    /** @return Quantos mapas foram avaliados desde o início. */
+    public long getAvaliacoesTotais() {
+        return avaliacoesTotais;
+    }
+
+    /** @return Quantos varrimentos BFS o Pathfinder fez desde o início. */
+    public long getVarrimentosBFSTotais() {
+        return varrimentosBFSTotais;
+    }
+
+    /** @return Quantos nós (BFS + A*) foram expandidos desde o início. */
+    public long getExpansoesTotais() {
+        return expansoesTotais;
+    }
+
+    /** @return O tempo total gasto a avaliar, em nanossegundos. */
+    public long getTempoAvaliacaoTotalNanos() {
+        return tempoAvaliacaoTotalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Geração " + geracao
+                + " | Melhor: " + melhorFitness
+                + " | Médio: " + String.format("%.1f", fitnessMedio)
+                + " | Diversidade: " + String.format("%.3f", diversidade)
+                + " | Avaliação: " + (tempoAvaliacaoNanos / 1_000_000) + " ms";
+    }
+}
@@ -0,0 +1,481 @@
+package com.mygame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+/**
+ * Esta classe é o "cérebro" da nossa IA.
+ * Ela contém o algoritmo A* (A-Star) para encontrar o caminho mais curto
+ * num labirinto, guardado numa GrelhaCompacta (2 bits por bloco).
+ *
+ * Os BFS trabalham só com o índice de cada bloco (z * largura + x): um "bitset"
+ * de visitados e uma fila circular de ints, sem objetos por bloco. O A* usa
+ * Nós (Nodes), mas só cria os dos blocos em que toca. Assim o mesmo Pathfinder
+ * serve para os mapas do jogo e para mapas com dezenas de milhões de blocos
+ * (ver "--grelha" no EvolucaoHeadless).
+ */
+public class Pathfinder {
+
+    // Os logs ficam em FINE: o Pathfinder corre milhares de vezes por evolução
+    // e escrever na consola em cada chamada era mais lento do que o próprio BFS.
+    private static final Logger LOG = Logger.getLogger(Pathfinder.class.getName());
+
+    // Os 4 vizinhos (Norte, Sul, Leste, Oeste), sempre por esta ordem: nos empates,
+    // o BFS escolhe sempre o mesmo Início e Fim. A direção oposta de 'd' é 'd ^ 1'.
+    private static final int[] DX = {0, 0, 1, -1};
+    private static final int[] DZ = {1, -1, 0, 0};
+
+    // O labirinto, com 2 bits por bloco (pode ser um ficheiro mapeado em memória)
+    private final GrelhaCompacta grelha;
+    
+    // O tamanho do nosso mapa
+    private final int larguraMapa;
+    private final int alturaMapa;
+
+    // Os pontos de início e fim que encontramos ao ler o mapa
+    private Node noInicio;
+    private Node noFim;
+
+    // O 2.º BFS de encontrarInicioEFimMaisLongos parte do Fim e guarda, para cada
+    // bloco, a direção (2 bits) do bloco de onde veio: seguir as direções a partir
+    // do Início dá o caminho mais curto até ao Fim, sem precisar do A*.
+    private long[] direcoesParaFim;
+    private int passosInicioFim;
+
+    // A memória do BFS, reutilizada entre varrimentos
+    private long[] visitados;
+    private int[] fila = new int[64]; // Fila circular (o tamanho é sempre uma potência de 2)
+    private int distanciaUltimoBFS;
+
+    // Os marcos da heurística ALT (null = só Manhattan)
+    private MarcosALT marcos;
+
+    // Contadores de trabalho (para as métricas e os eventos JFR)
+    private int varrimentosBFS = 0;
+    private long expansoes = 0;
+
+    /**
+     * Construtor do Pathfinder.
+     * Ele "lê" o mapa (String[]) e copia-o para uma GrelhaCompacta.
+     * @param mapaLabirinto O mapa 2D (array de Strings) vindo do Main.java.
+     */
+    public Pathfinder(String[] mapaLabirinto) {
+        this(GrelhaCompacta.deMapa(mapaLabirinto));
+    }
+
+    /**
+     * Construtor para um mapa que já está numa GrelhaCompacta (por exemplo,
+     * um mapa enorme num ficheiro mapeado). A grelha não é copiada nem alterada.
+     * @param grelha O labirinto.
+     */
+    public Pathfinder(GrelhaCompacta grelha) {
+        if ((long) grelha.getLargura() * grelha.getAltura() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mapa demasiado grande para o Pathfinder: "
+                    + grelha.getLargura() + "x" + grelha.getAltura());
+        }
+        this.grelha = grelha;
+        this.alturaMapa = grelha.getAltura();
+        this.larguraMapa = grelha.getLargura();
+    }
+
+    /**
+     * O "coração" do algoritmo A-Star.
+     * Os Nós recebidos não são alterados: cada pesquisa cria os seus, só para
+     * os blocos em que toca.
+     * @param inicio O Nó de partida (S).
+     * @param fim O Nó de destino (F).
+     * @return O caminho ou "null".
+     * (Visível no pacote para os benchmarks)
+     */
+    Caminho calcularCaminhoAStar(Node inicio, Node fim) {
+
+        // Os Nós desta pesquisa, pelo índice do bloco
+        Map<Integer, Node> nos = new HashMap<>();
+
+        // A "Lista Aberta": Nós que descobrimos, mas ainda não visitámos.
+        // Quando um Nó melhora, entra outra vez; a entrada antiga fica "desatualizada".
+        PriorityQueue<EntradaAberta> listaAberta = new PriorityQueue<>();
+        long ordem = 0;
+
+        // 1. Adiciona o nó inicial à Lista Aberta para começarmos
+        Node origem = grelha.getNode(inicio.x, inicio.z);
+        origem.gCost = 0;
+        origem.hCost = heuristica(origem, fim);
+        origem.calculateFCost();
+        nos.put(indice(origem.x, origem.z), origem);
+        listaAberta.add(new EntradaAberta(origem, ordem++));
+
+        // Loop principal: continua enquanto houver nós para explorar
+        while (!listaAberta.isEmpty()) {
+
+            // --- A. O Nó mais promissor (F-Cost mais baixo; nos empates, H-Cost mais baixo) ---
+            EntradaAberta entrada = listaAberta.poll();
+            Node noAtual = entrada.no;
+            if (entrada.gCost != noAtual.gCost) {
+                continue; // Desatualizada: este Nó já foi visitado com um custo menor
+            }
+            // (As duas heurísticas são "consistentes": um Nó visitado nunca volta a melhorar,
+            // por isso não é preciso uma Lista Fechada)
+            expansoes++;
+
+            // --- B. ENCONTRÁMOS O FIM! ---
+            if (noAtual.x == fim.x && noAtual.z == fim.z) {
+                // "Refaz" o caminho seguindo os "pais" de trás para a frente (do Fim ao Início).
+                return refazerCaminho(noAtual);
+            }
+
+            // --- C. Explora os Vizinhos do Nó Atual ---
+            for (int d = 0; d < 4; d++) {
+                int vx = noAtual.x + DX[d];
+                int vz = noAtual.z + DZ[d];
+                if (grelha.isParede(vx, vz)) {
+                    continue;
+                }
+
+                // Custo para chegar a este vizinho através do nó atual (10 por passo)
+                int novoGCostParaVizinho = noAtual.gCost + 10;
+
+                Node vizinho = nos.get(indice(vx, vz));
+                if (vizinho == null) {
+                    // Primeira vez que o A* chega a este bloco: só agora é que ele tem um Nó
+                    vizinho = grelha.getNode(vx, vz);
+                    vizinho.gCost = Integer.MAX_VALUE;
+                    vizinho.hCost = heuristica(vizinho, fim);
+                    nos.put(indice(vx, vz), vizinho);
+                }
+
+                // Se este caminho (pelo 'noAtual') for melhor do que algum que já tínhamos...
+                if (novoGCostParaVizinho < vizinho.gCost) {
+                    vizinho.gCost = novoGCostParaVizinho;
+                    vizinho.calculateFCost(); // fCost = gCost + hCost
+
+                    // Define o "pai" deste vizinho como sendo o "nó atual"
+                    // (Isto é como deixar "migalhas de pão")
+                    vizinho.parent = noAtual;
+                    listaAberta.add(new EntradaAberta(vizinho, ordem++));
+                }
+            }
+        }
+
+        // Se a Lista Aberta ficar vazia e nunca encontrámos o Fim,
+        // significa que NÃO HÁ CAMINHO.
+        return null; 
+    }
+
+    /**
+     * Refaz o caminho a partir do nó final, seguindo os "pais" (parent).
+     * @param noFim O nó de destino que foi encontrado.
+     * @return O caminho na ordem correta (Início -> Fim).
+     */
+    private Caminho refazerCaminho(Node noFim) {
+        // 1. Conta os passos (Fim -> Pai -> Pai...)
+        int passos = 0;
+        for (Node no = noFim; no != null; no = no.parent) {
+            passos++;
+        }
+
+        // 2. Preenche o array do fim para o princípio: fica logo na ordem Início -> Fim
+        int[] blocos = new int[passos];
+        int i = passos;
+        for (Node no = noFim; no != null; no = no.parent) {
+            blocos[--i] = no.z * larguraMapa + no.x;
+        }
+        return new Caminho(blocos, larguraMapa);
+    }
+
+    private int indice(int x, int z) {
+        return z * larguraMapa + x;
+    }
+
+    /**
+     * Corre o algoritmo BFS (Busca em Largura) a partir de um único nó.
+     * (Visível no pacote para os benchmarks)
+     * @param noInicio O Nó de onde a "inundação" começa.
+     * @return O índice (z * largura + x) do bloco mais longe dele.
+     */
+    int executarBFS(Node noInicio) {
+        return executarBFS(indice(noInicio.x, noInicio.z), null);
+    }
+
+    /**
+     * O BFS, nível a nível: cada bloco livre alcançado entra uma vez na fila
+     * e fica marcado no "bitset" de visitados (1 bit por bloco).
+     * @param origem O índice do bloco de onde a "inundação" começa.
+     * @param direcoes Se não for null, guarda aqui a direção de cada bloco alcançado
+     *                 para o bloco de onde veio (2 bits por bloco).
+     * @return O índice do bloco mais longe (se houver vários à mesma distância, o
+     *         primeiro linha a linha, como no AvaliadorEmLote: os dois dão o mesmo fitness).
+     */
+    private int executarBFS(int origem, long[] direcoes) {
+        varrimentosBFS++;
+        if (visitados == null) {
+            visitados = new long[(larguraMapa * alturaMapa + 63) >>> 6];
+        } else {
+            Arrays.fill(visitados, 0L);
+        }
+
+        // 1. Começa o processo
+        visitados[origem >>> 6] |= 1L << origem;
+        fila[0] = origem;
+        int cabeca = 0;
+        int tamanho = 1;
+        int maisLonge = origem;
+        int distancia = -1;
+
+        // 2. Loop principal do BFS: um nível (uma distância) de cada vez
+        while (tamanho > 0) {
+            distancia++;
+            maisLonge = fila[cabeca];
+            for (int restantes = tamanho; restantes > 0; restantes--) {
+                int atual = fila[cabeca];
+                if (atual < maisLonge) {
+                    maisLonge = atual; // O primeiro desta distância, linha a linha
+                }
+                cabeca = (cabeca + 1) & (fila.length - 1);
+                tamanho--;
+                expansoes++;
+                int x = atual % larguraMapa;
+                int z = atual / larguraMapa;
+
+                // 3. Olha para os 4 vizinhos
+                for (int d = 0; d < 4; d++) {
+                    int vx = x + DX[d];
+                    int vz = z + DZ[d];
+                    if (grelha.isParede(vx, vz)) {
+                        continue;
+                    }
+                    int vizinho = vz * larguraMapa + vx;
+                    if ((visitados[vizinho >>> 6] & (1L << vizinho)) != 0) {
+                        continue;
+                    }
+
+                    // 4. Marca-o como visitado e adiciona-o à fila
+                    visitados[vizinho >>> 6] |= 1L << vizinho;
+                    if (direcoes != null) {
+                        int deslocamento = (vizinho & 31) << 1;
+                        direcoes[vizinho >>> 5] = (direcoes[vizinho >>> 5] & ~(3L << deslocamento))
+                                | ((long) (d ^ 1) << deslocamento);
+                    }
+                    if (tamanho == fila.length) {
+                        cabeca = aumentarFila(cabeca);
+                    }
+                    fila[(cabeca + tamanho) & (fila.length - 1)] = vizinho;
+                    tamanho++;
+                }
+            }
+        }
+        distanciaUltimoBFS = distancia;
+        return maisLonge;
+    }
+
+    /**
+     * Duplica a fila circular (que está cheia), com os blocos pela mesma ordem.
+     * @return A nova "cabeça" da fila (0).
+     */
+    private int aumentarFila(int cabeca) {
+        int[] maior = new int[fila.length * 2];
+        int ateAoFim = fila.length - cabeca;
+        System.arraycopy(fila, cabeca, maior, 0, ateAoFim);
+        System.arraycopy(fila, 0, maior, ateAoFim, cabeca);
+        fila = maior;
+        return 0;
+    }
+
+    /**
+     * Calcula o "custo" (distância) entre dois nós.
+     * Usa a "Distância de Manhattan" (movimento apenas em grelha, não diagonal).
+     * @param a Nó A
+     * @param b Nó B
+     * @return A distância (custo).
+     */
+    private int calcularDistancia(Node a, Node b) {
+        // Custo do movimento: 10 para horizontal/vertical.
+        // (Usamos 10 em vez de 1 para evitar problemas com floats).
+        int distZ = Math.abs(a.z - b.z);
+        int distX = Math.abs(a.x - b.x);
+        return 10 * (distX + distZ);
+    }
+    
+    /**
+     * A estimativa do A* até ao fim: Manhattan, ou a estimativa ALT se houver
+     * marcos e for maior (as duas nunca passam da distância real, por isso o
+     * caminho continua a ser o mais curto).
+     */
+    private int heuristica(Node n, Node fim) {
+        int manhattan = calcularDistancia(n, fim);
+        if (marcos == null) {
+            return manhattan;
+        }
+        return Math.max(manhattan, 10 * marcos.estimar(n.x, n.z, fim.x, fim.z));
+    }
+
+    /**
+     * Usa os marcos ALT na heurística do A* (encontrarCaminho e encontrarCaminho(x, z, ...)).
+     * Vale a pena quando o mesmo mapa responde a muitas consultas (pistas, NPCs).
+     * @param marcos Os marcos deste mapa (ou null para voltar a Manhattan).
+     */
+    public void setMarcos(MarcosALT marcos) {
+        if (marcos != null && !marcos.serveParaMapa(larguraMapa, alturaMapa)) {
+            throw new IllegalArgumentException("Os marcos são de um mapa de outro tamanho");
+        }
+        this.marcos = marcos;
+    }
+
+    /**
+     * "Varre" a grelha, linha a linha, à procura do primeiro bloco que É caminho.
+     * @return O índice desse bloco, ou -1 se o mapa não tiver caminhos.
+     */
+    private int primeiroBlocoLivre() {
+        byte[] linha = new byte[larguraMapa];
+        for (int z = 0; z < alturaMapa; z++) {
+            grelha.lerLinha(z, linha);
+            for (int x = 0; x < larguraMapa; x++) {
+                if (linha[x] != GrelhaCompacta.PAREDE) {
+                    return indice(x, z);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * O "Cérebro" Otimizado!
+     * Encontra o caminho mais longo usando BFS (muito mais rápido).
+     */
+    public void encontrarInicioEFimMaisLongos() {
+        LOG.fine("Pathfinder: A calcular o caminho mais longo (Método Rápido BFS)...");
+
+        // 1. Pega no primeiro caminho 'O' que encontrarmos (ponto de partida)
+        int pontoDePartida = primeiroBlocoLivre();
+        if (pontoDePartida < 0) {
+            LOG.fine("Pathfinder: O mapa não tem caminhos ('O')!");
+            return;
+        }
+
+        // 2. Corre o BFS UMA SÓ VEZ a partir desse ponto.
+        // O nó MAIS LONGE do ponto de partida é o nosso "Fim".
+        int fim = executarBFS(pontoDePartida, null);
+
+        // 3. Agora, corremos o BFS UMA SEGUNDA VEZ, a partir do "Fim".
+        // O nó mais longe DO FIM é o nosso "Início" (e ficam guardadas as direções para o Fim).
+        if (direcoesParaFim == null) {
+            direcoesParaFim = new long[(larguraMapa * alturaMapa + 31) >>> 5];
+        }
+        int inicio = executarBFS(fim, direcoesParaFim);
+
+        // 4. Só agora é que criamos os dois Nós
+        this.noFim = grelha.getNode(fim % larguraMapa, fim / larguraMapa);
+        this.noInicio = grelha.getNode(inicio % larguraMapa, inicio / larguraMapa);
+        this.passosInicioFim = distanciaUltimoBFS;
+        
+        LOG.fine("Pathfinder: Caminho mais longo encontrado!");
+    }
+
+    /**
+     * O "encontrarCaminho" original, mas agora garantimos que os nós foram definidos.
+     * O 2.º BFS de encontrarInicioEFimMaisLongos já deixou as direções para o Fim,
+     * por isso basta segui-las a partir do Início (é um caminho mais curto, como o do A*).
+     * @return O caminho do Início ao Fim, ou "null" se não houver caminho.
+     */
+    public Caminho encontrarCaminho() {
+        // Verifica se o 'encontrarInicioEFimMaisLongos' já foi chamado
+        if (noInicio == null || noFim == null) {
+            LOG.fine("Pathfinder: Sem início/fim (mapa sem caminhos, ou falta chamar 'encontrarInicioEFimMaisLongos()')");
+            return null;
+        }
+        int[] blocos = new int[passosInicioFim + 1];
+        int atual = indice(noInicio.x, noInicio.z);
+        blocos[0] = atual;
+        for (int i = 1; i < blocos.length; i++) {
+            int d = (int) (direcoesParaFim[atual >>> 5] >>> ((atual & 31) << 1)) & 3;
+            atual += DZ[d] * larguraMapa + DX[d];
+            blocos[i] = atual;
+        }
+        return new Caminho(blocos, larguraMapa);
+    }
+
+    /**
+     * Procura o caminho entre dois blocos quaisquer do mapa
+     * (para pistas ao jogador, NPCs, etc.). Pode ser chamado várias vezes.
+     * @param xInicio X do bloco de partida.
+     * @param zInicio Z do bloco de partida.
+     * @param xFim X do bloco de destino.
+     * @param zFim Z do bloco de destino.
+     * @return O caminho, ou "null" se não houver caminho
+     *         (ou se algum dos blocos for parede ou estiver fora do mapa).
+     */
+    public Caminho encontrarCaminho(int xInicio, int zInicio, int xFim, int zFim) {
+        // (isParede também é "true" fora do mapa)
+        if (grelha.isParede(xInicio, zInicio) || grelha.isParede(xFim, zFim)) {
+            return null;
+        }
+        return calcularCaminhoAStar(grelha.getNode(xInicio, zInicio), grelha.getNode(xFim, zFim));
+    }
+    
+    /**
+     * "Getter" público para expor o Nó de Início (S) para outras classes.
+     * @return O Nó de Início.
+     */
+    public Node getNoInicio() {
+        return noInicio;
+    }
+
+    /**
+     * "Getter" público para expor o Nó de Fim (F) para outras classes.
+     * @return O Nó de Fim.
+     */
+    public Node getNoFim() {
+        return noFim;
+    }
+    /**
+     * Quantas vezes o BFS "inundou" o labirinto neste Pathfinder.
+     * @return O número de varrimentos BFS.
+     */
+    public int getVarrimentosBFS() {
+        return varrimentosBFS;
+    }
+
+    /**
+     * Quantos nós foram "expandidos" (tirados da fila do BFS ou da Lista Aberta do A*).
+     * É uma boa medida do trabalho que o Pathfinder teve.
+     * @return O número de expansões.
+     */
+    public long getExpansoes() {
+        return expansoes;
+    }
+
+    /**
+     * "Ajudante" interno para a Lista Aberta do A*.
+     * Guarda os custos do Nó no momento em que entrou (se o Nó melhorar depois,
+     * a entrada fica desatualizada e é ignorada quando sair).
+     */
+    private static final class EntradaAberta implements Comparable<EntradaAberta> {
+        final Node no;
+        final int fCost;
+        final int hCost;
+        final int gCost;
+        final long ordem; // Nos empates, sai primeiro quem entrou primeiro
+
+        EntradaAberta(Node no, long ordem) {
+            this.no = no;
+            this.fCost = no.fCost;
+            this.hCost = no.hCost;
+            this.gCost = no.gCost;
+            this.ordem = ordem;
+        }
+
+        @Override
+        public int compareTo(EntradaAberta outra) {
+            if (fCost != outra.fCost) {
+                return Integer.compare(fCost, outra.fCost);
+            }
+            if (hCost != outra.hCost) {
+                return Integer.compare(hCost, outra.hCost);
+            }
+            return Long.compare(ordem, outra.ordem);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mygame;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * O "Correio" entre ilhas: o formato binário com que os mapas viajam pela rede
+ * (ver CoordenadorIlhas e IlhaRemota).
+ *
+ * Um mapa ocupa: largura (short), altura (short), fitness (int) e depois
+ * 1 bit por bloco (1 = parede), linha a linha. Um 21x11 cabe em 37 bytes.
+ *
+ * Mensagens (ilha -> coordenador):
+ *   MIGRANTES: id da ilha (int), geração (int), N (short), N mapas.
+ *              O coordenador responde com N' (short) e N' mapas de outras ilhas.
+ *   FIM:       id da ilha (int), o melhor mapa da ilha. Sem resposta.
+ */
+final class ProtocoloGenoma {
+
+    static final byte MSG_MIGRANTES = 1;
+    static final byte MSG_FIM = 2;
+
+    // Limite de segurança (não aceitamos mapas gigantes vindos da rede)
+    private static final int DIMENSAO_MAXIMA = 4096;
+    private static final int MIGRANTES_MAXIMO = 1024;
+
+    private ProtocoloGenoma() {
+    }
+
+    /**
+     * Escreve um mapa no formato compacto.
+     */
+    static void escrever(DataOutputStream saida, MapaGenetico mapa) throws IOException {
+        saida.writeShort(mapa.largura);
+        saida.writeShort(mapa.altura);
+        saida.writeInt(mapa.fitness);
+        int acumulado = 0;
+        int numBits = 0;
+        for (int z = 0; z < mapa.altura; z++) {
+            char[] linha = mapa.grelha[z];
+            for (int x = 0; x < mapa.largura; x++) {
+                acumulado = (acumulado << 1) | (linha[x] == 'X' ? 1 : 0);
+                if (++numBits == 8) {
+                    saida.writeByte(acumulado);
+                    acumulado = 0;
+                    numBits = 0;
+                }
+            }
+        }
+        if (numBits > 0) {
+            saida.writeByte(acumulado << (8 - numBits)); // Completa o último byte com zeros
+        }
+    }
+
+    /**
+     * Lê um mapa no formato compacto.
+     * @throws IOException Se a ligação falhar ou os dados forem inválidos.
+     */
+    static MapaGenetico ler(DataInputStream entrada) throws IOException {
+        int largura = entrada.readUnsignedShort();
+        int altura = entrada.readUnsignedShort();
+        if (largura == 0 || altura == 0 || largura > DIMENSAO_MAXIMA || altura > DIMENSAO_MAXIMA) {
+            throw new IOException("Tamanho de mapa inválido: " + largura + "x" + altura);
+        }
+        MapaGenetico mapa = new MapaGenetico(largura, altura);
+        mapa.fitness = entrada.readInt();
+        int atual = 0;
+        int bitsRestantes = 0;
+        for (int z = 0; z < altura; z++) {
+            char[] linha = mapa.grelha[z];
+            for (int x = 0; x < largura; x++) {
+                if (bitsRestantes == 0) {
+                    atual = entrada.readUnsignedByte();
+                    bitsRestantes = 8;
+                }
+                bitsRestantes--;
+                linha[x] = ((atual >> bitsRestantes) & 1) == 1 ? 'X' : 'O';
+            }
+        }
+        return mapa;
+    }
+
+    /**
+     * Escreve uma lista de mapas (N seguido dos N mapas).
+     */
+    static void escreverLista(DataOutputStream saida, List<MapaGenetico> mapas) throws IOException {
+        saida.writeShort(mapas.size());
+        for (MapaGenetico mapa : mapas) {
+            escrever(saida, mapa);
+        }
+    }
+
+    /**
+     * Lê uma lista de mapas (N seguido dos N mapas).
+     */
+    static List<MapaGenetico> lerLista(DataInputStream entrada) throws IOException {
+        int quantos = entrada.readUnsignedShort();
+        if (quantos > MIGRANTES_MAXIMO) {
+            throw new IOException("Demasiados mapas numa mensagem: " + quantos);
+        }
+        List<MapaGenetico> mapas = new ArrayList<>(quantos);
+        for (int i = 0; i < quantos; i++) {
+            mapas.add(ler(entrada));
+        }
+        return mapas;
+    }
+}
@@ -0,0 +1,234 @@
+package com.mygame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * O "Diário" da evolução: grava o melhor mapa de cada geração num ficheiro
+ * binário, só acrescentando no fim (ver ReprodutorEvolucao para o ler).
+ *
+ * Guardar o char[][] inteiro de cada geração ocupava muito. Aqui cada mapa vira
+ * 1 bit por bloco (1 = parede), e em vez do mapa grava-se o XOR com o melhor da
+ * geração anterior: quase tudo fica a zero (o melhor muda pouco de geração para
+ * geração) e o Deflater comprime isso para poucos bytes. De 'intervaloKeyframes'
+ * em 'intervaloKeyframes' registos grava-se o mapa inteiro (um "keyframe"), para
+ * que a reprodução possa saltar para qualquer geração sem ler o ficheiro todo.
+ *
+ * Formato (big-endian):
+ *   Cabeçalho: assinatura "MNEV" (int), versão (int), largura (int), altura (int),
+ *              intervalo de keyframes (int).
+ *   Registo:   tipo (byte: KEYFRAME ou DELTA), geração (int), fitness (int),
+ *              tamanho (int), e os 'tamanho' bytes comprimidos.
+ *
+ * As escritas passam por um buffer e só vão para o FileChannel quando ele enche
+ * (ou no close). Um ficheiro cortado a meio (o processo morreu) continua legível
+ * até ao último registo completo.
+ */
+public class RegistoEvolucao implements AutoCloseable {
+
+    static final int ASSINATURA = 0x4D4E4556; // "MNEV"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 5 * Integer.BYTES;
+    static final int TAMANHO_CABECALHO_REGISTO = 1 + 3 * Integer.BYTES;
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    /** O intervalo de keyframes por defeito (em registos). */
+    public static final int INTERVALO_KEYFRAMES = 64;
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final int largura;
+    private final int altura;
+    private final int intervaloKeyframes;
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    private final Deflater compressor = new Deflater(Deflater.BEST_SPEED);
+
+    // O mapa atual e o anterior (em bits), e o XOR entre os dois: criados uma vez
+    private byte[] bitsAtuais;
+    private byte[] bitsAnteriores;
+    private final byte[] diferenca;
+    private byte[] comprimido;
+
+    private int numRegistos = 0;
+    private long bytesEscritos = 0;
+
+    /**
+     * Cria (ou substitui) um ficheiro de registo.
+     * @param ficheiro O ficheiro.
+     * @param largura A largura dos mapas.
+     * @param altura A altura dos mapas.
+     * @param intervaloKeyframes De quantos em quantos registos se grava o mapa inteiro.
+     * @throws IOException Se o ficheiro não puder ser criado.
+     */
+    public RegistoEvolucao(Path ficheiro, int largura, int altura, int intervaloKeyframes) throws IOException {
+        if (intervaloKeyframes < 1) {
+            throw new IllegalArgumentException("O intervalo de keyframes tem de ser pelo menos 1: " + intervaloKeyframes);
+        }
+        this.largura = largura;
+        this.altura = altura;
+        this.intervaloKeyframes = intervaloKeyframes;
+        int numBytes = bytesPorMapa(largura, altura);
+        this.bitsAtuais = new byte[numBytes];
+        this.bitsAnteriores = new byte[numBytes];
+        this.diferenca = new byte[numBytes];
+        this.comprimido = new byte[numBytes + numBytes / 100 + 64];
+        this.canal = FileChannel.open(ficheiro, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(ASSINATURA).putInt(VERSAO).putInt(largura).putInt(altura).putInt(intervaloKeyframes);
+    }
+
+    /**
+     * Um registo com o intervalo de keyframes por defeito.
+     */
+    public RegistoEvolucao(Path ficheiro, int largura, int altura) throws IOException {
+        this(ficheiro, largura, altura, INTERVALO_KEYFRAMES);
+    }
+
+    static int bytesPorMapa(int largura, int altura) {
+        return (largura * altura + 7) / 8;
+    }
+
+    /**
+     * Acrescenta o melhor mapa de uma geração.
+     * @param geracao O número da geração (as gerações devem ir a subir).
+     * @param melhor O melhor mapa (do tamanho deste registo; só é lido).
+     * @throws IOException Se a escrita falhar.
+     */
+    public void registar(int geracao, MapaGenetico melhor) throws IOException {
+        if (melhor.largura != largura || melhor.altura != altura) {
+            throw new IllegalArgumentException("Mapa com tamanho errado: " + melhor.largura + "x" + melhor.altura);
+        }
+        empacotar(melhor, bitsAtuais);
+
+        byte tipo;
+        byte[] dados;
+        if (numRegistos % intervaloKeyframes == 0) {
+            tipo = KEYFRAME;
+            dados = bitsAtuais;
+        } else {
+            tipo = DELTA;
+            for (int i = 0; i < diferenca.length; i++) {
+                diferenca[i] = (byte) (bitsAtuais[i] ^ bitsAnteriores[i]);
+            }
+            dados = diferenca;
+        }
+        int tamanho = comprimir(dados);
+
+        garantirEspaco(TAMANHO_CABECALHO_REGISTO);
+        buffer.put(tipo).putInt(geracao).putInt(melhor.fitness).putInt(tamanho);
+        escrever(comprimido, tamanho);
+
+        // O atual passa a ser o anterior (troca, sem copiar)
+        byte[] t = bitsAnteriores;
+        bitsAnteriores = bitsAtuais;
+        bitsAtuais = t;
+        numRegistos++;
+    }
+
+    /**
+     * Os bits de um mapa (1 = parede), linha a linha, do bit mais alto para o mais baixo
+     * (a mesma ordem do ProtocoloGenoma).
+     */
+    static void empacotar(MapaGenetico mapa, byte[] destino) {
+        Arrays.fill(destino, (byte) 0);
+        int i = 0;
+        for (int z = 0; z < mapa.altura; z++) {
+            char[] linha = mapa.grelha[z];
+            for (int x = 0; x < mapa.largura; x++, i++) {
+                if (linha[x] == 'X') {
+                    destino[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+                }
+            }
+        }
+    }
+
+    /**
+     * O contrário de empacotar: escreve os bits na grelha do mapa.
+     */
+    static void desempacotar(byte[] origem, MapaGenetico mapa) {
+        int i = 0;
+        for (int z = 0; z < mapa.altura; z++) {
+            char[] linha = mapa.grelha[z];
+            for (int x = 0; x < mapa.largura; x++, i++) {
+                linha[x] = (origem[i >>> 3] & (0x80 >>> (i & 7))) != 0 ? 'X' : 'O';
+            }
+        }
+    }
+
+    /**
+     * Comprime 'dados' para o array 'comprimido' (que cresce se for preciso).
+     * @return Quantos bytes comprimidos.
+     */
+    private int comprimir(byte[] dados) {
+        compressor.reset();
+        compressor.setInput(dados);
+        compressor.finish();
+        int tamanho = 0;
+        while (!compressor.finished()) {
+            if (tamanho == comprimido.length) {
+                comprimido = Arrays.copyOf(comprimido, comprimido.length * 2);
+            }
+            tamanho += compressor.deflate(comprimido, tamanho, comprimido.length - tamanho);
+        }
+        return tamanho;
+    }
+
+    private void escrever(byte[] dados, int tamanho) throws IOException {
+        int escritos = 0;
+        while (escritos < tamanho) {
+            if (!buffer.hasRemaining()) {
+                despejar();
+            }
+            int parte = Math.min(buffer.remaining(), tamanho - escritos);
+            buffer.put(dados, escritos, parte);
+            escritos += parte;
+        }
+    }
+
+    private void garantirEspaco(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            despejar();
+        }
+    }
+
+    /**
+     * Escreve no ficheiro o que está no buffer.
+     */
+    private void despejar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesEscritos += canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** @return Quantas gerações foram registadas. */
+    public int getNumRegistos() {
+        return numRegistos;
+    }
+
+    /** @return O tamanho do ficheiro até agora (incluindo o que ainda está no buffer). */
+    public long getBytesEscritos() {
+        return bytesEscritos + buffer.position();
+    }
+
+    /**
+     * Escreve o que falta e fecha o ficheiro.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            despejar();
+        } finally {
+            compressor.end();
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.mygame;
+
+import java.util.Arrays;
+
+/**
+ * O "Reparador" de labirintos: depois do crossover e da mutação, muitos filhos
+ * ficam partidos em "bolsos" de caminho desligados uns dos outros, e o Pathfinder
+ * pode acabar a medir um bolso pequeno (fitness baixo, avaliação desperdiçada).
+ *
+ * O reparador:
+ *   1. Etiqueta as componentes ligadas numa só passagem, com "union-find".
+ *   2. Enche de parede os bolsos pequenos (menos de 'tamanhoMinimo' blocos).
+ *   3. Liga as restantes à maior, abrindo o MENOR número possível de paredes:
+ *      uma BFS "0-1" a partir de tudo o que já está ligado (andar por caminho
+ *      custa 0, atravessar uma parede custa 1) encontra a componente com a
+ *      ligação mais barata, e as paredes dessa ligação são abertas. A componente
+ *      passa a contar como "ligada" e repete-se, até não sobrar nenhuma.
+ *
+ * Toda a memória é criada uma vez (no construtor) e reutilizada: reparar não aloca nada.
+ * As bordas do mapa nunca são tocadas.
+ */
+public class ReparadorConectividade {
+
+    private final int largura;
+    private final int altura;
+    private final int tamanhoMinimo;
+
+    // Union-find: o "pai" de cada bloco e o tamanho de cada componente (na raiz)
+    private final int[] pai;
+    private final int[] tamanho;
+
+    // BFS 0-1: custo de cada bloco, de onde veio, e uma fila com duas pontas (anel)
+    private final int[] custo;
+    private final int[] anterior;
+    private final int[] fila;
+
+    // Os blocos enchidos no passo 2 (um bit por bloco): se uma ligação os voltar
+    // a abrir, ficam como estavam e não contam como mudança
+    private final long[] enchidos;
+
+    /**
+     * @param largura A largura dos mapas.
+     * @param altura A altura dos mapas.
+     * @param tamanhoMinimo Componentes com menos blocos do que isto são enchidas de parede.
+     */
+    public ReparadorConectividade(int largura, int altura, int tamanhoMinimo) {
+        this.largura = largura;
+        this.altura = altura;
+        this.tamanhoMinimo = tamanhoMinimo;
+        int n = largura * altura;
+        this.pai = new int[n];
+        this.tamanho = new int[n];
+        this.custo = new int[n];
+        this.anterior = new int[n];
+        this.fila = new int[2 * n + 1];
+        this.enchidos = new long[(n + 63) >> 6];
+    }
+
+    /**
+     * Repara um mapa (no próprio mapa).
+     * @param mapa O mapa a reparar (do tamanho deste reparador).
+     * @return Quantos blocos ficaram diferentes (paredes abertas + bolsos enchidos).
+     */
+    public int reparar(MapaGenetico mapa) {
+        char[][] grelha = mapa.grelha;
+
+        // 1. Union-find: cada bloco livre junta-se ao vizinho livre da esquerda e de cima
+        for (int z = 0; z < altura; z++) {
+            for (int x = 0; x < largura; x++) {
+                int i = z * largura + x;
+                if (grelha[z][x] == 'X') {
+                    pai[i] = -1;
+                    continue;
+                }
+                pai[i] = i;
+                tamanho[i] = 1;
+                if (x > 0 && grelha[z][x - 1] != 'X') {
+                    unir(i, i - 1);
+                }
+                if (z > 0 && grelha[z - 1][x] != 'X') {
+                    unir(i, i - largura);
+                }
+            }
+        }
+
+        // 2. A maior componente, e os bolsos pequenos enchidos de parede
+        int maior = -1;
+        int numComponentes = 0;
+        for (int i = 0; i < pai.length; i++) {
+            if (pai[i] == i) {
+                numComponentes++;
+                if (maior < 0 || tamanho[i] > tamanho[maior]) {
+                    maior = i;
+                }
+            }
+        }
+        if (numComponentes <= 1) {
+            return 0;
+        }
+
+        int mudancas = 0;
+        int componentesALigar = 0;
+        Arrays.fill(enchidos, 0L);
+        for (int i = 0; i < pai.length; i++) {
+            if (pai[i] < 0) {
+                continue;
+            }
+            int raiz = encontrar(i);
+            if (raiz == maior) {
+                continue;
+            }
+            if (tamanho[raiz] < tamanhoMinimo) {
+                grelha[i / largura][i % largura] = 'X';
+                enchidos[i >> 6] |= 1L << i;
+                mudancas++;
+            } else if (raiz == i) {
+                componentesALigar++;
+            }
+        }
+        if (componentesALigar == 0) {
+            return mudancas;
+        }
+
+        // 3. BFS 0-1 a partir da maior componente (e do que se lhe for juntando)
+        mudancas += ligarAMaior(grelha, maior, componentesALigar);
+        return mudancas;
+    }
+
+    /**
+     * Liga as componentes que sobram à maior, uma de cada vez, sempre pela ligação
+     * mais barata a partir de TUDO o que já está ligado (a maior, as componentes
+     * já juntadas e as paredes abertas para isso): ao ligar uma componente, ela
+     * passa a fazer parte do conjunto da maior (no union-find), e a BFS seguinte
+     * também parte dela.
+     */
+    private int ligarAMaior(char[][] grelha, int maior, int componentesALigar) {
+        int mudancas = 0;
+        while (componentesALigar > 0) {
+            int chegada = procurarLigacaoMaisBarata(grelha, maior);
+            if (chegada < 0) {
+                break; // (Só acontece com bolsos encostados às bordas, que nunca se abrem)
+            }
+            // Abre as paredes da ligação (para trás, até à parte já ligada) e junta tudo
+            for (int b = anterior[chegada]; b >= 0; b = anterior[b]) {
+                int bx = b % largura;
+                int bz = b / largura;
+                if (grelha[bz][bx] == 'X') {
+                    grelha[bz][bx] = 'O';
+                    pai[b] = b;
+                    tamanho[b] = 1;
+                    unir(b, maior);
+                    if ((enchidos[b >> 6] & (1L << b)) != 0) {
+                        enchidos[b >> 6] &= ~(1L << b);
+                        mudancas--; // Era caminho antes de reparar
+                    } else {
+                        mudancas++;
+                    }
+                }
+            }
+            unir(chegada, maior);
+            maior = encontrar(maior);
+            componentesALigar--;
+        }
+        return mudancas;
+    }
+
+    /**
+     * BFS "0-1" a partir de todos os blocos livres do conjunto de 'maior' (custo 0).
+     * @return O primeiro bloco livre de OUTRA componente a sair da fila (o que tem a
+     *         ligação mais barata; 'anterior' leva de volta ao conjunto), ou -1.
+     */
+    private int procurarLigacaoMaisBarata(char[][] grelha, int maior) {
+        Arrays.fill(custo, Integer.MAX_VALUE);
+        int capacidade = fila.length;
+        int frente = 0;
+        int tras = 0;
+        for (int i = 0; i < pai.length; i++) {
+            if (pai[i] >= 0 && grelha[i / largura][i % largura] != 'X' && encontrar(i) == maior) {
+                custo[i] = 0;
+                anterior[i] = -1;
+                fila[tras] = i;
+                tras = (tras + 1) % capacidade;
+            }
+        }
+
+        while (frente != tras) {
+            int atual = fila[frente];
+            frente = (frente + 1) % capacidade;
+            int ax = atual % largura;
+            int az = atual / largura;
+
+            // Chegámos (pelo caminho mais barato) a uma componente ainda por ligar?
+            if (grelha[az][ax] != 'X' && pai[atual] >= 0 && encontrar(atual) != maior) {
+                return atual;
+            }
+
+            for (int d = 0; d < 4; d++) {
+                int nx = ax + (d == 0 ? 1 : d == 1 ? -1 : 0);
+                int nz = az + (d == 2 ? 1 : d == 3 ? -1 : 0);
+                // As bordas nunca se abrem
+                if (nx <= 0 || nz <= 0 || nx >= largura - 1 || nz >= altura - 1) {
+                    continue;
+                }
+                int vizinho = nz * largura + nx;
+                int passo = grelha[nz][nx] == 'X' ? 1 : 0;
+                if (custo[atual] + passo < custo[vizinho]) {
+                    custo[vizinho] = custo[atual] + passo;
+                    anterior[vizinho] = atual;
+                    if (passo == 0) {
+                        frente = (frente - 1 + capacidade) % capacidade;
+                        fila[frente] = vizinho;
+                    } else {
+                        fila[tras] = vizinho;
+                        tras = (tras + 1) % capacidade;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int encontrar(int i) {
+        while (pai[i] != i) {
+            pai[i] = pai[pai[i]]; // Encurta o caminho ("path halving")
+            i = pai[i];
+        }
+        return i;
+    }
+
+    private void unir(int a, int b) {
+        int ra = encontrar(a);
+        int rb = encontrar(b);
+        if (ra == rb) {
+            return;
+        }
+        if (tamanho[ra] < tamanho[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        pai[rb] = ra;
+        tamanho[ra] += tamanho[rb];
+    }
+}
@@ -0,0 +1,265 @@
+package com.mygame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * O "Leitor do Diário": lê um ficheiro gravado pelo RegistoEvolucao e reconstrói
+ * o melhor mapa de QUALQUER geração.
+ *
+ * Ao abrir, só os cabeçalhos dos registos são lidos (os dados comprimidos são
+ * saltados), para saber onde começa cada um. Para chegar a uma geração, parte-se
+ * do último keyframe antes dela e aplicam-se os XOR seguintes: no máximo
+ * 'intervaloKeyframes' registos são descomprimidos, seja qual for o tamanho do ficheiro.
+ *
+ * Uso: ReprodutorEvolucao FICHEIRO            (resumo de todas as gerações)
+ *      ReprodutorEvolucao FICHEIRO GERACAO    (o melhor mapa dessa geração)
+ */
+public class ReprodutorEvolucao implements AutoCloseable {
+
+    private final FileChannel canal;
+    private final int largura;
+    private final int altura;
+    private final int intervaloKeyframes;
+
+    // O "índice" dos registos: [registo] -> geração, fitness, tipo, onde estão os dados
+    private int numRegistos = 0;
+    private int[] geracoes = new int[256];
+    private int[] fitness = new int[256];
+    private byte[] tipos = new byte[256];
+    private long[] posicoes = new long[256];
+    private int[] tamanhos = new int[256];
+
+    private final Inflater descompressor = new Inflater();
+    private final byte[] bits;
+    private final byte[] diferenca;
+    private ByteBuffer leitura = ByteBuffer.allocate(1024);
+
+    /**
+     * Abre um registo e lê o índice das gerações.
+     * @param ficheiro O ficheiro.
+     * @throws IOException Se não for um registo do Projeto Minos.
+     */
+    public ReprodutorEvolucao(Path ficheiro) throws IOException {
+        this.canal = FileChannel.open(ficheiro, StandardOpenOption.READ);
+        try {
+            ByteBuffer cabecalho = lerEm(0, RegistoEvolucao.TAMANHO_CABECALHO);
+            if (cabecalho == null || cabecalho.getInt() != RegistoEvolucao.ASSINATURA) {
+                throw new IOException("Não é um registo de evolução do Projeto Minos: " + ficheiro);
+            }
+            int versao = cabecalho.getInt();
+            if (versao != RegistoEvolucao.VERSAO) {
+                throw new IOException("Versão de registo desconhecida: " + versao);
+            }
+            this.largura = cabecalho.getInt();
+            this.altura = cabecalho.getInt();
+            this.intervaloKeyframes = cabecalho.getInt();
+            if (largura <= 0 || altura <= 0) {
+                throw new IOException("Tamanho de mapa inválido: " + largura + "x" + altura);
+            }
+            this.bits = new byte[RegistoEvolucao.bytesPorMapa(largura, altura)];
+            this.diferenca = new byte[bits.length];
+            lerIndice();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Percorre os cabeçalhos dos registos (saltando os dados).
+     * Pára no fim do ficheiro ou no primeiro registo incompleto.
+     */
+    private void lerIndice() throws IOException {
+        long posicao = RegistoEvolucao.TAMANHO_CABECALHO;
+        long tamanhoFicheiro = canal.size();
+        while (true) {
+            ByteBuffer cabecalho = lerEm(posicao, RegistoEvolucao.TAMANHO_CABECALHO_REGISTO);
+            if (cabecalho == null) {
+                break;
+            }
+            byte tipo = cabecalho.get();
+            int geracao = cabecalho.getInt();
+            int fit = cabecalho.getInt();
+            int tamanho = cabecalho.getInt();
+            long inicioDados = posicao + RegistoEvolucao.TAMANHO_CABECALHO_REGISTO;
+            boolean valido = (tipo == RegistoEvolucao.KEYFRAME || (tipo == RegistoEvolucao.DELTA && numRegistos > 0))
+                    && tamanho >= 0 && inicioDados + tamanho <= tamanhoFicheiro;
+            if (!valido) {
+                break;
+            }
+            if (numRegistos == geracoes.length) {
+                int novo = numRegistos * 2;
+                geracoes = Arrays.copyOf(geracoes, novo);
+                fitness = Arrays.copyOf(fitness, novo);
+                tipos = Arrays.copyOf(tipos, novo);
+                posicoes = Arrays.copyOf(posicoes, novo);
+                tamanhos = Arrays.copyOf(tamanhos, novo);
+            }
+            geracoes[numRegistos] = geracao;
+            fitness[numRegistos] = fit;
+            tipos[numRegistos] = tipo;
+            posicoes[numRegistos] = inicioDados;
+            tamanhos[numRegistos] = tamanho;
+            numRegistos++;
+            posicao = inicioDados + tamanho;
+        }
+    }
+
+    /**
+     * Lê 'tamanho' bytes a partir de 'posicao' (no buffer de leitura, reutilizado).
+     * @return O buffer pronto a ler, ou null se o ficheiro acaba antes.
+     */
+    private ByteBuffer lerEm(long posicao, int tamanho) throws IOException {
+        if (leitura.capacity() < tamanho) {
+            leitura = ByteBuffer.allocate(Math.max(tamanho, leitura.capacity() * 2));
+        }
+        leitura.clear().limit(tamanho);
+        while (leitura.hasRemaining()) {
+            if (canal.read(leitura, posicao + leitura.position()) < 0) {
+                return null;
+            }
+        }
+        return leitura.flip();
+    }
+
+    /**
+     * O melhor mapa de uma geração (ou da última registada antes dela).
+     * @param geracao A geração.
+     * @return Um mapa novo (com o fitness gravado), ou null se a geração é anterior à primeira registada.
+     * @throws IOException Se a leitura falhar ou os dados estiverem estragados.
+     */
+    public MapaGenetico mapaNaGeracao(int geracao) throws IOException {
+        int alvo = registoDaGeracao(geracao);
+        if (alvo < 0) {
+            return null;
+        }
+        int inicio = alvo;
+        while (tipos[inicio] != RegistoEvolucao.KEYFRAME) {
+            inicio--;
+        }
+        descomprimir(inicio, bits);
+        for (int r = inicio + 1; r <= alvo; r++) {
+            descomprimir(r, diferenca);
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] ^= diferenca[i];
+            }
+        }
+        MapaGenetico mapa = new MapaGenetico(largura, altura);
+        RegistoEvolucao.desempacotar(bits, mapa);
+        mapa.fitness = fitness[alvo];
+        return mapa;
+    }
+
+    /**
+     * O último registo com geração <= 'geracao' (as gerações estão por ordem), ou -1.
+     */
+    private int registoDaGeracao(int geracao) {
+        int i = Arrays.binarySearch(geracoes, 0, numRegistos, geracao);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private void descomprimir(int registo, byte[] destino) throws IOException {
+        ByteBuffer dados = lerEm(posicoes[registo], tamanhos[registo]);
+        if (dados == null) {
+            throw new IOException("Registo " + registo + " incompleto");
+        }
+        descompressor.reset();
+        descompressor.setInput(dados.array(), 0, tamanhos[registo]);
+        try {
+            int lidos = 0;
+            while (lidos < destino.length && !descompressor.finished()) {
+                int n = descompressor.inflate(destino, lidos, destino.length - lidos);
+                if (n == 0 && descompressor.needsInput()) {
+                    break;
+                }
+                lidos += n;
+            }
+            if (lidos != destino.length) {
+                throw new IOException("Registo " + registo + " com " + lidos + " bytes em vez de " + destino.length);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Registo " + registo + " estragado: " + e.getMessage(), e);
+        }
+    }
+
+    /** @return Quantas gerações estão registadas. */
+    public int getNumRegistos() {
+        return numRegistos;
+    }
+
+    /** @return A geração do registo 'i' (0 = o primeiro). */
+    public int getGeracao(int i) {
+        return geracoes[i];
+    }
+
+    /** @return O fitness do melhor mapa do registo 'i'. */
+    public int getFitness(int i) {
+        return fitness[i];
+    }
+
+    public int getLargura() {
+        return largura;
+    }
+
+    public int getAltura() {
+        return altura;
+    }
+
+    @Override
+    public void close() throws IOException {
+        descompressor.end();
+        canal.close();
+    }
+
+    /**
+     * Ponto de entrada do programa (ver o comentário da classe).
+     * @param args O ficheiro, e opcionalmente a geração a mostrar.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Uso: ReprodutorEvolucao FICHEIRO [GERACAO]");
+            System.exit(2);
+            return;
+        }
+        try (ReprodutorEvolucao reprodutor = new ReprodutorEvolucao(Path.of(args[0]))) {
+            if (args.length == 2) {
+                int geracao = Integer.parseInt(args[1]);
+                MapaGenetico mapa = reprodutor.mapaNaGeracao(geracao);
+                if (mapa == null) {
+                    System.err.println("A geração " + geracao + " não está no registo.");
+                    System.exit(1);
+                    return;
+                }
+                System.out.println("--- Geração " + geracao + " | Melhor Fitness: " + mapa.fitness + " ---");
+                for (String linha : mapa.paraStringArray()) {
+                    System.out.println(linha);
+                }
+            } else {
+                System.out.println("--- " + reprodutor.numRegistos + " gerações, mapas " + reprodutor.largura
+                        + "x" + reprodutor.altura + ", keyframe a cada " + reprodutor.intervaloKeyframes + " ---");
+                long bytes = 0;
+                for (int i = 0; i < reprodutor.numRegistos; i++) {
+                    bytes += reprodutor.tamanhos[i];
+                    System.out.println("Geração " + reprodutor.geracoes[i] + " | Fitness: " + reprodutor.fitness[i]
+                            + " | " + (reprodutor.tipos[i] == RegistoEvolucao.KEYFRAME ? "keyframe" : "delta")
+                            + " | " + reprodutor.tamanhos[i] + " bytes");
+                }
+                long semCompressao = (long) reprodutor.numRegistos * reprodutor.bits.length;
+                System.out.println("--- " + bytes + " bytes comprimidos (" + semCompressao + " sem compressão) ---");
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Erro: geração inválida: " + args[1]);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
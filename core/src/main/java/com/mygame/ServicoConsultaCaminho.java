@@ -0,0 +1,390 @@
+package com.mygame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * O "Balcão de Pedidos" de caminhos: qualquer sistema do jogo (pistas ao jogador,
+ * NPCs...) pede um caminho e recebe logo um CompletableFuture, sem esperar.
+ * O A* corre num grupo de threads de trabalho (cada uma com o seu Pathfinder),
+ * e o resultado é entregue através do "entregador" (no jogo: app::enqueue,
+ * para que os callbacks corram na thread do jME).
+ *
+ * - Pedidos com mais prioridade passam à frente na fila.
+ * - Se o A* falhar (uma exceção), todos os pedidos dessa rota falham com ela.
+ * - Um pedido cujo prazo passou antes de começar falha com TimeoutException.
+ * - Um novo pedido do mesmo "requerente" cancela o anterior (já não interessa).
+ * - Pedidos iguais (mesmo início e fim) que ainda estão na fila ou a correr
+ *   são juntados: o A* corre UMA vez e todos recebem o resultado. Se o pedido
+ *   juntado tem mais prioridade, a tarefa (se ainda está na fila) sobe com ele.
+ */
+public class ServicoConsultaCaminho implements AutoCloseable {
+
+    // Quantos marcos ALT para a heurística do A* (ver MarcosALT)
+    private static final int NUM_MARCOS = 8;
+
+    private final String[] mapa;
+    private final MarcosALT marcos;
+    private final Executor entregador;
+    private final ThreadPoolExecutor trabalhadores;
+
+    // Cada thread de trabalho tem o seu próprio Pathfinder (os Nós guardam estado do A*)
+    private final ThreadLocal<Pathfinder> pathfinders;
+
+    // Estado partilhado (protegido por "this")
+    private final Map<Rota, Tarefa> emVoo = new HashMap<>();
+    private final Map<Object, Pedido> porRequerente = new HashMap<>();
+
+    // Para desempatar pedidos com a mesma prioridade (o mais antigo primeiro)
+    private final AtomicLong sequencia = new AtomicLong();
+
+    // --- Métricas ---
+    private final LongAdder pedidos = new LongAdder();
+    private final LongAdder concluidos = new LongAdder();
+    private final LongAdder cancelados = new LongAdder();
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder falhados = new LongAdder();
+    private final LongAdder juntados = new LongAdder();
+    private final AtomicLong latenciaTotalNanos = new AtomicLong();
+    private final AtomicLong latenciaMaximaNanos = new AtomicLong();
+
+    /**
+     * @param mapa O mapa 2D do labirinto.
+     * @param numThreads Quantas threads de trabalho usar.
+     * @param entregador Onde entregar os resultados (ex: app::enqueue).
+     */
+    public ServicoConsultaCaminho(String[] mapa, int numThreads, Executor entregador) {
+        this.mapa = mapa;
+        this.entregador = entregador;
+        // Os marcos ALT são calculados uma vez e partilhados por todos os Pathfinders
+        this.marcos = MarcosALT.calcular(mapa, NUM_MARCOS);
+        this.pathfinders = ThreadLocal.withInitial(() -> {
+            Pathfinder pathfinder = new Pathfinder(this.mapa);
+            pathfinder.setMarcos(this.marcos);
+            return pathfinder;
+        });
+        this.trabalhadores = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "Minos-Caminhos");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Pede um caminho. Nunca bloqueia.
+     * @param requerente Quem pede (ex: o NPC). Um novo pedido do mesmo requerente
+     *                   cancela o anterior. Pode ser null (nunca é cancelado).
+     * @param xInicio X do bloco de partida.
+     * @param zInicio Z do bloco de partida.
+     * @param xFim X do bloco de destino.
+     * @param zFim Z do bloco de destino.
+     * @param prioridade Maior = passa mais à frente na fila.
+     * @param prazoMs Tempo máximo (ms) que o pedido pode esperar na fila.
+     * @return O futuro com o caminho (ou null se não houver caminho).
+     */
+    public CompletableFuture<Caminho> pedir(Object requerente, int xInicio, int zInicio, int xFim, int zFim,
+                                            int prioridade, long prazoMs) {
+        pedidos.increment();
+        long agora = System.nanoTime();
+        Rota rota = new Rota(xInicio, zInicio, xFim, zFim);
+        Pedido pedido = new Pedido(requerente, agora);
+        boolean novaTarefa = false;
+        Tarefa tarefa;
+
+        synchronized (this) {
+            // 1. Um pedido novo do mesmo requerente "substitui" o antigo
+            if (requerente != null) {
+                Pedido antigo = porRequerente.put(requerente, pedido);
+                if (antigo != null) {
+                    retirar(antigo);
+                    antigo.futuro.cancel(false);
+                    cancelados.increment();
+                }
+            }
+
+            // 2. Se já há um pedido igual na fila (ou a correr), junta-se a ele
+            long prazoNanos = agora + TimeUnit.MILLISECONDS.toNanos(prazoMs);
+            tarefa = emVoo.get(rota);
+            if (tarefa != null) {
+                juntados.increment();
+                tarefa.prazoNanos = Math.max(tarefa.prazoNanos, prazoNanos);
+                // Mais prioridade: tira a tarefa da fila e volta a pô-la (a fila só
+                // ordena ao inserir). Se já não está na fila, já está a correr.
+                if (prioridade > tarefa.prioridade && trabalhadores.getQueue().remove(tarefa)) {
+                    tarefa.prioridade = prioridade;
+                    trabalhadores.execute(tarefa);
+                }
+            } else {
+                tarefa = new Tarefa(rota, prioridade, prazoNanos, sequencia.getAndIncrement());
+                emVoo.put(rota, tarefa);
+                novaTarefa = true;
+            }
+            pedido.tarefa = tarefa;
+            tarefa.pedidos.add(pedido);
+        }
+
+        // 3. Se quem pediu cancelar o futuro, o pedido sai da tarefa
+        pedido.futuro.whenComplete((caminho, erro) -> {
+            if (pedido.futuro.isCancelled()) {
+                synchronized (this) {
+                    retirar(pedido);
+                }
+            }
+        });
+
+        if (novaTarefa) {
+            trabalhadores.execute(tarefa);
+        }
+        return pedido.futuro;
+    }
+
+    /**
+     * Tira um pedido da sua tarefa (e do mapa dos requerentes). Chamar com "this" bloqueado.
+     */
+    private void retirar(Pedido pedido) {
+        if (pedido.tarefa != null) {
+            pedido.tarefa.pedidos.remove(pedido);
+        }
+        if (pedido.requerente != null && porRequerente.get(pedido.requerente) == pedido) {
+            porRequerente.remove(pedido.requerente);
+        }
+    }
+
+    /**
+     * Corre numa thread de trabalho: calcula o caminho de uma tarefa e entrega-o.
+     */
+    private void executar(Tarefa tarefa) {
+        synchronized (this) {
+            // Ninguém quer este resultado (foram todos cancelados)
+            if (tarefa.pedidos.isEmpty()) {
+                emVoo.remove(tarefa.rota);
+                return;
+            }
+            // Esperou demasiado na fila
+            if (System.nanoTime() > tarefa.prazoNanos) {
+                emVoo.remove(tarefa.rota);
+                List<Pedido> atrasados = terminar(tarefa);
+                expirados.add(atrasados.size());
+                TimeoutException erro = new TimeoutException("O pedido de caminho passou o prazo na fila");
+                for (Pedido pedido : atrasados) {
+                    entregador.execute(() -> pedido.futuro.completeExceptionally(erro));
+                }
+                return;
+            }
+        }
+
+        Rota rota = tarefa.rota;
+        Caminho caminho = null;
+        Throwable falha = null;
+        List<Pedido> interessados;
+        try {
+            // (O Caminho é imutável: o mesmo objeto pode ir para todos os interessados)
+            caminho = pathfinders.get().encontrarCaminho(rota.xInicio, rota.zInicio, rota.xFim, rota.zFim);
+        } catch (RuntimeException | Error e) {
+            falha = e;
+        } finally {
+            // Aconteça o que acontecer, a rota sai de "em voo" e ninguém fica à espera
+            synchronized (this) {
+                emVoo.remove(rota);
+                interessados = terminar(tarefa);
+            }
+        }
+
+        if (falha != null) {
+            falhados.add(interessados.size());
+            Throwable erro = falha;
+            for (Pedido pedido : interessados) {
+                entregador.execute(() -> pedido.futuro.completeExceptionally(erro));
+            }
+            if (falha instanceof Error grave) {
+                throw grave;
+            }
+            return;
+        }
+
+        Caminho resultado = caminho;
+        long agora = System.nanoTime();
+        for (Pedido pedido : interessados) {
+            registarLatencia(agora - pedido.instanteNanos);
+            concluidos.increment();
+            entregador.execute(() -> pedido.futuro.complete(resultado));
+        }
+    }
+
+    /**
+     * Fecha a tarefa e devolve os pedidos que ainda estavam à espera dela.
+     * Chamar com "this" bloqueado.
+     */
+    private List<Pedido> terminar(Tarefa tarefa) {
+        List<Pedido> interessados = new ArrayList<>(tarefa.pedidos);
+        tarefa.pedidos.clear();
+        for (Pedido pedido : interessados) {
+            if (pedido.requerente != null && porRequerente.get(pedido.requerente) == pedido) {
+                porRequerente.remove(pedido.requerente);
+            }
+        }
+        return interessados;
+    }
+
+    private void registarLatencia(long nanos) {
+        latenciaTotalNanos.addAndGet(nanos);
+        latenciaMaximaNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // --- Métricas (podem ser lidas de qualquer thread) ---
+
+    /** @return Quantas tarefas estão na fila à espera de uma thread. */
+    public int getProfundidadeFila() {
+        return trabalhadores.getQueue().size();
+    }
+
+    /** @return Quantas rotas diferentes estão na fila ou a ser calculadas. */
+    public synchronized int getTarefasEmVoo() {
+        return emVoo.size();
+    }
+
+    /** @return Quantos pedidos foram feitos desde o início. */
+    public long getPedidos() {
+        return pedidos.sum();
+    }
+
+    /** @return Quantos pedidos receberam um resultado. */
+    public long getConcluidos() {
+        return concluidos.sum();
+    }
+
+    /** @return Quantos pedidos foram cancelados (substituídos pelo mesmo requerente). */
+    public long getCancelados() {
+        return cancelados.sum();
+    }
+
+    /** @return Quantos pedidos passaram o prazo na fila. */
+    public long getExpirados() {
+        return expirados.sum();
+    }
+
+    /** @return Quantos pedidos falharam porque o A* lançou uma exceção. */
+    public long getFalhados() {
+        return falhados.sum();
+    }
+
+    /** @return Quantos pedidos foram juntados a um pedido igual já em voo. */
+    public long getJuntados() {
+        return juntados.sum();
+    }
+
+    /** @return A latência média (pedido -> resultado pronto), em milissegundos. */
+    public double getLatenciaMediaMs() {
+        long n = concluidos.sum();
+        return n == 0 ? 0 : latenciaTotalNanos.get() / 1e6 / n;
+    }
+
+    /** @return A maior latência vista (pedido -> resultado pronto), em milissegundos. */
+    public double getLatenciaMaximaMs() {
+        return latenciaMaximaNanos.get() / 1e6;
+    }
+
+    /**
+     * Desliga as threads de trabalho. Os pedidos pendentes são cancelados.
+     */
+    @Override
+    public void close() {
+        trabalhadores.shutdownNow();
+        List<Pedido> pendentes = new ArrayList<>();
+        synchronized (this) {
+            for (Tarefa tarefa : emVoo.values()) {
+                pendentes.addAll(terminar(tarefa));
+            }
+            emVoo.clear();
+        }
+        for (Pedido pedido : pendentes) {
+            pedido.futuro.cancel(false);
+        }
+    }
+
+    /**
+     * Um pedido de UM cliente (vários pedidos podem partilhar a mesma Tarefa).
+     */
+    private static class Pedido {
+        final Object requerente;
+        final long instanteNanos;
+        final CompletableFuture<Caminho> futuro = new CompletableFuture<>();
+        Tarefa tarefa;
+
+        Pedido(Object requerente, long instanteNanos) {
+            this.requerente = requerente;
+            this.instanteNanos = instanteNanos;
+        }
+    }
+
+    /**
+     * Um cálculo de A* na fila. Ordenado por prioridade (maior primeiro)
+     * e depois por ordem de chegada.
+     */
+    private class Tarefa implements Runnable, Comparable<Tarefa> {
+        final Rota rota;
+        volatile int prioridade; // (Só muda fora da fila, ver pedir)
+        final long numeroSequencia;
+        volatile long prazoNanos;
+        final List<Pedido> pedidos = new ArrayList<>(1);
+
+        Tarefa(Rota rota, int prioridade, long prazoNanos, long numeroSequencia) {
+            this.rota = rota;
+            this.prioridade = prioridade;
+            this.prazoNanos = prazoNanos;
+            this.numeroSequencia = numeroSequencia;
+        }
+
+        @Override
+        public void run() {
+            executar(this);
+        }
+
+        @Override
+        public int compareTo(Tarefa outra) {
+            if (prioridade != outra.prioridade) {
+                return Integer.compare(outra.prioridade, prioridade);
+            }
+            return Long.compare(numeroSequencia, outra.numeroSequencia);
+        }
+    }
+
+    /**
+     * A "chave" de um pedido: de onde para onde.
+     */
+    private static class Rota {
+        final int xInicio, zInicio, xFim, zFim;
+
+        Rota(int xInicio, int zInicio, int xFim, int zFim) {
+            this.xInicio = xInicio;
+            this.zInicio = zInicio;
+            this.xFim = xFim;
+            this.zFim = zFim;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Rota r = (Rota) obj;
+            return xInicio == r.xInicio && zInicio == r.zInicio && xFim == r.xFim && zFim == r.zFim;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(xInicio, zInicio, xFim, zFim);
+        }
+    }
+}
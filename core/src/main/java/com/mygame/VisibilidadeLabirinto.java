@@ -0,0 +1,220 @@
+package com.mygame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * O "Mapa de Visibilidade" (PVS, "potentially visible set") do labirinto.
+ * Calcula, ANTES de jogar, que chunks se podem ver a partir de cada bloco livre:
+ * de vários pontos dentro do bloco lançamos raios em todas as direções pela
+ * grelha, até baterem numa parede. Tudo o que um raio toca é "visível".
+ *
+ * Cada bloco guarda um conjunto de bits (1 bit por chunk). Como blocos vizinhos
+ * quase sempre veem os mesmos chunks, os conjuntos iguais são guardados UMA vez
+ * (uma "paleta"): cada bloco só guarda o índice do seu conjunto.
+ *
+ * Não depende do jME (corre em qualquer thread).
+ */
+public final class VisibilidadeLabirinto {
+
+    private static final Logger LOG = Logger.getLogger(VisibilidadeLabirinto.class.getName());
+
+    // Raios por ponto de origem (em todas as direções)
+    private static final int NUM_RAIOS = 512;
+    // Os pontos de origem dentro de cada bloco: o centro e 4 pontos perto dos cantos
+    // (o jogador pode estar em qualquer sítio do bloco)
+    private static final float AFASTAMENTO_CANTOS = 0.45f;
+
+    private final int larguraMapa;
+    private final int alturaMapa;
+    private final int tamanhoChunk;
+    private final int chunksX;
+
+    // Para cada bloco (z * largura + x): o índice do seu conjunto, ou -1 se é parede
+    private final int[] conjuntoPorBloco;
+    // Os conjuntos distintos (bits dos chunks visíveis)
+    private final long[][] conjuntos;
+
+    private VisibilidadeLabirinto(int larguraMapa, int alturaMapa, int tamanhoChunk,
+                                  int[] conjuntoPorBloco, long[][] conjuntos) {
+        this.larguraMapa = larguraMapa;
+        this.alturaMapa = alturaMapa;
+        this.tamanhoChunk = tamanhoChunk;
+        this.chunksX = (larguraMapa + tamanhoChunk - 1) / tamanhoChunk;
+        this.conjuntoPorBloco = conjuntoPorBloco;
+        this.conjuntos = conjuntos;
+    }
+
+    /**
+     * Calcula a visibilidade de um mapa.
+     * (Pode demorar: num 101x101 são milhões de passos de raio. Corre fora da thread do jogo.)
+     * @param mapa O mapa ('X' = parede).
+     * @param tamanhoChunk O lado de cada chunk (em blocos), igual ao do GestorChunks.
+     * @return A visibilidade calculada.
+     */
+    public static VisibilidadeLabirinto calcular(String[] mapa, int tamanhoChunk) {
+        int altura = mapa.length;
+        int largura = mapa[0].length();
+        boolean[] parede = new boolean[largura * altura];
+        for (int z = 0; z < altura; z++) {
+            String linha = mapa[z];
+            for (int x = 0; x < largura; x++) {
+                parede[z * largura + x] = linha.charAt(x) == 'X';
+            }
+        }
+
+        int chunksX = (largura + tamanhoChunk - 1) / tamanhoChunk;
+        int chunksZ = (altura + tamanhoChunk - 1) / tamanhoChunk;
+        int palavras = (chunksX * chunksZ + 63) / 64;
+
+        // As direções dos raios (calculadas uma vez)
+        float[] dirX = new float[NUM_RAIOS];
+        float[] dirZ = new float[NUM_RAIOS];
+        for (int i = 0; i < NUM_RAIOS; i++) {
+            double angulo = 2 * Math.PI * (i + 0.5) / NUM_RAIOS;
+            dirX[i] = (float) Math.cos(angulo);
+            dirZ[i] = (float) Math.sin(angulo);
+        }
+        float[] origemX = {0, -AFASTAMENTO_CANTOS, AFASTAMENTO_CANTOS, -AFASTAMENTO_CANTOS, AFASTAMENTO_CANTOS};
+        float[] origemZ = {0, -AFASTAMENTO_CANTOS, -AFASTAMENTO_CANTOS, AFASTAMENTO_CANTOS, AFASTAMENTO_CANTOS};
+
+        int[] conjuntoPorBloco = new int[largura * altura];
+        Arrays.fill(conjuntoPorBloco, -1);
+        Map<Conjunto, Integer> paleta = new HashMap<>();
+        List<long[]> conjuntos = new ArrayList<>();
+        long[] bits = new long[palavras];
+
+        for (int z = 0; z < altura; z++) {
+            for (int x = 0; x < largura; x++) {
+                if (parede[z * largura + x]) {
+                    continue;
+                }
+                Arrays.fill(bits, 0L);
+                for (int o = 0; o < origemX.length; o++) {
+                    for (int r = 0; r < NUM_RAIOS; r++) {
+                        lancarRaio(parede, largura, altura, tamanhoChunk, chunksX,
+                                x + origemX[o], z + origemZ[o], dirX[r], dirZ[r], bits);
+                    }
+                }
+
+                // Procura um conjunto igual na paleta (senão, junta este)
+                Conjunto chave = new Conjunto(bits);
+                Integer indice = paleta.get(chave);
+                if (indice == null) {
+                    long[] copia = bits.clone();
+                    indice = conjuntos.size();
+                    conjuntos.add(copia);
+                    paleta.put(new Conjunto(copia), indice);
+                }
+                conjuntoPorBloco[z * largura + x] = indice;
+            }
+        }
+
+        LOG.fine(() -> "PVS: " + conjuntos.size() + " conjuntos distintos para "
+                + (largura * altura) + " blocos (" + (chunksX * chunksZ) + " chunks)");
+        return new VisibilidadeLabirinto(largura, altura, tamanhoChunk,
+                conjuntoPorBloco, conjuntos.toArray(new long[0][]));
+    }
+
+    /**
+     * Percorre a grelha ao longo de um raio (DDA: bloco a bloco, sem saltar nenhum)
+     * e marca o chunk de cada bloco que o raio toca, até bater numa parede ou sair do mapa.
+     * As coordenadas são em blocos: o bloco (x, z) ocupa [x - 0.5, x + 0.5].
+     */
+    private static void lancarRaio(boolean[] parede, int largura, int altura, int tamanhoChunk, int chunksX,
+                                   float origemX, float origemZ, float dirX, float dirZ, long[] bits) {
+        // Passamos para um espaço onde o bloco x ocupa [x, x + 1]
+        float px = origemX + 0.5f;
+        float pz = origemZ + 0.5f;
+        int bx = (int) Math.floor(px);
+        int bz = (int) Math.floor(pz);
+        int passoX = dirX > 0 ? 1 : -1;
+        int passoZ = dirZ > 0 ? 1 : -1;
+        float deltaX = dirX == 0 ? Float.MAX_VALUE : Math.abs(1f / dirX);
+        float deltaZ = dirZ == 0 ? Float.MAX_VALUE : Math.abs(1f / dirZ);
+        float proximoX = dirX == 0 ? Float.MAX_VALUE : ((dirX > 0 ? bx + 1 : bx) - px) / dirX;
+        float proximoZ = dirZ == 0 ? Float.MAX_VALUE : ((dirZ > 0 ? bz + 1 : bz) - pz) / dirZ;
+
+        while (bx >= 0 && bx < largura && bz >= 0 && bz < altura) {
+            int chunk = (bz / tamanhoChunk) * chunksX + (bx / tamanhoChunk);
+            bits[chunk >>> 6] |= 1L << chunk;
+            if (parede[bz * largura + bx]) {
+                return; // A parede também se vê, mas o que está atrás dela não
+            }
+            if (proximoX < proximoZ) {
+                proximoX += deltaX;
+                bx += passoX;
+            } else {
+                proximoZ += deltaZ;
+                bz += passoZ;
+            }
+        }
+    }
+
+    /**
+     * Diz se um chunk pode ser visto a partir de um bloco.
+     * Se o bloco não tem informação (parede ou fora do mapa, por exemplo quando
+     * a câmara "entra" numa parede) a resposta é sempre "sim", para não esconder nada por engano.
+     * @param x A coluna do bloco.
+     * @param z A linha do bloco.
+     * @param cx A coluna do chunk.
+     * @param cz A linha do chunk.
+     * @return true se o chunk é (potencialmente) visível.
+     */
+    public boolean chunkVisivel(int x, int z, int cx, int cz) {
+        if (!temInformacao(x, z)) {
+            return true;
+        }
+        if (cx < 0 || cx >= chunksX || cz < 0 || cz * tamanhoChunk >= alturaMapa) {
+            return false;
+        }
+        long[] bits = conjuntos[conjuntoPorBloco[z * larguraMapa + x]];
+        int chunk = cz * chunksX + cx;
+        return (bits[chunk >>> 6] & (1L << chunk)) != 0;
+    }
+
+    /**
+     * @return true se o bloco é livre e está dentro do mapa (tem um conjunto calculado).
+     */
+    public boolean temInformacao(int x, int z) {
+        return x >= 0 && x < larguraMapa && z >= 0 && z < alturaMapa
+                && conjuntoPorBloco[z * larguraMapa + x] >= 0;
+    }
+
+    /** @return Quantos conjuntos distintos foram guardados (o tamanho da "paleta"). */
+    public int getNumConjuntos() {
+        return conjuntos.length;
+    }
+
+    /** @return O lado de cada chunk (em blocos) usado no cálculo. */
+    public int getTamanhoChunk() {
+        return tamanhoChunk;
+    }
+
+    /**
+     * Um conjunto de bits como chave da paleta (compara o conteúdo, não a referência).
+     */
+    private static final class Conjunto {
+        private final long[] bits;
+        private final int hash;
+
+        Conjunto(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            return outro instanceof Conjunto c && Arrays.equals(bits, c.bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
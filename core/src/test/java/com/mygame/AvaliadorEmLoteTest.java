@@ -0,0 +1,66 @@
+package com.mygame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * O AvaliadorEmLote tem de dar o mesmo fitness que o Pathfinder, mapa a mapa.
+ */
+class AvaliadorEmLoteTest {
+
+    @Test
+    void populacoesAleatoriasDaoOMesmoFitnessQueOPathfinder() {
+        Random rand = new Random(5);
+        float[] densidades = {0.2f, 0.3f, 0.4f, 0.5f};
+        for (int i = 0; i < 16; i++) {
+            int largura = 7 + rand.nextInt(60);
+            int altura = 7 + rand.nextInt(60);
+            // 100 mapas: um lote cheio e um lote de 36
+            MapaGenetico[] mapas = new MapaGenetico[100];
+            for (int m = 0; m < mapas.length; m++) {
+                mapas[m] = new MapaGenetico(largura, altura);
+                mapas[m].inicializarAleatoriamente(densidades[i % densidades.length], rand);
+            }
+            // (e um mapa só de paredes, que vale 0)
+            mapas[99].inicializarAleatoriamente(1.0f, rand);
+
+            new AvaliadorEmLote(largura, altura).avaliar(mapas);
+
+            for (int m = 0; m < mapas.length; m++) {
+                assertEquals(fitnessDoPathfinder(mapas[m]), mapas[m].fitness,
+                        "População " + i + " (" + largura + "x" + altura + "), mapa " + m);
+            }
+        }
+    }
+
+    @Test
+    void populacaoEvoluidaDaOMesmoFitnessQueOPathfinder() {
+        AlgoritmoGenetico ag = new AlgoritmoGenetico(100, 0.05f, 0.7f, 5, 41, 41, 42L);
+        ag.setAvaliacaoEmLote(true);
+        ag.inicializarPopulacao();
+        AvaliadorEmLote avaliador = new AvaliadorEmLote(41, 41);
+        for (int geracao = 0; geracao <= 60; geracao++) {
+            ag.calcularFitnessPopulacao();
+            if (geracao % 20 == 0) {
+                MapaGenetico[] mapas = ag.copiarMelhores(100).toArray(new MapaGenetico[0]);
+                avaliador.avaliar(mapas);
+                for (int m = 0; m < mapas.length; m++) {
+                    assertEquals(fitnessDoPathfinder(mapas[m]), mapas[m].fitness, "Geração " + geracao + ", mapa " + m);
+                }
+            }
+            ag.evoluirProximaGeracao();
+        }
+    }
+
+    /**
+     * O fitness como o AlgoritmoGenetico o calcula um a um.
+     */
+    private static int fitnessDoPathfinder(MapaGenetico mapa) {
+        Pathfinder professor = new Pathfinder(mapa.paraGrelhaCompacta());
+        professor.encontrarInicioEFimMaisLongos();
+        Caminho caminho = professor.encontrarCaminho();
+        return caminho == null ? 0 : caminho.size();
+    }
+}
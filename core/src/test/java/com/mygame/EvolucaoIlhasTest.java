@@ -0,0 +1,160 @@
+package com.mygame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Testes da evolução em ilhas: o formato dos mapas na rede (ProtocoloGenoma) e
+ * o coordenador com ilhas a correr noutros processos Java, ligadas pelo "loopback".
+ */
+class EvolucaoIlhasTest {
+
+    // (Sem acentos: o processo-ilha escreve com a codificação por defeito do sistema)
+    private static final Pattern RESULTADO_ILHA = Pattern.compile("\\[Ilha (\\d+)\\] Conclu.* Melhor Fitness: (\\d+)");
+
+    @TempDir
+    Path pastaTemporaria;
+
+    @Test
+    void protocoloDevolveOsMesmosMapas() throws IOException {
+        // (21x11 = 231 blocos: o último byte fica meio cheio; 8x1 cabe certo num byte)
+        Random rand = new Random(42);
+        List<MapaGenetico> mapas = new ArrayList<>();
+        for (int[] tamanho : new int[][] {{21, 11}, {8, 1}, {1, 1}, {33, 17}}) {
+            MapaGenetico mapa = new MapaGenetico(tamanho[0], tamanho[1]);
+            mapa.inicializarAleatoriamente(0.4f, rand);
+            mapa.fitness = rand.nextInt(1000);
+            mapas.add(mapa);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream saida = new DataOutputStream(bytes)) {
+            ProtocoloGenoma.escreverLista(saida, mapas);
+        }
+        // Cabeçalho de 8 bytes + 1 bit por bloco (o 21x11 tem de caber em 37 bytes)
+        assertEquals(2 + 37 + 9 + 9 + (8 + (33 * 17 + 7) / 8), bytes.size());
+
+        List<MapaGenetico> lidos = ProtocoloGenoma.lerLista(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(mapas.size(), lidos.size());
+        for (int i = 0; i < mapas.size(); i++) {
+            assertEquals(mapas.get(i).fitness, lidos.get(i).fitness);
+            assertArrayEquals(mapas.get(i).paraStringArray(), lidos.get(i).paraStringArray());
+        }
+    }
+
+    @Test
+    void protocoloRecusaMapasInvalidos() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream saida = new DataOutputStream(bytes)) {
+            saida.writeShort(0);
+            saida.writeShort(11);
+            saida.writeInt(0);
+        }
+        assertThrows(IOException.class, () -> ProtocoloGenoma.ler(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    @Timeout(120)
+    void tresIlhasEmProcessosTrocamMigrantes() throws Exception {
+        int numIlhas = 3;
+        int geracoes = 20;
+        int intervalo = 5;
+        try (CoordenadorIlhas coordenador = CoordenadorIlhas.abrir(0, numIlhas)) {
+            List<Process> processos = new ArrayList<>();
+            try {
+                for (int i = 0; i < numIlhas; i++) {
+                    processos.add(lancarIlha(coordenador.getPorta(), i, pastaTemporaria.resolve("ilha" + i + ".txt"),
+                            "--populacao", "30", "--geracoes", Integer.toString(geracoes),
+                            "--intervaloMigracao", Integer.toString(intervalo), "--migrantes", "2"));
+                }
+                MapaGenetico melhorGlobal = coordenador.aguardarFim(TimeUnit.SECONDS.toMillis(90));
+
+                // Cada ilha trocou migrantes de 'intervalo' em 'intervalo' gerações
+                assertEquals(numIlhas * (geracoes / intervalo), coordenador.getMigracoes());
+
+                // O melhor global é o melhor dos resultados das ilhas
+                int melhorDasIlhas = -1;
+                for (int i = 0; i < numIlhas; i++) {
+                    Process processo = processos.get(i);
+                    assertTrue(processo.waitFor(30, TimeUnit.SECONDS));
+                    String saida = Files.readString(pastaTemporaria.resolve("ilha" + i + ".txt"), StandardCharsets.ISO_8859_1);
+                    assertEquals(0, processo.exitValue(), saida);
+                    Matcher m = RESULTADO_ILHA.matcher(saida);
+                    assertTrue(m.find(), saida);
+                    melhorDasIlhas = Math.max(melhorDasIlhas, Integer.parseInt(m.group(2)));
+                }
+                assertNotNull(melhorGlobal);
+                assertEquals(melhorDasIlhas, melhorGlobal.fitness);
+
+                // E o mapa chegou inteiro: o Pathfinder dá-lhe o mesmo fitness
+                Pathfinder professor = new Pathfinder(melhorGlobal.paraStringArray());
+                professor.encontrarInicioEFimMaisLongos();
+                Caminho caminho = professor.encontrarCaminho();
+                assertEquals(melhorGlobal.fitness, caminho == null ? 0 : caminho.size());
+            } finally {
+                for (Process processo : processos) {
+                    processo.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void ilhaQueSeDesligaAbortaOCoordenador() throws Exception {
+        try (CoordenadorIlhas coordenador = CoordenadorIlhas.abrir(0, 2)) {
+            // Uma "ilha" que começa uma mensagem e desliga-se a meio
+            try (Socket ilha = new Socket("127.0.0.1", coordenador.getPorta())) {
+                ilha.getOutputStream().write(ProtocoloGenoma.MSG_MIGRANTES);
+            }
+            long inicio = System.nanoTime();
+            IOException erro = assertThrows(IOException.class,
+                    () -> coordenador.aguardarFim(TimeUnit.MINUTES.toMillis(5)));
+            assertTrue(erro.getMessage().contains("abortada"), erro.getMessage());
+            assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(10));
+        }
+    }
+
+    /**
+     * Lança um processo-ilha (EvolucaoHeadless --ilha) ligado ao coordenador.
+     * A consola do processo vai para um ficheiro (um "pipe" cheio bloqueava a ilha).
+     */
+    private static Process lancarIlha(int porta, int id, Path consola, String... argumentos) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> comando = new ArrayList<>();
+        comando.add(java);
+        comando.add("-cp");
+        comando.add(System.getProperty("minos.classpath", System.getProperty("java.class.path")));
+        comando.add(EvolucaoHeadless.class.getName());
+        comando.addAll(List.of(argumentos));
+        comando.add("--ilha");
+        comando.add("127.0.0.1:" + porta);
+        comando.add("--id");
+        comando.add(Integer.toString(id));
+        return new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(consola.toFile()).start();
+    }
+}
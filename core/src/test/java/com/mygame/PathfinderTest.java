@@ -0,0 +1,138 @@
+package com.mygame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Testes do Pathfinder sobre a GrelhaCompacta (na memória e num ficheiro mapeado).
+ */
+class PathfinderTest {
+
+    @TempDir
+    Path pastaTemporaria;
+
+    @Test
+    void encontraOCaminhoMaisLongoDeUmLabirintoConhecido() {
+        String[] mapa = {
+            "XXXXXXX",
+            "XOOOOOX",
+            "XXXXXOX",
+            "XOOOOOX",
+            "XOXXXXX",
+            "XOOOOOX",
+            "XXXXXXX",
+        };
+        Pathfinder professor = new Pathfinder(mapa);
+        professor.encontrarInicioEFimMaisLongos();
+        Caminho caminho = professor.encontrarCaminho();
+
+        assertNotNull(caminho);
+        assertEquals(17, caminho.size());
+        assertCaminhoValido(mapa, caminho);
+        // O Início e o Fim são as duas pontas da "serpente"
+        assertEquals(1, professor.getNoInicio().x);
+        assertEquals(1, professor.getNoInicio().z);
+        assertEquals(5, professor.getNoFim().x);
+        assertEquals(5, professor.getNoFim().z);
+        // O A* entre as mesmas pontas dá um caminho do mesmo tamanho
+        assertEquals(17, professor.encontrarCaminho(1, 1, 5, 5).size());
+        assertNull(professor.encontrarCaminho(0, 0, 1, 1));
+        assertNull(professor.encontrarCaminho(-1, 3, 1, 1));
+    }
+
+    @Test
+    void grelhaMapeadaDaOMesmoResultadoQueOMapa() throws IOException {
+        Random rand = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            MapaGenetico mapa = new MapaGenetico(70 + rand.nextInt(60), 10 + rand.nextInt(80));
+            mapa.inicializarAleatoriamente(0.3f, rand);
+            String[] linhas = mapa.paraStringArray();
+
+            Pathfinder naMemoria = new Pathfinder(linhas);
+            naMemoria.encontrarInicioEFimMaisLongos();
+            Caminho esperado = naMemoria.encontrarCaminho();
+
+            Path ficheiro = pastaTemporaria.resolve("mapa" + i + ".grelha");
+            try (GrelhaCompacta grelha = GrelhaCompacta.criarMapeada(ficheiro, mapa.largura, mapa.altura)) {
+                for (int z = 0; z < mapa.altura; z++) {
+                    for (int x = 0; x < mapa.largura; x++) {
+                        if (linhas[z].charAt(x) == 'X') {
+                            grelha.set(x, z, GrelhaCompacta.PAREDE);
+                        }
+                    }
+                }
+            }
+            try (GrelhaCompacta grelha = GrelhaCompacta.abrirMapeada(ficheiro)) {
+                Pathfinder mapeado = new Pathfinder(grelha);
+                mapeado.encontrarInicioEFimMaisLongos();
+                Caminho caminho = mapeado.encontrarCaminho();
+
+                assertEquals(esperado.size(), caminho.size());
+                assertEquals(naMemoria.getNoInicio(), mapeado.getNoInicio());
+                assertEquals(naMemoria.getNoFim(), mapeado.getNoFim());
+                assertCaminhoValido(linhas, caminho);
+            }
+        }
+    }
+
+    @Test
+    void aStarComMarcosALTDaCaminhosDoMesmoTamanho() {
+        Random rand = new Random(11);
+        for (int i = 0; i < 30; i++) {
+            MapaGenetico mapa = new MapaGenetico(15 + rand.nextInt(80), 15 + rand.nextInt(80));
+            mapa.inicializarAleatoriamente(0.2f + 0.05f * (i % 5), rand);
+            new ReparadorConectividade(mapa.largura, mapa.altura, 4).reparar(mapa);
+            String[] linhas = mapa.paraStringArray();
+
+            Pathfinder manhattan = new Pathfinder(linhas);
+            Pathfinder alt = new Pathfinder(linhas);
+            alt.setMarcos(MarcosALT.calcular(linhas, 8));
+            // Várias consultas entre blocos livres ao acaso (incluindo as pontas mais longas)
+            manhattan.encontrarInicioEFimMaisLongos();
+            List<int[]> livres = new ArrayList<>();
+            for (int z = 0; z < mapa.altura; z++) {
+                for (int x = 0; x < mapa.largura; x++) {
+                    if (linhas[z].charAt(x) != 'X') {
+                        livres.add(new int[] {x, z});
+                    }
+                }
+            }
+            Node inicio = manhattan.getNoInicio();
+            Node fim = manhattan.getNoFim();
+            for (int q = 0; q < 10; q++) {
+                Caminho esperado = manhattan.encontrarCaminho(inicio.x, inicio.z, fim.x, fim.z);
+                Caminho caminho = alt.encontrarCaminho(inicio.x, inicio.z, fim.x, fim.z);
+                assertNotNull(caminho, "Mapa " + i + ", consulta " + q);
+                assertEquals(esperado.size(), caminho.size(), "Mapa " + i + ", consulta " + q);
+                assertCaminhoValido(linhas, caminho);
+                int[] a = livres.get(rand.nextInt(livres.size()));
+                int[] b = livres.get(rand.nextInt(livres.size()));
+                inicio = new Node(a[0], a[1], false);
+                fim = new Node(b[0], b[1], false);
+            }
+        }
+    }
+
+    /**
+     * Cada passo é um bloco livre, vizinho do anterior.
+     */
+    private static void assertCaminhoValido(String[] mapa, Caminho caminho) {
+        for (int i = 0; i < caminho.size(); i++) {
+            assertTrue(mapa[caminho.getZ(i)].charAt(caminho.getX(i)) != 'X', "Parede no passo " + i);
+            if (i > 0) {
+                int salto = Math.abs(caminho.getX(i) - caminho.getX(i - 1)) + Math.abs(caminho.getZ(i) - caminho.getZ(i - 1));
+                assertEquals(1, salto, "Salto no passo " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.mygame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes do ReparadorConectividade sobre mapas aleatórios (com semente fixa).
+ */
+class ReparadorConectividadeTest {
+
+    @Test
+    void deixaUmaSoComponenteSemTocarNasBordas() {
+        Random rand = new Random(7);
+        float[] densidades = {0.2f, 0.35f, 0.5f, 0.6f};
+        int[] tamanhosMinimos = {1, 4, 20};
+        for (int i = 0; i < 200; i++) {
+            int largura = 5 + rand.nextInt(60);
+            int altura = 5 + rand.nextInt(60);
+            int tamanhoMinimo = tamanhosMinimos[i % tamanhosMinimos.length];
+            MapaGenetico mapa = new MapaGenetico(largura, altura);
+            mapa.inicializarAleatoriamente(densidades[i % densidades.length], rand);
+            MapaGenetico antes = mapa.copiar();
+            String descricao = "Mapa " + i + " (" + largura + "x" + altura + ", mínimo " + tamanhoMinimo + ")";
+
+            int mudancas = new ReparadorConectividade(largura, altura, tamanhoMinimo).reparar(mapa);
+
+            if (contarComponentes(antes) > 0) {
+                assertEquals(1, contarComponentes(mapa), descricao);
+            }
+            assertEquals(contarDiferencas(antes, mapa), mudancas, descricao);
+            for (int z = 0; z < altura; z++) {
+                for (int x = 0; x < largura; x++) {
+                    if (x == 0 || z == 0 || x == largura - 1 || z == altura - 1) {
+                        assertEquals(antes.grelha[z][x], mapa.grelha[z][x], descricao + ", borda (" + x + "," + z + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void naoMudaUmMapaJaLigado() {
+        String[] linhas = {
+            "XXXXXXX",
+            "XOOOOOX",
+            "XOXXXOX",
+            "XOOOXOX",
+            "XXXXXXX",
+        };
+        MapaGenetico mapa = new MapaGenetico(7, 5);
+        for (int z = 0; z < linhas.length; z++) {
+            mapa.grelha[z] = linhas[z].toCharArray();
+        }
+
+        assertEquals(0, new ReparadorConectividade(7, 5, 4).reparar(mapa));
+        for (int z = 0; z < linhas.length; z++) {
+            assertEquals(linhas[z], new String(mapa.grelha[z]));
+        }
+    }
+
+    /**
+     * Quantas componentes de blocos livres (ligados na horizontal/vertical) tem o mapa.
+     */
+    private static int contarComponentes(MapaGenetico mapa) {
+        boolean[][] visto = new boolean[mapa.altura][mapa.largura];
+        ArrayDeque<int[]> fila = new ArrayDeque<>();
+        int componentes = 0;
+        for (int z = 0; z < mapa.altura; z++) {
+            for (int x = 0; x < mapa.largura; x++) {
+                if (mapa.grelha[z][x] == 'X' || visto[z][x]) {
+                    continue;
+                }
+                componentes++;
+                visto[z][x] = true;
+                fila.add(new int[] {x, z});
+                while (!fila.isEmpty()) {
+                    int[] atual = fila.poll();
+                    int[][] vizinhos = {
+                        {atual[0] + 1, atual[1]}, {atual[0] - 1, atual[1]},
+                        {atual[0], atual[1] + 1}, {atual[0], atual[1] - 1},
+                    };
+                    for (int[] v : vizinhos) {
+                        if (v[0] >= 0 && v[1] >= 0 && v[0] < mapa.largura && v[1] < mapa.altura
+                                && mapa.grelha[v[1]][v[0]] != 'X' && !visto[v[1]][v[0]]) {
+                            visto[v[1]][v[0]] = true;
+                            fila.add(v);
+                        }
+                    }
+                }
+            }
+        }
+        return componentes;
+    }
+
+    private static int contarDiferencas(MapaGenetico a, MapaGenetico b) {
+        int diferencas = 0;
+        for (int z = 0; z < a.altura; z++) {
+            for (int x = 0; x < a.largura; x++) {
+                if (a.grelha[z][x] != b.grelha[z][x]) {
+                    diferencas++;
+                }
+            }
+        }
+        return diferencas;
+    }
+}
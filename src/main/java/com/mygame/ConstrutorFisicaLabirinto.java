@@ -0,0 +1,147 @@
+package com.mygame;
+
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.CompoundCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * O "Engenheiro" do labirinto: constrói a parte FÍSICA (colisões).
+ * Em vez de um corpo por bloco, junta as paredes nos MENOS retângulos possíveis
+ * ("greedy meshing") e põe-nos todos, mais UMA laje de chão, dentro de uma
+ * única forma composta estática. O Bullet passa a ter 1 corpo por labirinto
+ * (ou por fatia), em vez de 2 por bloco.
+ */
+public class ConstrutorFisicaLabirinto {
+
+    // O chão é uma "laje" de 0.2f de altura, centrada em Y=0
+    private static final float MEIA_ESPESSURA_CHAO = 0.1f;
+
+    private final String[] mapa;
+    private final float tamanhoBloco;
+    private final float alturaParede;
+
+    /**
+     * @param mapa O mapa 2D do labirinto ('X' = parede).
+     * @param tamanhoBloco O lado (X e Z) de cada bloco no mundo 3D.
+     * @param alturaParede A altura das paredes.
+     */
+    public ConstrutorFisicaLabirinto(String[] mapa, float tamanhoBloco, float alturaParede) {
+        this.mapa = mapa;
+        this.tamanhoBloco = tamanhoBloco;
+        this.alturaParede = alturaParede;
+    }
+
+    /**
+     * Constrói o corpo físico do labirinto inteiro.
+     * @return Um corpo estático (massa 0), ainda fora do mundo da física.
+     */
+    public PhysicsRigidBody construirTudo() {
+        return construir(0, 0, mapa[0].length(), mapa.length);
+    }
+
+    /**
+     * Constrói o corpo físico de uma "fatia" retangular do labirinto.
+     * @param x0 Primeira coluna (inclusive).
+     * @param z0 Primeira linha (inclusive).
+     * @param x1 Última coluna (exclusive).
+     * @param z1 Última linha (exclusive).
+     * @return Um corpo estático (massa 0), ainda fora do mundo da física.
+     */
+    public PhysicsRigidBody construir(int x0, int z0, int x1, int z1) {
+        CompoundCollisionShape forma = new CompoundCollisionShape();
+        float meioBloco = tamanhoBloco / 2;
+
+        // 1. O chão: UMA caixa por baixo da fatia toda
+        forma.addChildShape(
+                new BoxCollisionShape(new Vector3f((x1 - x0) * meioBloco, MEIA_ESPESSURA_CHAO, (z1 - z0) * meioBloco)),
+                new Vector3f((x0 + x1 - 1) * meioBloco, 0, (z0 + z1 - 1) * meioBloco));
+
+        // 2. As paredes: uma caixa por retângulo (não por bloco!)
+        float meiaAltura = alturaParede / 2;
+        for (int[] ret : juntarParedes(x0, z0, x1, z1)) {
+            int rx0 = ret[0], rz0 = ret[1], rx1 = ret[2], rz1 = ret[3];
+            forma.addChildShape(
+                    new BoxCollisionShape(new Vector3f((rx1 - rx0) * meioBloco, meiaAltura, (rz1 - rz0) * meioBloco)),
+                    new Vector3f((rx0 + rx1 - 1) * meioBloco, meiaAltura, (rz0 + rz1 - 1) * meioBloco));
+        }
+
+        return new PhysicsRigidBody(forma, 0);
+    }
+
+    /**
+     * "Greedy meshing": cobre todas as paredes da fatia com retângulos que não
+     * se sobrepõem. Percorre o mapa linha a linha; em cada parede ainda não coberta,
+     * estica o retângulo para a direita o mais possível, e depois para baixo
+     * enquanto a linha inteira de baixo também for parede.
+     * @return Lista de retângulos {x0, z0, x1, z1} (x1 e z1 exclusive).
+     */
+    List<int[]> juntarParedes(int x0, int z0, int x1, int z1) {
+        List<int[]> retangulos = new ArrayList<>();
+        int largura = x1 - x0;
+        boolean[] coberto = new boolean[(z1 - z0) * largura];
+
+        for (int z = z0; z < z1; z++) {
+            for (int x = x0; x < x1; x++) {
+                if (!isParede(x, z) || coberto[(z - z0) * largura + (x - x0)]) {
+                    continue;
+                }
+
+                // 1. Estica para a direita (+X)
+                int fimX = x + 1;
+                while (fimX < x1 && isParede(fimX, z) && !coberto[(z - z0) * largura + (fimX - x0)]) {
+                    fimX++;
+                }
+
+                // 2. Estica para baixo (+Z), enquanto a linha toda servir
+                int fimZ = z + 1;
+                while (fimZ < z1 && linhaLivre(fimZ, x, fimX, z0, x0, largura, coberto)) {
+                    fimZ++;
+                }
+
+                // 3. Marca os blocos como cobertos
+                for (int zz = z; zz < fimZ; zz++) {
+                    for (int xx = x; xx < fimX; xx++) {
+                        coberto[(zz - z0) * largura + (xx - x0)] = true;
+                    }
+                }
+                retangulos.add(new int[]{x, z, fimX, fimZ});
+            }
+        }
+        return retangulos;
+    }
+
+    /**
+     * "true" se os blocos [xa, xb) da linha z forem todos paredes ainda não cobertas.
+     */
+    private boolean linhaLivre(int z, int xa, int xb, int z0, int x0, int largura, boolean[] coberto) {
+        for (int x = xa; x < xb; x++) {
+            if (!isParede(x, z) || coberto[(z - z0) * largura + (x - x0)]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isParede(int x, int z) {
+        return mapa[z].charAt(x) == 'X';
+    }
+
+    /**
+     * Os limites do mundo para o "broadphase" do Bullet (AXIS_SWEEP_3),
+     * com uma margem à volta do labirinto.
+     * @param margem Espaço extra (em unidades do mundo) à volta do labirinto.
+     * @return {mínimo, máximo}.
+     */
+    public Vector3f[] calcularLimitesMundo(float margem) {
+        float meioBloco = tamanhoBloco / 2;
+        Vector3f minimo = new Vector3f(-meioBloco - margem, -margem, -meioBloco - margem);
+        Vector3f maximo = new Vector3f(
+                mapa[0].length() * tamanhoBloco - meioBloco + margem,
+                alturaParede + margem,
+                mapa.length * tamanhoBloco - meioBloco + margem);
+        return new Vector3f[]{minimo, maximo};
+    }
+}
@@ -0,0 +1,341 @@
+package com.mygame;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.util.BufferUtils;
+import java.util.Arrays;
+
+/**
+ * O "Pedreiro" do labirinto: transforma o mapa (String[]) em malhas 3D.
+ * Em vez de uma Geometry (e um Material) por bloco, junta TODOS os blocos
+ * do mesmo tipo numa única malha: uma para as paredes, uma para o chão,
+ * e uma para cada tipo de destaque do caminho (caminho, spawn, fim).
+ * Assim, o número de "draw calls" fica quase constante, seja qual for
+ * o tamanho do labirinto.
+ */
+public class ConstrutorMalhaLabirinto {
+
+    // Tipos de "destaque" que um bloco de chão pode ter
+    static final byte SEM_DESTAQUE = 0;
+    static final byte DESTAQUE_CAMINHO = 1;
+    static final byte DESTAQUE_SPAWN = 2;
+    static final byte DESTAQUE_FIM = 3;
+
+    // O chão é uma "laje" de 0.2f de altura centrada em Y=0 (o topo está em 0.1f).
+    // Os destaques ficam um pouco acima, para não "lutarem" com o chão (z-fighting).
+    private static final float TOPO_CHAO = 0.1f;
+    private static final float TOPO_DESTAQUE = 0.11f;
+
+    private final String[] mapa;
+    private final int largura;
+    private final int altura;
+    private final float tamanhoBloco;
+    private final float alturaParede;
+
+    // O destaque de cada bloco: [z][x]
+    private final byte[][] destaques;
+
+    // Os materiais são criados UMA vez e partilhados por todas as malhas
+    private final Material matParede;
+    private final Material matChao;
+    private final Material matCaminho;
+    private final Material matSpawn;
+    private final Material matFim;
+
+    /**
+     * Construtor: prepara os materiais partilhados.
+     * @param assetManager O assetManager do jogo (para carregar o Unshaded.j3md).
+     * @param mapa O mapa 2D do labirinto ('X' = parede).
+     * @param tamanhoBloco O lado (X e Z) de cada bloco no mundo 3D.
+     * @param alturaParede A altura das paredes.
+     */
+    public ConstrutorMalhaLabirinto(AssetManager assetManager, String[] mapa, float tamanhoBloco, float alturaParede) {
+        this.mapa = mapa;
+        this.altura = mapa.length;
+        this.largura = mapa[0].length();
+        this.tamanhoBloco = tamanhoBloco;
+        this.alturaParede = alturaParede;
+        this.destaques = new byte[altura][largura];
+
+        this.matParede = criarMaterial(assetManager, ColorRGBA.Red);
+        this.matChao = criarMaterial(assetManager, ColorRGBA.Green);
+        this.matCaminho = criarMaterial(assetManager, ColorRGBA.Blue);
+        this.matSpawn = criarMaterial(assetManager, ColorRGBA.Yellow);
+        this.matFim = criarMaterial(assetManager, ColorRGBA.Cyan);
+    }
+
+    /**
+     * Construtor para um labirinto NOVO do mesmo "estilo": reutiliza os tamanhos
+     * e os materiais de outro construtor (não cria materiais novos).
+     * @param base O construtor do labirinto anterior.
+     * @param mapa O mapa 2D do labirinto novo.
+     */
+    public ConstrutorMalhaLabirinto(ConstrutorMalhaLabirinto base, String[] mapa) {
+        this.mapa = mapa;
+        this.altura = mapa.length;
+        this.largura = mapa[0].length();
+        this.tamanhoBloco = base.tamanhoBloco;
+        this.alturaParede = base.alturaParede;
+        this.destaques = new byte[altura][largura];
+
+        this.matParede = base.matParede;
+        this.matChao = base.matChao;
+        this.matCaminho = base.matCaminho;
+        this.matSpawn = base.matSpawn;
+        this.matFim = base.matFim;
+    }
+
+    private static Material criarMaterial(AssetManager assetManager, ColorRGBA cor) {
+        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
+        mat.setColor("Color", cor);
+        return mat;
+    }
+
+    /**
+     * Marca o caminho da solução para ser "pintado" no chão
+     * (Início a Amarelo, Fim a Ciano, o resto a Azul).
+     * Apaga as marcas anteriores.
+     * @param caminho O caminho calculado pelo Pathfinder.
+     * @param noInicio O Nó de Início (S).
+     * @param noFim O Nó de Fim (F).
+     */
+    public void marcarCaminho(Caminho caminho, Node noInicio, Node noFim) {
+        for (byte[] linha : destaques) {
+            Arrays.fill(linha, SEM_DESTAQUE);
+        }
+        for (int i = 0; i < caminho.size(); i++) {
+            destaques[caminho.getZ(i)][caminho.getX(i)] = DESTAQUE_CAMINHO;
+        }
+        destaques[noInicio.z][noInicio.x] = DESTAQUE_SPAWN;
+        destaques[noFim.z][noFim.x] = DESTAQUE_FIM;
+    }
+
+    /**
+     * Constrói o labirinto inteiro.
+     * @return Um nó da cena com (no máximo) 5 Geometries.
+     */
+    public com.jme3.scene.Node construirTudo() {
+        return construir(0, 0, largura, altura);
+    }
+
+    /**
+     * Constrói só uma "fatia" retangular do labirinto (útil para dividir
+     * mapas grandes em pedaços).
+     * @param x0 Primeira coluna (inclusive).
+     * @param z0 Primeira linha (inclusive).
+     * @param x1 Última coluna (exclusive).
+     * @param z1 Última linha (exclusive).
+     * @return Um nó da cena com uma Geometry por material (sem as vazias).
+     */
+    public com.jme3.scene.Node construir(int x0, int z0, int x1, int z1) {
+        MalhaEmConstrucao paredes = new MalhaEmConstrucao();
+        MalhaEmConstrucao caminho = new MalhaEmConstrucao();
+        MalhaEmConstrucao spawn = new MalhaEmConstrucao();
+        MalhaEmConstrucao fim = new MalhaEmConstrucao();
+
+        float meioBloco = tamanhoBloco / 2;
+        float meiaAltura = alturaParede / 2;
+
+        for (int z = z0; z < z1; z++) {
+            String linha = mapa[z];
+            for (int x = x0; x < x1; x++) {
+                float posX = x * tamanhoBloco;
+                float posZ = z * tamanhoBloco;
+
+                if (linha.charAt(x) == 'X') {
+                    adicionarParede(paredes, x, z, posX, posZ, meioBloco, meiaAltura);
+                    continue;
+                }
+
+                // Destaques do caminho: só o "tampo" do bloco
+                MalhaEmConstrucao destino = switch (destaques[z][x]) {
+                    case DESTAQUE_CAMINHO -> caminho;
+                    case DESTAQUE_SPAWN -> spawn;
+                    case DESTAQUE_FIM -> fim;
+                    default -> null;
+                };
+                if (destino != null) {
+                    destino.adicionarQuad(posX, TOPO_DESTAQUE, posZ,
+                            0, 0, meioBloco,
+                            meioBloco, 0, 0);
+                }
+            }
+        }
+
+        // O chão desta fatia é UM só retângulo
+        MalhaEmConstrucao chao = new MalhaEmConstrucao();
+        float meiaLarguraChao = (x1 - x0) * meioBloco;
+        float meiaProfundidadeChao = (z1 - z0) * meioBloco;
+        chao.adicionarQuad((x0 + x1 - 1) * meioBloco, TOPO_CHAO, (z0 + z1 - 1) * meioBloco,
+                0, 0, meiaProfundidadeChao,
+                meiaLarguraChao, 0, 0);
+
+        com.jme3.scene.Node no = new com.jme3.scene.Node("Labirinto_" + x0 + "_" + z0);
+        adicionarGeometria(no, "Paredes", paredes, matParede);
+        adicionarGeometria(no, "Chao", chao, matChao);
+        adicionarGeometria(no, "Caminho", caminho, matCaminho);
+        adicionarGeometria(no, "Spawn", spawn, matSpawn);
+        adicionarGeometria(no, "Fim", fim, matFim);
+        return no;
+    }
+
+    /**
+     * Adiciona as faces visíveis de UMA parede: o topo, e só os lados
+     * que não estão "encostados" a outra parede (esses nunca se veem).
+     */
+    private void adicionarParede(MalhaEmConstrucao malha, int x, int z, float posX, float posZ, float meioBloco, float meiaAltura) {
+        float centroY = meiaAltura;
+
+        // Topo (+Y)
+        malha.adicionarQuad(posX, alturaParede, posZ,
+                0, 0, meioBloco,
+                meioBloco, 0, 0);
+        // Leste (+X)
+        if (!isParede(x + 1, z)) {
+            malha.adicionarQuad(posX + meioBloco, centroY, posZ,
+                    0, meiaAltura, 0,
+                    0, 0, meioBloco);
+        }
+        // Oeste (-X)
+        if (!isParede(x - 1, z)) {
+            malha.adicionarQuad(posX - meioBloco, centroY, posZ,
+                    0, 0, meioBloco,
+                    0, meiaAltura, 0);
+        }
+        // Sul (+Z)
+        if (!isParede(x, z + 1)) {
+            malha.adicionarQuad(posX, centroY, posZ + meioBloco,
+                    meioBloco, 0, 0,
+                    0, meiaAltura, 0);
+        }
+        // Norte (-Z)
+        if (!isParede(x, z - 1)) {
+            malha.adicionarQuad(posX, centroY, posZ - meioBloco,
+                    0, meiaAltura, 0,
+                    meioBloco, 0, 0);
+        }
+    }
+
+    /**
+     * "true" se (x, z) for uma parede. Fora do mapa conta como "não parede",
+     * para que as faces exteriores das bordas continuem visíveis.
+     */
+    private boolean isParede(int x, int z) {
+        if (x < 0 || x >= largura || z < 0 || z >= altura) {
+            return false;
+        }
+        return mapa[z].charAt(x) == 'X';
+    }
+
+    /**
+     * O mapa que este construtor usa.
+     * @return O mapa 2D (não alterar).
+     */
+    public String[] getMapa() {
+        return mapa;
+    }
+
+    /**
+     * O tipo de destaque de um bloco (0 = nenhum). Usado para comparar
+     * duas versões do labirinto (ver DiffLabirinto).
+     */
+    byte getDestaque(int x, int z) {
+        return destaques[z][x];
+    }
+
+    private static void adicionarGeometria(com.jme3.scene.Node no, String nome, MalhaEmConstrucao malha, Material material) {
+        if (malha.isVazia()) {
+            return;
+        }
+        Geometry geo = new Geometry(nome, malha.paraMesh());
+        geo.setMaterial(material);
+        no.attachChild(geo);
+    }
+
+    /**
+     * "Ajudante" interno: junta quads (retângulos) numa lista de vértices e índices
+     * que cresce conforme precisa, e no fim converte tudo numa Mesh do jME.
+     */
+    private static class MalhaEmConstrucao {
+        private float[] posicoes = new float[4 * 3 * 64];
+        private float[] normais = new float[4 * 3 * 64];
+        private int[] indices = new int[6 * 64];
+        private int numVertices = 0;
+        private int numIndices = 0;
+
+        boolean isVazia() {
+            return numVertices == 0;
+        }
+
+        /**
+         * Adiciona um quad com centro C e "semi-eixos" U e V.
+         * Os cantos são C-U-V, C+U-V, C+U+V, C-U+V, e a face "olha" na direção U x V
+         * (ordem anti-horária, que é a face da frente para o jME).
+         */
+        void adicionarQuad(float cx, float cy, float cz,
+                           float ux, float uy, float uz,
+                           float vx, float vy, float vz) {
+            garantirCapacidade();
+
+            // Normal = U x V (normalizada)
+            float nx = uy * vz - uz * vy;
+            float ny = uz * vx - ux * vz;
+            float nz = ux * vy - uy * vx;
+            float comprimento = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            nx /= comprimento;
+            ny /= comprimento;
+            nz /= comprimento;
+
+            int primeiro = numVertices;
+            adicionarVertice(cx - ux - vx, cy - uy - vy, cz - uz - vz, nx, ny, nz);
+            adicionarVertice(cx + ux - vx, cy + uy - vy, cz + uz - vz, nx, ny, nz);
+            adicionarVertice(cx + ux + vx, cy + uy + vy, cz + uz + vz, nx, ny, nz);
+            adicionarVertice(cx - ux + vx, cy - uy + vy, cz - uz + vz, nx, ny, nz);
+
+            indices[numIndices++] = primeiro;
+            indices[numIndices++] = primeiro + 1;
+            indices[numIndices++] = primeiro + 2;
+            indices[numIndices++] = primeiro;
+            indices[numIndices++] = primeiro + 2;
+            indices[numIndices++] = primeiro + 3;
+        }
+
+        private void adicionarVertice(float x, float y, float z, float nx, float ny, float nz) {
+            int i = numVertices * 3;
+            posicoes[i] = x;
+            posicoes[i + 1] = y;
+            posicoes[i + 2] = z;
+            normais[i] = nx;
+            normais[i + 1] = ny;
+            normais[i + 2] = nz;
+            numVertices++;
+        }
+
+        private void garantirCapacidade() {
+            if ((numVertices + 4) * 3 > posicoes.length) {
+                posicoes = Arrays.copyOf(posicoes, posicoes.length * 2);
+                normais = Arrays.copyOf(normais, normais.length * 2);
+            }
+            if (numIndices + 6 > indices.length) {
+                indices = Arrays.copyOf(indices, indices.length * 2);
+            }
+        }
+
+        Mesh paraMesh() {
+            Mesh mesh = new Mesh();
+            mesh.setBuffer(VertexBuffer.Type.Position, 3,
+                    BufferUtils.createFloatBuffer(Arrays.copyOf(posicoes, numVertices * 3)));
+            mesh.setBuffer(VertexBuffer.Type.Normal, 3,
+                    BufferUtils.createFloatBuffer(Arrays.copyOf(normais, numVertices * 3)));
+            mesh.setBuffer(VertexBuffer.Type.Index, 3,
+                    BufferUtils.createIntBuffer(Arrays.copyOf(indices, numIndices)));
+            mesh.updateBound();
+            mesh.setStatic();
+            return mesh;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mygame;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * O "Detetive das Diferenças": compara duas versões do mesmo labirinto
+ * (o mapa e o caminho pintado) e diz que chunks têm de ser reconstruídos.
+ * Assim, ao trocar de nível, só as partes que mudaram são refeitas.
+ */
+public final class DiffLabirinto {
+
+    private DiffLabirinto() {
+    }
+
+    /**
+     * Encontra os chunks afetados pela troca de um labirinto por outro
+     * do MESMO tamanho.
+     * Um bloco "mudou" se passou de parede a caminho (ou vice-versa) ou se o
+     * destaque (caminho/spawn/fim) mudou. Se um bloco na fronteira de um chunk
+     * mudou, o chunk vizinho também fica "sujo" (as faces das paredes dele
+     * dependem deste bloco).
+     * @param antigo O construtor do labirinto atual.
+     * @param novo O construtor do labirinto novo.
+     * @param tamanhoChunk O lado de cada chunk (em blocos).
+     * @return As chaves (ver GestorChunks.chave) dos chunks a reconstruir.
+     */
+    public static Set<Long> chunksAlterados(ConstrutorMalhaLabirinto antigo, ConstrutorMalhaLabirinto novo, int tamanhoChunk) {
+        String[] mapaAntigo = antigo.getMapa();
+        String[] mapaNovo = novo.getMapa();
+        if (mapaAntigo.length != mapaNovo.length || mapaAntigo[0].length() != mapaNovo[0].length()) {
+            throw new IllegalArgumentException("Os dois labirintos têm de ter o mesmo tamanho");
+        }
+
+        int altura = mapaNovo.length;
+        int largura = mapaNovo[0].length();
+        Set<Long> sujos = new LinkedHashSet<>();
+
+        for (int z = 0; z < altura; z++) {
+            String linhaAntiga = mapaAntigo[z];
+            String linhaNova = mapaNovo[z];
+            for (int x = 0; x < largura; x++) {
+                boolean mudou = linhaAntiga.charAt(x) != linhaNova.charAt(x)
+                        || antigo.getDestaque(x, z) != novo.getDestaque(x, z);
+                if (!mudou) {
+                    continue;
+                }
+                int cx = x / tamanhoChunk;
+                int cz = z / tamanhoChunk;
+                sujos.add(GestorChunks.chave(cx, cz));
+
+                // Fronteiras: o vizinho também precisa de refazer as faces das paredes
+                int dentroX = x % tamanhoChunk;
+                int dentroZ = z % tamanhoChunk;
+                if (dentroX == 0 && cx > 0) {
+                    sujos.add(GestorChunks.chave(cx - 1, cz));
+                }
+                if (dentroX == tamanhoChunk - 1 && x + 1 < largura) {
+                    sujos.add(GestorChunks.chave(cx + 1, cz));
+                }
+                if (dentroZ == 0 && cz > 0) {
+                    sujos.add(GestorChunks.chave(cx, cz - 1));
+                }
+                if (dentroZ == tamanhoChunk - 1 && z + 1 < altura) {
+                    sujos.add(GestorChunks.chave(cx, cz + 1));
+                }
+            }
+        }
+        return sujos;
+    }
+}
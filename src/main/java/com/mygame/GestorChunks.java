@@ -0,0 +1,533 @@
+package com.mygame;
+
+import com.jme3.app.Application;
+import com.jme3.app.state.BaseAppState;
+import com.jme3.bullet.BulletAppState;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * O "Gestor de Pedaços" do mundo: divide o labirinto em "chunks" quadrados
+ * (por exemplo 16x16 blocos) e só mantém na cena (e no mundo da física)
+ * os que estão perto do jogador.
+ *
+ * Os chunks são construídos em threads de trabalho (malhas + colisões),
+ * e só o "colar" na cena acontece na thread do jogo (no update).
+ * Os chunks que ficam longe saem da cena e vão para uma "piscina" (pool),
+ * para que voltar atrás não obrigue a construí-los de novo.
+ *
+ * O labirinto pode ser trocado "a quente" (aplicarDiff): só os chunks que
+ * mudaram são reconstruídos (nas threads de trabalho), e a troca na cena é
+ * espalhada por vários frames, com um orçamento de tempo por frame.
+ *
+ * Com um mapa de visibilidade (VisibilidadeLabirinto) e a oclusão ligada, os
+ * chunks que não se podem ver do bloco onde a câmara está ficam escondidos
+ * (continuam no mundo da física, só não são desenhados).
+ */
+public class GestorChunks extends BaseAppState {
+
+    private static final Logger LOG = Logger.getLogger(GestorChunks.class.getName());
+
+    // Quantos chunks "desligados" guardamos para reutilizar
+    private static final int TAMANHO_POOL = 64;
+
+    // Orçamento por frame para "colar" chunks na cena (e no mundo da física)
+    private static final long ORCAMENTO_FRAME_NANOS = 2_000_000L; // 2 ms
+
+    // Trocados por aplicarDiff (lidos pelas threads de trabalho)
+    private volatile ConstrutorMalhaLabirinto construtorMalha;
+    private volatile ConstrutorFisicaLabirinto construtorFisica;
+    private final int larguraMapa;
+    private final int alturaMapa;
+    private final float tamanhoBloco;
+    private final int tamanhoChunk;
+    private final int raioChunks;
+    // (O mundo da física só existe depois de o BulletAppState ser ligado,
+    // por isso guardamos o "state" e pedimos-lhe o mundo quando é preciso)
+    private final BulletAppState estadoFisica;
+    private final com.jme3.scene.Node raiz;
+
+    // Os chunks que estão na cena agora
+    private final Map<Long, Chunk> ativos = new HashMap<>();
+    // Os chunks que estão a ser construídos nas threads de trabalho
+    private final Map<Long, Future<Chunk>> emConstrucao = new HashMap<>();
+    // Os chunks prontos mas fora da cena (LRU: o mais antigo sai primeiro)
+    private final LinkedHashMap<Long, Chunk> pool = new LinkedHashMap<>(16, 0.75f, true);
+    // Chunks construídos por prepararAoRedor (noutra thread) à espera de ir para a pool
+    private final ConcurrentLinkedQueue<Chunk> preparados = new ConcurrentLinkedQueue<>();
+    // Chunks ativos que mudaram (aplicarDiff) e esperam ser reconstruídos
+    private final LinkedHashSet<Long> filaReconstrucao = new LinkedHashSet<>();
+    // Reconstruções de chunks ativos a correr nas threads de trabalho
+    private final Map<Long, Future<Chunk>> reconstrucoes = new HashMap<>();
+
+    private ExecutorService trabalhadores;
+
+    // O chunk onde o jogador estava no último update (para só recalcular quando muda)
+    private int ultimoChunkX = Integer.MIN_VALUE;
+    private int ultimoChunkZ = Integer.MIN_VALUE;
+
+    // Oclusão: o mapa de visibilidade (null = desenha tudo) e o bloco da câmara
+    private VisibilidadeLabirinto visibilidade;
+    private boolean oclusaoAtiva = false;
+    private int blocoOclusaoX = Integer.MIN_VALUE;
+    private int blocoOclusaoZ = Integer.MIN_VALUE;
+
+    /**
+     * @param construtorMalha O construtor das malhas (visual).
+     * @param construtorFisica O construtor das colisões.
+     * @param larguraMapa A largura do mapa (em blocos).
+     * @param alturaMapa A altura do mapa (em blocos).
+     * @param tamanhoBloco O lado de cada bloco no mundo 3D.
+     * @param tamanhoChunk O lado de cada chunk (em blocos).
+     * @param raioChunks Quantos chunks à volta do jogador ficam carregados.
+     * @param estadoFisica O "state" da física (pode ainda não estar ligado).
+     * @param raiz O nó da cena onde os chunks são "pendurados".
+     */
+    public GestorChunks(ConstrutorMalhaLabirinto construtorMalha, ConstrutorFisicaLabirinto construtorFisica,
+                        int larguraMapa, int alturaMapa, float tamanhoBloco, int tamanhoChunk, int raioChunks,
+                        BulletAppState estadoFisica, com.jme3.scene.Node raiz) {
+        this.construtorMalha = construtorMalha;
+        this.construtorFisica = construtorFisica;
+        this.larguraMapa = larguraMapa;
+        this.alturaMapa = alturaMapa;
+        this.tamanhoBloco = tamanhoBloco;
+        this.tamanhoChunk = tamanhoChunk;
+        this.raioChunks = raioChunks;
+        this.estadoFisica = estadoFisica;
+        this.raiz = raiz;
+    }
+
+    @Override
+    protected void initialize(Application app) {
+        int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        trabalhadores = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(r, "Minos-Chunks");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    protected void cleanup(Application app) {
+        trabalhadores.shutdownNow();
+        for (Chunk chunk : ativos.values()) {
+            desligar(chunk);
+        }
+        ativos.clear();
+        emConstrucao.clear();
+        reconstrucoes.clear();
+        filaReconstrucao.clear();
+        pool.clear();
+    }
+
+    @Override
+    protected void onEnable() {
+        // Força o recálculo no próximo update
+        ultimoChunkX = Integer.MIN_VALUE;
+    }
+
+    @Override
+    protected void onDisable() {
+    }
+
+    /**
+     * Constrói os chunks à volta de uma posição EM PARALELO (malhas e colisões),
+     * sem os ligar à cena. Pode (e deve) ser chamado fora da thread do jogo, antes
+     * de este gestor ser ligado: depois, carregarAoRedor só tem de os "colar".
+     * Bloqueia até todos estarem prontos.
+     * @param posicao A posição no mundo 3D.
+     * @param executor As threads onde construir (por exemplo, o ForkJoinPool comum).
+     */
+    public void prepararAoRedor(Vector3f posicao, Executor executor) {
+        int centroX = paraChunk(posicao.x);
+        int centroZ = paraChunk(posicao.z);
+        List<CompletableFuture<Chunk>> construcoes = new ArrayList<>();
+        for (int cz = centroZ - raioChunks; cz <= centroZ + raioChunks; cz++) {
+            for (int cx = centroX - raioChunks; cx <= centroX + raioChunks; cx++) {
+                if (existe(cx, cz)) {
+                    final int fcx = cx, fcz = cz;
+                    construcoes.add(CompletableFuture.supplyAsync(() -> construirChunk(fcx, fcz), executor));
+                }
+            }
+        }
+        for (CompletableFuture<Chunk> construcao : construcoes) {
+            preparados.add(construcao.join());
+        }
+    }
+
+    /**
+     * Liga JÁ (na thread atual) os chunks à volta de uma posição.
+     * Os que foram preparados (prepararAoRedor) só são "colados"; os outros são
+     * construídos aqui. Usa-se no arranque, para o jogador não "cair" antes do chão existir.
+     * @param posicao A posição no mundo 3D.
+     */
+    public void carregarAoRedor(Vector3f posicao) {
+        guardarPreparados();
+        int centroX = paraChunk(posicao.x);
+        int centroZ = paraChunk(posicao.z);
+        for (int cz = centroZ - raioChunks; cz <= centroZ + raioChunks; cz++) {
+            for (int cx = centroX - raioChunks; cx <= centroX + raioChunks; cx++) {
+                long chave = chave(cx, cz);
+                if (existe(cx, cz) && !ativos.containsKey(chave)) {
+                    Chunk guardado = pool.remove(chave);
+                    ligar(guardado != null ? guardado : construirChunk(cx, cz));
+                }
+            }
+        }
+    }
+
+    /**
+     * Troca o labirinto por uma versão nova do MESMO tamanho.
+     * Só os chunks indicados (ver DiffLabirinto) são refeitos: os que estão na
+     * cena continuam visíveis até a versão nova estar pronta, e a troca é
+     * feita aos poucos (com orçamento de tempo por frame), do mais perto
+     * do jogador para o mais longe.
+     * @param novaMalha O construtor das malhas do labirinto novo.
+     * @param novaFisica O construtor das colisões do labirinto novo.
+     * @param chunksSujos As chaves dos chunks que mudaram.
+     */
+    public void aplicarDiff(ConstrutorMalhaLabirinto novaMalha, ConstrutorFisicaLabirinto novaFisica, Set<Long> chunksSujos) {
+        synchronized (this) {
+            this.construtorMalha = novaMalha;
+            this.construtorFisica = novaFisica;
+        }
+        // O mapa de visibilidade antigo já não serve (até chegar o novo, desenha tudo)
+        setVisibilidade(null);
+
+        Vector3f posicao = getApplication().getCamera().getLocation();
+        int centroX = paraChunk(posicao.x);
+        int centroZ = paraChunk(posicao.z);
+
+        List<Long> ativosSujos = new ArrayList<>();
+        for (Long chave : chunksSujos) {
+            // Versões antigas guardadas ou a meio de construir já não servem
+            pool.remove(chave);
+            cancelar(emConstrucao.remove(chave));
+            cancelar(reconstrucoes.remove(chave));
+            filaReconstrucao.remove(chave);
+            if (ativos.containsKey(chave)) {
+                ativosSujos.add(chave);
+            }
+        }
+
+        // Os mais perto do jogador primeiro
+        ativosSujos.sort(Comparator.comparingInt(chave ->
+                Math.abs(chunkX(chave) - centroX) + Math.abs(chunkZ(chave) - centroZ)));
+        filaReconstrucao.addAll(ativosSujos);
+
+        // Força o recálculo dos chunks em falta (os cancelados voltam a ser pedidos)
+        ultimoChunkX = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Define o mapa de visibilidade do labirinto atual (ou null para desenhar tudo).
+     * Tem de ser calculado com o mesmo tamanho de chunk deste gestor.
+     * @param visibilidade O mapa de visibilidade.
+     */
+    public void setVisibilidade(VisibilidadeLabirinto visibilidade) {
+        if (visibilidade != null && visibilidade.getTamanhoChunk() != tamanhoChunk) {
+            throw new IllegalArgumentException("O mapa de visibilidade usa outro tamanho de chunk");
+        }
+        this.visibilidade = visibilidade;
+        blocoOclusaoX = Integer.MIN_VALUE; // Recalcula no próximo update
+    }
+
+    /**
+     * Liga/desliga a oclusão (só faz sentido em 1ª pessoa: vista de cima vê-se tudo).
+     * @param ativa true para esconder os chunks que não se podem ver.
+     */
+    public void setOclusaoAtiva(boolean ativa) {
+        if (ativa != oclusaoAtiva) {
+            oclusaoAtiva = ativa;
+            blocoOclusaoX = Integer.MIN_VALUE;
+        }
+    }
+
+    private static void cancelar(Future<Chunk> futuro) {
+        if (futuro != null) {
+            futuro.cancel(false);
+        }
+    }
+
+    @Override
+    public void update(float tpf) {
+        long inicioFrame = System.nanoTime();
+
+        // 1. "Cola" na cena os chunks que as threads acabaram de construir
+        // (e troca os que foram reconstruídos), sem passar do orçamento do frame
+        recolherChunksProntos(inicioFrame);
+        aplicarReconstrucoes(inicioFrame);
+
+        // 1b. Manda reconstruir os chunks "sujos"
+        if (!filaReconstrucao.isEmpty()) {
+            for (Long chave : filaReconstrucao) {
+                final int fcx = chunkX(chave), fcz = chunkZ(chave);
+                reconstrucoes.put(chave, trabalhadores.submit(() -> construirChunk(fcx, fcz)));
+            }
+            filaReconstrucao.clear();
+        }
+
+        // 1c. Esconde os chunks que não se podem ver do bloco da câmara
+        Vector3f posicao = getApplication().getCamera().getLocation();
+        int blocoX = Math.round(posicao.x / tamanhoBloco);
+        int blocoZ = Math.round(posicao.z / tamanhoBloco);
+        if (blocoX != blocoOclusaoX || blocoZ != blocoOclusaoZ) {
+            blocoOclusaoX = blocoX;
+            blocoOclusaoZ = blocoZ;
+            for (Chunk chunk : ativos.values()) {
+                aplicarOclusao(chunk);
+            }
+        }
+
+        // 2. Só recalculamos o que deve estar carregado quando o jogador muda de chunk
+        int centroX = paraChunk(posicao.x);
+        int centroZ = paraChunk(posicao.z);
+        if (centroX == ultimoChunkX && centroZ == ultimoChunkZ) {
+            return;
+        }
+        ultimoChunkX = centroX;
+        ultimoChunkZ = centroZ;
+
+        // 3. Desliga os que ficaram longe (com 1 chunk de folga, para não "piscar" na fronteira)
+        Iterator<Chunk> it = ativos.values().iterator();
+        while (it.hasNext()) {
+            Chunk chunk = it.next();
+            if (longeDe(chunk, centroX, centroZ)) {
+                it.remove();
+                desligar(chunk);
+                guardarNaPool(chunk);
+            }
+        }
+
+        // 4. Pede os que faltam (primeiro tenta a pool, senão manda construir)
+        for (int cz = centroZ - raioChunks; cz <= centroZ + raioChunks; cz++) {
+            for (int cx = centroX - raioChunks; cx <= centroX + raioChunks; cx++) {
+                long chave = chave(cx, cz);
+                if (!existe(cx, cz) || ativos.containsKey(chave) || emConstrucao.containsKey(chave)) {
+                    continue;
+                }
+                Chunk guardado = pool.remove(chave);
+                if (guardado != null) {
+                    ligar(guardado);
+                } else {
+                    final int fcx = cx, fcz = cz;
+                    emConstrucao.put(chave, trabalhadores.submit(() -> construirChunk(fcx, fcz)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Liga à cena os chunks cujas construções já terminaram
+     * (enquanto houver orçamento neste frame).
+     */
+    private void recolherChunksProntos(long inicioFrame) {
+        for (Long chave : prontos(emConstrucao)) {
+            if (System.nanoTime() - inicioFrame > ORCAMENTO_FRAME_NANOS) {
+                return; // O resto fica para o próximo frame
+            }
+            Chunk chunk = obter(emConstrucao.remove(chave));
+            if (chunk == null) {
+                continue;
+            }
+            if (ultimoChunkX != Integer.MIN_VALUE && longeDe(chunk, ultimoChunkX, ultimoChunkZ)) {
+                // Entretanto o jogador afastou-se: fica guardado, em vez de ficar na cena
+                // até ao próximo recálculo
+                guardarNaPool(chunk);
+            } else {
+                ligar(chunk);
+            }
+        }
+    }
+
+    /**
+     * @return true se o chunk está fora do raio (com 1 chunk de folga) à volta do chunk (centroX, centroZ).
+     */
+    private boolean longeDe(Chunk chunk, int centroX, int centroZ) {
+        return Math.abs(chunk.cx - centroX) > raioChunks + 1 || Math.abs(chunk.cz - centroZ) > raioChunks + 1;
+    }
+
+    /**
+     * Troca na cena os chunks ativos pelas versões reconstruídas
+     * (enquanto houver orçamento neste frame).
+     */
+    private void aplicarReconstrucoes(long inicioFrame) {
+        for (Long chave : prontos(reconstrucoes)) {
+            if (System.nanoTime() - inicioFrame > ORCAMENTO_FRAME_NANOS) {
+                return;
+            }
+            Chunk novo = obter(reconstrucoes.remove(chave));
+            if (novo == null) {
+                continue;
+            }
+            Chunk antigo = ativos.remove(chave);
+            if (antigo != null) {
+                desligar(antigo);
+                ligar(novo);
+            } else {
+                // Entretanto saiu do raio do jogador: fica guardado
+                guardarNaPool(novo);
+            }
+        }
+    }
+
+    private static List<Long> prontos(Map<Long, Future<Chunk>> futuros) {
+        if (futuros.isEmpty()) {
+            return Collections.emptyList(); // (o caso normal: não aloca nada)
+        }
+        List<Long> prontos = new ArrayList<>();
+        for (Map.Entry<Long, Future<Chunk>> entrada : futuros.entrySet()) {
+            if (entrada.getValue().isDone()) {
+                prontos.add(entrada.getKey());
+            }
+        }
+        return prontos;
+    }
+
+    /**
+     * O resultado de uma construção (ou null se falhou ou foi cancelada).
+     */
+    private static Chunk obter(Future<Chunk> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException e) {
+            // Foi cancelada por um aplicarDiff
+        } catch (ExecutionException e) {
+            LOG.log(Level.SEVERE, "Falhou a construção de um chunk", e.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * Constrói a malha e a colisão de um chunk (pode correr em qualquer thread:
+     * não toca na cena nem no mundo da física).
+     */
+    private Chunk construirChunk(int cx, int cz) {
+        // (Lê os dois construtores UMA vez, para o visual e a colisão serem da mesma versão)
+        ConstrutorMalhaLabirinto malha;
+        ConstrutorFisicaLabirinto fisica;
+        synchronized (this) {
+            malha = construtorMalha;
+            fisica = construtorFisica;
+        }
+        int x0 = cx * tamanhoChunk;
+        int z0 = cz * tamanhoChunk;
+        int x1 = Math.min(x0 + tamanhoChunk, larguraMapa);
+        int z1 = Math.min(z0 + tamanhoChunk, alturaMapa);
+        return new Chunk(cx, cz,
+                malha.construir(x0, z0, x1, z1),
+                fisica.construir(x0, z0, x1, z1));
+    }
+
+    private void ligar(Chunk chunk) {
+        aplicarOclusao(chunk);
+        raiz.attachChild(chunk.no);
+        estadoFisica.getPhysicsSpace().add(chunk.corpo);
+        ativos.put(chave(chunk.cx, chunk.cz), chunk);
+    }
+
+    /**
+     * Mostra ou esconde um chunk conforme a visibilidade a partir do bloco da câmara.
+     */
+    private void aplicarOclusao(Chunk chunk) {
+        boolean visivel = !oclusaoAtiva || visibilidade == null
+                || visibilidade.chunkVisivel(blocoOclusaoX, blocoOclusaoZ, chunk.cx, chunk.cz);
+        chunk.no.setCullHint(visivel ? Spatial.CullHint.Inherit : Spatial.CullHint.Always);
+    }
+
+    private void desligar(Chunk chunk) {
+        chunk.no.removeFromParent();
+        estadoFisica.getPhysicsSpace().remove(chunk.corpo);
+    }
+
+    private void guardarPreparados() {
+        Chunk chunk;
+        while ((chunk = preparados.poll()) != null) {
+            guardarNaPool(chunk);
+        }
+    }
+
+    private void guardarNaPool(Chunk chunk) {
+        pool.put(chave(chunk.cx, chunk.cz), chunk);
+        if (pool.size() > TAMANHO_POOL) {
+            Iterator<Long> maisAntigo = pool.keySet().iterator();
+            maisAntigo.next();
+            maisAntigo.remove();
+        }
+    }
+
+    /**
+     * Converte uma coordenada do mundo 3D no índice do chunk.
+     * (Os blocos estão centrados em x * tamanhoBloco, por isso somamos meio bloco)
+     */
+    private int paraChunk(float coordenadaMundo) {
+        int bloco = (int) Math.floor((coordenadaMundo + tamanhoBloco / 2) / tamanhoBloco);
+        return Math.floorDiv(bloco, tamanhoChunk);
+    }
+
+    private boolean existe(int cx, int cz) {
+        return cx >= 0 && cz >= 0 && cx * tamanhoChunk < larguraMapa && cz * tamanhoChunk < alturaMapa;
+    }
+
+    /**
+     * A chave de um chunk (as duas coordenadas num só "long").
+     */
+    static long chave(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static int chunkX(long chave) {
+        return (int) (chave >> 32);
+    }
+
+    private static int chunkZ(long chave) {
+        return (int) chave;
+    }
+
+    /**
+     * @return Quantos chunks estão na cena agora.
+     */
+    public int getNumChunksAtivos() {
+        return ativos.size();
+    }
+
+    /**
+     * Um "pedaço" do labirinto já construído: o visual e a colisão.
+     */
+    private static class Chunk {
+        final int cx;
+        final int cz;
+        final com.jme3.scene.Node no;
+        final PhysicsRigidBody corpo;
+
+        Chunk(int cx, int cz, com.jme3.scene.Node no, PhysicsRigidBody corpo) {
+            this.cx = cx;
+            this.cz = cz;
+            this.no = no;
+            this.corpo = corpo;
+        }
+    }
+}
@@ -2,25 +2,26 @@ package com.mygame;
 
 import com.jme3.app.SimpleApplication;
 import com.jme3.bullet.BulletAppState;
+import com.jme3.bullet.PhysicsSpace;
 import com.jme3.bullet.collision.shapes.CapsuleCollisionShape;
-import com.jme3.bullet.collision.shapes.CollisionShape;
 import com.jme3.bullet.control.CharacterControl;
-import com.jme3.bullet.control.RigidBodyControl;
-import com.jme3.bullet.util.CollisionShapeFactory;
+import com.jme3.font.BitmapText;
 import com.jme3.input.KeyInput;
 import com.jme3.input.MouseInput;
 import com.jme3.input.controls.ActionListener;
 import com.jme3.input.controls.AnalogListener;
 import com.jme3.input.controls.KeyTrigger;
 import com.jme3.input.controls.MouseAxisTrigger;
-import com.jme3.material.Material;
-import com.jme3.math.ColorRGBA;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.RenderManager;
-import com.jme3.scene.Geometry;
-import com.jme3.scene.shape.Box;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
 
 /**
  * Classe principal do "Projeto Minos".
@@ -28,23 +29,48 @@ import java.util.List;
  */
 public class Main extends SimpleApplication implements ActionListener, AnalogListener {
 
+    // O progresso de cada geração fica em FINE: o "Arquiteto" evolui em segundo
+    // plano enquanto se joga, e centenas de linhas na consola por nível não ajudam ninguém.
+    private static final Logger LOG = Logger.getLogger(Main.class.getName());
+
     // --- Variáveis Globais do Jogo ---
     private Vector3f spawnPoint = new Vector3f(0, 3.0f, 0);
     private BulletAppState bulletAppState;
     private CharacterControl player;
     private Pathfinder pathfinder;
+    private GestorChunks gestorChunks;
+    private ServicoConsultaCaminho servicoCaminhos;
+    private ConstrutorMalhaLabirinto construtorMalha;
+
+    // O "Arquiteto" em segundo plano: evolui (e prepara) o PRÓXIMO labirinto enquanto se joga este
+    private ExecutorService arquiteto;
+    private CompletableFuture<ProximoNivel> proximoNivel;
+    private boolean avisouProximoNivel = false;
     
     // Flags de movimento
     private boolean left = false, right = false, up = false, down = false;
     
-    // Objeto ajudante para rotação
+    // Objetos ajudantes, criados UMA vez e reutilizados em todos os frames
+    // (o "game loop" e o rato não alocam memória nenhuma -> sem "soluços" do GC)
     private final Quaternion tempRotation = new Quaternion();
+    private final Quaternion rotPescoco = new Quaternion();
+    private final Vector3f walkDirection = new Vector3f();
+    private final Vector3f tempCamDir = new Vector3f();
+    private final Vector3f tempCamLeft = new Vector3f();
+    private final Vector3f tempPosicao = new Vector3f();
+    private final Vector3f tempDirecaoVista = new Vector3f();
+
+    // O "cronómetro" dos frames (tecla F3)
+    private PerfilFrames perfilFrames;
     
     // Variável para "inclinar" a câmara (olhar cima/baixo)
     private float camVerticalAngle = 0f;
     
-    // Flag para o "interruptor" da câmara (F)
-    private boolean modoCameraCima = false;
+    // O "Mini-Mapa" (tecla F mostra/esconde)
+    private MiniMapa miniMapa;
+
+    // A mensagem mostrada enquanto o primeiro nível é preparado
+    private BitmapText textoEspera;
     
     // --- PARÂMETROS DA IA "ARQUITETO" ---
     private static final int LARGURA_MAPA = 21;
@@ -53,7 +79,17 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
     private static final float TAXA_MUTACAO = 0.05f; // 5% de chance de um bloco mudar
     private static final float TAXA_CROSSOVER = 0.7f; // 70% de chance de "cruzamento"
     private static final int NUM_ELITE = 5; // 5 melhores mapas sobrevivem sempre
-    private static final int GERACOES = 50; // Quantas "gerações" vamos evoluir
+    // Quanto tempo a IA tem para evoluir (o arranque demora sempre no máximo isto,
+    // seja qual for o tamanho do mapa), e quando desiste por não melhorar
+    private static final long ORCAMENTO_EVOLUCAO_MS = 3000;
+    private static final int JANELA_ESTAGNACAO = 20; // Gerações sem melhorar
+    private static final int GERACOES_MAXIMAS = 500; // Limite de segurança
+
+    // --- TAMANHOS DO MUNDO 3D ---
+    private static final float TAMANHO_BLOCO = 4.0f; // Lado (X e Z) de cada bloco
+    private static final float ALTURA_PAREDE = 3.0f;
+    private static final int TAMANHO_CHUNK = 16; // Blocos por lado de cada "chunk"
+    private static final int RAIO_CHUNKS = 2;    // Chunks carregados à volta do jogador
     
     // O "mapa" 2D do nosso labirinto
     private String[] mapaLabirinto;
@@ -69,90 +105,134 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
 
     /**
      * Método de inicialização (chamado uma vez).
+     * Só prepara o essencial (teclas, cronómetro, mensagem de espera): a evolução e
+     * a construção do nível correm noutras threads (prepararNivel), e o nível só é
+     * ligado à cena quando estiver pronto (montarNivel). A janela responde logo.
      */
     @Override
     public void simpleInitApp() {
 
-        // --- 1. EXECUTAR A IA "ARQUITETO" (ALGORITMO GENÉTICO) ---
-        System.out.println("--- PROJETO MINOS: INICIANDO EVOLUÇÃO ---");
-        
-        // 1a. Cria o "Motor" da IA com os nossos parâmetros
-        AlgoritmoGenetico ag = new AlgoritmoGenetico(
-                TAMANHO_POPULACAO,
-                TAXA_MUTACAO,
-                TAXA_CROSSOVER,
-                NUM_ELITE,
-                LARGURA_MAPA,
-                ALTURA_MAPA
-        );
-
-        // 1b. Cria a "Geração 0" (mapas aleatórios)
-        ag.inicializarPopulacao();
-
-        // 1c. Loop de Evolução (O "Treino")
-        for (int i = 0; i < GERACOES; i++) {
-            // "Dá as notas" (calcula o fitness) para cada mapa
-            ag.calcularFitnessPopulacao();
-            
-            // Imprime o progresso (para sabermos que não crashou)
-            System.out.println("Geração " + i + " | Melhor Fitness (Caminho): " + ag.getMelhorMapa().fitness);
-
-            // "Evolui" (cria a próxima geração)
-            ag.evoluirProximaGeracao();
-        }
-        
-        // 1d. Treino Concluído! Pega no melhor mapa de todos.
-        ag.calcularFitnessPopulacao(); // Calcula a nota da última geração
-        MapaGenetico melhorMapa = ag.getMelhorMapa();
-        
-        // 1e. "Traduz" o DNA (char[][]) para o formato que o jogo entende (String[])
-        // E guarda-o na nossa variável global
-        this.mapaLabirinto = melhorMapa.paraStringArray();
-        
-        System.out.println("--- EVOLUÇÃO CONCLUÍDA! A CONSTRUIR O MUNDO... ---");
-        
-        
-        // --- 2. O RESTO DO JOGO (Tudo como antes!) ---
-        // (O código abaixo é o mesmo que já tínhamos, mas agora ele
-        // usa o "this.mapaLabirinto" que a IA acabou de criar!)
-        
-        // 2a. Inicia a Física
-        bulletAppState = new BulletAppState();
-        stateManager.attach(bulletAppState);
-        // bulletAppState.setDebugEnabled(true);
-
-        // 2b. Configura os Controlos
+        // 1. Configura os Controlos
         inputManager.setCursorVisible(false);
         setupKeys();
 
-        // 2c. Constrói o Mundo (Lendo o mapa da IA!)
-        construirLabirinto(); // Este método já lê "this.mapaLabirinto"
+        // 1'. O "cronómetro" dos frames (começa escondido; F3 mostra/esconde)
+        perfilFrames = new PerfilFrames();
+        perfilFrames.setEnabled(false);
+        stateManager.attach(perfilFrames);
+
+        // 2. A mensagem de espera (sai quando o nível for montado)
+        textoEspera = new BitmapText(guiFont);
+        textoEspera.setText("A evoluir o labirinto...");
+        textoEspera.setLocalTranslation(
+                (settings.getWidth() - textoEspera.getLineWidth()) / 2f,
+                (settings.getHeight() + textoEspera.getLineHeight()) / 2f, 0);
+        guiNode.attachChild(textoEspera);
+
+        // 3. A IA "Arquiteto" e a construção do nível, fora da thread do jogo
+        arquiteto = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Minos-Arquiteto");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletableFuture.supplyAsync(this::prepararNivel, arquiteto)
+                .thenAccept(nivel -> enqueue(() -> montarNivel(nivel)))
+                .exceptionally(erro -> {
+                    System.err.println("ERRO ao preparar o nível: " + erro);
+                    enqueue(() -> textoEspera.setText("Erro ao criar o labirinto (ver consola)."));
+                    return null;
+                });
+    }
 
-        // 2d. Cria e "Pinta" a Solução (O "Professor" a funcionar)
-        this.pathfinder = new Pathfinder(this.mapaLabirinto);
-        pathfinder.encontrarInicioEFimMaisLongos(); // Encontra S e F
-        List<Node> caminho = pathfinder.encontrarCaminho();
+    /**
+     * Tudo o que o nível precisa que NÃO toca na cena: evolui o mapa, calcula a
+     * solução, cria os materiais, as malhas e as formas de colisão dos chunks à
+     * volta do spawn (estes em paralelo, ver GestorChunks.prepararAoRedor) e o
+     * "Balcão de Pedidos" de caminhos.
+     * Corre na thread do "Arquiteto".
+     * @return O nível pronto a montar.
+     */
+    private NivelPreparado prepararNivel() {
+        // 1. EXECUTAR A IA "ARQUITETO" (ALGORITMO GENÉTICO)
+        System.out.println("--- PROJETO MINOS: INICIANDO EVOLUÇÃO ---");
+        NivelPreparado nivel = new NivelPreparado();
+        nivel.mapa = evoluirLabirinto();
+        System.out.println("--- EVOLUÇÃO CONCLUÍDA! A CONSTRUIR O MUNDO... ---");
+
+        // 2. Calcula a Solução (O "Professor" a funcionar)
+        nivel.pathfinder = new Pathfinder(nivel.mapa);
+        nivel.pathfinder.encontrarInicioEFimMaisLongos(); // Encontra S e F
+        Caminho caminho = nivel.pathfinder.encontrarCaminho();
 
         if (caminho != null) {
-            desenharCaminho(caminho); // Pinta o caminho (Azul/Amarelo)
-            
             // Define o spawn do JOGADOR
-            Node noSpawn = pathfinder.getNoInicio();
-            float spawnX = noSpawn.x * 4.0f; // (4.0f é o nosso tamanhoBloco)
-            float spawnZ = noSpawn.z * 4.0f;
-            this.spawnPoint = new Vector3f(spawnX, 3.0f, spawnZ);
-            
-            // Pinta o bloco de Fim (Ciano)
-            Node noFim = pathfinder.getNoFim();
-            criarBlocoFim(noFim.x * 4.0f, noFim.z * 4.0f);
-            
+            Node noSpawn = nivel.pathfinder.getNoInicio();
+            nivel.spawn = new Vector3f(noSpawn.x * TAMANHO_BLOCO, 3.0f, noSpawn.z * TAMANHO_BLOCO);
         } else {
             System.err.println("ALERTA: A IA GEROU UM MAPA INVÁLIDO (SEM CAMINHO)!");
             // (Mesmo assim, coloca o jogador num sítio seguro)
-            this.spawnPoint = new Vector3f(4.0f, 3.0f, 4.0f);
+            nivel.spawn = new Vector3f(TAMANHO_BLOCO, 3.0f, TAMANHO_BLOCO);
         }
 
-        // 2e. Cria o Jogador
+        // 3. A Física (ainda não ligada)
+        // (O "broadphase" do Bullet fica do tamanho do labirinto, com margem)
+        ConstrutorFisicaLabirinto construtorFisica = new ConstrutorFisicaLabirinto(
+                nivel.mapa, TAMANHO_BLOCO, ALTURA_PAREDE);
+        Vector3f[] limitesMundo = construtorFisica.calcularLimitesMundo(50f);
+        nivel.fisica = new BulletAppState(limitesMundo[0], limitesMundo[1],
+                PhysicsSpace.BroadphaseType.AXIS_SWEEP_3);
+
+        // 4. O Mundo (Lendo o mapa da IA!) e a Solução "pintada"
+        // (Caminho Azul, Início Amarelo, Fim Ciano)
+        nivel.malha = new ConstrutorMalhaLabirinto(assetManager, nivel.mapa, TAMANHO_BLOCO, ALTURA_PAREDE);
+        if (caminho != null) {
+            nivel.malha.marcarCaminho(caminho, nivel.pathfinder.getNoInicio(), nivel.pathfinder.getNoFim());
+        }
+
+        // 5. Os chunks à volta do spawn, construídos em paralelo
+        nivel.chunks = new GestorChunks(nivel.malha, construtorFisica,
+                nivel.mapa[0].length(), nivel.mapa.length, TAMANHO_BLOCO,
+                TAMANHO_CHUNK, RAIO_CHUNKS,
+                nivel.fisica, rootNode);
+        nivel.chunks.prepararAoRedor(nivel.spawn, ForkJoinPool.commonPool());
+
+        // 6. O "Balcão de Pedidos" de caminhos (os marcos ALT são calculados aqui)
+        // Os resultados voltam para a thread do jME através do "enqueue".
+        nivel.caminhos = new ServicoConsultaCaminho(nivel.mapa, 2, this::enqueue);
+        return nivel;
+    }
+
+    /**
+     * Liga à cena um nível preparado por prepararNivel (na thread do jogo).
+     * Aqui só se "cola" o que já está construído, por isso é rápido.
+     * @param nivel O nível pronto.
+     */
+    private void montarNivel(NivelPreparado nivel) {
+        this.mapaLabirinto = nivel.mapa;
+        this.pathfinder = nivel.pathfinder;
+        this.spawnPoint = nivel.spawn;
+        this.construtorMalha = nivel.malha;
+        this.gestorChunks = nivel.chunks;
+
+        // 1. A Física (o BulletAppState cria o mundo da física ao ser ligado)
+        bulletAppState = nivel.fisica;
+        stateManager.attach(bulletAppState);
+        // bulletAppState.setDebugEnabled(true);
+
+        // 2. Os chunks (os do spawn já estão prontos: só são ligados)
+        stateManager.attach(gestorChunks);
+        gestorChunks.carregarAoRedor(spawnPoint);
+        gestorChunks.setOclusaoAtiva(true);
+
+        // O mini-mapa é pintado a partir do mesmo mapa (e caminho) que a malha
+        miniMapa = new MiniMapa(construtorMalha, TAMANHO_BLOCO);
+        miniMapa.setEnabled(false);
+        stateManager.attach(miniMapa);
+
+        // 3. O "Balcão de Pedidos" de caminhos (A* fora da thread do jogo; já vem pronto)
+        servicoCaminhos = nivel.caminhos;
+
+        // 4. Cria o Jogador
         CapsuleCollisionShape capsuleShape = new CapsuleCollisionShape(0.5f, 2f);
         player = new CharacterControl(capsuleShape, 0.1f);
         player.setJumpSpeed(20);
@@ -160,180 +240,216 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
         player.setGravity(30);
         player.setPhysicsLocation(this.spawnPoint); // Coloca o jogador no 'S'
         bulletAppState.getPhysicsSpace().add(player);
+
+        guiNode.detachChild(textoEspera);
+
+        // 5. Começa já a evoluir o próximo nível (tecla N troca quando estiver pronto)
+        calcularVisibilidade();
+        comecarProximoNivel();
     }
 
     /**
-     * Constrói UMA parede física e visual.
-     * (Versão com a ORDEM DE POSICIONAMENTO CORRIGIDA)
+     * Corre a IA "Arquiteto" (o Algoritmo Genético) e devolve o melhor labirinto.
+     * Não toca na cena, por isso pode correr fora da thread do jogo.
+     * @return O melhor mapa, já "traduzido" para String[].
      */
-    private void criarParede(float x, float y, float z) {
-        // Tamanhos: 4.0f largura x 3.0f altura x 4.0f profundidade
-        float raioLargura = 2.0f;
-        float raioAltura = 1.5f;
-        float raioEspessura = 2.0f;
-
-        // Visual
-        Box formaParede = new Box(raioLargura, raioAltura, raioEspessura);
-        Geometry geoParede = new Geometry("Parede", formaParede);
-        Material matParede = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        matParede.setColor("Color", ColorRGBA.Red); // Cor Vermelha
-        geoParede.setMaterial(matParede);
-
-        // Física
-        CollisionShape fisicaFormaParede = CollisionShapeFactory.createBoxShape(geoParede);
-        RigidBodyControl fisicaCorpoParede = new RigidBodyControl(fisicaFormaParede, 0);
-
-        // --- LÓGICA DE POSICIONAMENTO CORRIGIDA (Plano F) ---
-        // 1. "Cola" o visual à física (ambos em 0,0,0)
-        geoParede.addControl(fisicaCorpoParede);
+    private static String[] evoluirLabirinto() {
+        // 1a. Cria o "Motor" da IA com os nossos parâmetros
+        AlgoritmoGenetico ag = new AlgoritmoGenetico(
+                TAMANHO_POPULACAO,
+                TAXA_MUTACAO,
+                TAXA_CROSSOVER,
+                NUM_ELITE,
+                LARGURA_MAPA,
+                ALTURA_MAPA
+        );
+
+        // 1b. Cria a "Geração 0" (mapas aleatórios)
+        ag.inicializarPopulacao();
+
+        // 1c. Loop de Evolução (O "Treino"), até acabar o tempo ou deixar de melhorar
+        // (O progresso de cada geração vai para o log, em FINE)
+        AlgoritmoGenetico.MotivoParagem motivo = ag.evoluirComOrcamento(
+                ORCAMENTO_EVOLUCAO_MS, Integer.MAX_VALUE, JANELA_ESTAGNACAO, GERACOES_MAXIMAS,
+                metricas -> LOG.fine(metricas::toString));
+        System.out.println("Evolução parou: " + motivo + " | Melhor Fitness: " + ag.getMelhorMapa().fitness);
         
-        // 2. Adiciona ambos aos seus mundos (ainda em 0,0,0)
-        bulletAppState.getPhysicsSpace().add(fisicaCorpoParede);
-        rootNode.attachChild(geoParede);
+        // 1d. Treino Concluído! Pega no melhor mapa de todos.
+        MapaGenetico melhorMapa = ag.getMelhorMapa();
         
-        // 3. AGORA move o "pacote" (física + visual) para o local final
-        fisicaCorpoParede.setPhysicsLocation(new Vector3f(x, y, z));
+        // 1e. "Traduz" o DNA (char[][]) para o formato que o jogo entende (String[])
+        return melhorMapa.paraStringArray();
     }
 
     /**
-     * Constrói UM bloco de CHÃO físico e visual.
-     * (Versão com a ORDEM DE POSICIONAMENTO CORRIGIDA)
+     * Põe o "Arquiteto" a evoluir o próximo labirinto e, logo a seguir (na mesma
+     * thread), a preparar tudo o que a troca precisa (ver prepararProximoNivel).
      */
-    private void criarBlocoChao(float x, float z) {
-        // Tamanhos: 4.0f largura x 0.2f altura x 4.0f profundidade
-        float raioLargura = 2.0f;
-        float raioAltura = 0.1f;
-        float raioEspessura = 2.0f;
-
-        // Visual
-        Box formaChao = new Box(raioLargura, raioAltura, raioEspessura);
-        Geometry geoChao = new Geometry("Chao", formaChao);
-        Material matChao = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        matChao.setColor("Color", ColorRGBA.Green); // Cor Verde
-        geoChao.setMaterial(matChao);
-
-        // Física
-        CollisionShape fisicaFormaChao = CollisionShapeFactory.createBoxShape(geoChao);
-        RigidBodyControl fisicaCorpoChao = new RigidBodyControl(fisicaFormaChao, 0);
-
-        // --- LÓGICA DE POSICIONAMENTO CORRIGIDA (Plano F) ---
-        // (Exatamente a mesma ordem do criarParede, para consistência)
-        // 1. "Cola"
-        geoChao.addControl(fisicaCorpoChao);
-        
-        // 2. Adiciona
-        bulletAppState.getPhysicsSpace().add(fisicaCorpoChao);
-        rootNode.attachChild(geoChao);
-        
-        // 3. Move
-        fisicaCorpoChao.setPhysicsLocation(new Vector3f(x, 0, z)); // Y=0 (no chão)
+    private void comecarProximoNivel() {
+        final ConstrutorMalhaLabirinto base = construtorMalha;
+        avisouProximoNivel = false;
+        proximoNivel = CompletableFuture.supplyAsync(Main::evoluirLabirinto, arquiteto)
+                .thenApplyAsync(mapa -> prepararProximoNivel(mapa, base), arquiteto);
     }
-    
-    private void criarBlocoSpawn(float x, float z) {
-        float raioLargura = 2.0f, raioAltura = 0.1f, raioEspessura = 2.0f;
-        Box forma = new Box(raioLargura, raioAltura, raioEspessura);
-        Geometry geo = new Geometry("Spawn", forma);
-        
-        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        mat.setColor("Color", ColorRGBA.Yellow); // <-- AMARELO
-        geo.setMaterial(mat);
-
-        // Lógica de Física (igual ao criarBlocoChao)
-        CollisionShape cs = CollisionShapeFactory.createBoxShape(geo);
-        RigidBodyControl rbc = new RigidBodyControl(cs, 0);
-        geo.addControl(rbc);
-        bulletAppState.getPhysicsSpace().add(rbc);
-        rootNode.attachChild(geo);
-        rbc.setPhysicsLocation(new Vector3f(x, 0, z)); // Y=0
+
+    /**
+     * Tudo o que a troca de nível precisa e que NÃO toca na cena: a solução do mapa
+     * novo, os construtores (partilham os materiais dos atuais), os chunks que mudaram
+     * e o "Balcão de Pedidos" (com os marcos ALT). Corre na thread do "Arquiteto".
+     * @param novoMapa O mapa evoluído.
+     * @param base O construtor do labirinto que está no jogo (o diff é feito contra ele).
+     * @return O nível pronto a trocar.
+     */
+    private ProximoNivel prepararProximoNivel(String[] novoMapa, ConstrutorMalhaLabirinto base) {
+        ProximoNivel proximo = new ProximoNivel();
+        proximo.mapa = novoMapa;
+        proximo.base = base;
+
+        // 1. A solução do mapa novo (para "pintar" o caminho)
+        proximo.pathfinder = new Pathfinder(novoMapa);
+        proximo.pathfinder.encontrarInicioEFimMaisLongos();
+        Caminho caminho = proximo.pathfinder.encontrarCaminho();
+
+        // 2. Os construtores novos
+        proximo.malha = new ConstrutorMalhaLabirinto(base, novoMapa);
+        if (caminho != null) {
+            proximo.malha.marcarCaminho(caminho, proximo.pathfinder.getNoInicio(), proximo.pathfinder.getNoFim());
+        }
+        proximo.fisica = new ConstrutorFisicaLabirinto(novoMapa, TAMANHO_BLOCO, ALTURA_PAREDE);
+
+        // 3. Só os chunks que mudaram serão refeitos
+        proximo.sujos = DiffLabirinto.chunksAlterados(base, proximo.malha, TAMANHO_CHUNK);
+
+        // 4. O "Balcão de Pedidos" do mapa novo (os marcos ALT são calculados aqui)
+        proximo.caminhos = new ServicoConsultaCaminho(novoMapa, 2, this::enqueue);
+        return proximo;
     }
-    
-    private void criarBlocoFim(float x, float z) {
-        float raioLargura = 2.0f, raioAltura = 0.1f, raioEspessura = 2.0f;
-        Box forma = new Box(raioLargura, raioAltura, raioEspessura);
-        Geometry geo = new Geometry("Spawn", forma);
-        
-        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        mat.setColor("Color", ColorRGBA.Cyan); // <-- Ciano
-        geo.setMaterial(mat);
-
-        // Lógica de Física (igual ao criarBlocoChao)
-        CollisionShape cs = CollisionShapeFactory.createBoxShape(geo);
-        RigidBodyControl rbc = new RigidBodyControl(cs, 0);
-        geo.addControl(rbc);
-        bulletAppState.getPhysicsSpace().add(rbc);
-        rootNode.attachChild(geo);
-        rbc.setPhysicsLocation(new Vector3f(x, 0, z)); // Y=0
+
+    /**
+     * Troca o labirinto atual pelo que o "Arquiteto" evoluiu e preparou em segundo
+     * plano, sem reconstruir o mundo todo: na thread do jogo só se entregam ao
+     * GestorChunks os chunks que mudaram (refeitos aos poucos, ver GestorChunks.aplicarDiff).
+     *
+     * O bloco onde o jogador está tem de ficar livre e ligado ao Fim (para não ficar
+     * "preso" numa parede ou num bolso fechado). Se no mapa preparado não estiver,
+     * o bloco é aberto, o mapa é reparado (ReparadorConectividade liga todos os
+     * bolsos) e o nível é preparado outra vez no "Arquiteto"; a troca acontece
+     * sozinha quando estiver pronto.
+     */
+    private void trocarParaProximoNivel() {
+        if (proximoNivel == null || !proximoNivel.isDone()) {
+            System.out.println("O próximo nível ainda está a evoluir...");
+            return;
+        }
+        ProximoNivel proximo;
+        try {
+            proximo = proximoNivel.join();
+        } catch (CompletionException erro) {
+            System.err.println("ERRO ao preparar o próximo nível: " + erro.getCause());
+            comecarProximoNivel();
+            return;
+        }
+
+        // 1. O bloco do jogador tem de estar livre e ligado ao Fim
+        //    (e o diff tem de ser contra o nível atual)
+        Vector3f pos = player.getPhysicsLocation(tempPosicao);
+        int xJogador = Math.round(pos.x / TAMANHO_BLOCO);
+        int zJogador = Math.round(pos.z / TAMANHO_BLOCO);
+        String[] novoMapa = proximo.mapa;
+        boolean dentro = zJogador >= 0 && zJogador < novoMapa.length
+                && xJogador >= 0 && xJogador < novoMapa[zJogador].length();
+        boolean preso = dentro && !ligadoAoFim(proximo.pathfinder, novoMapa, xJogador, zJogador);
+        if (preso || proximo.base != construtorMalha) {
+            proximo.caminhos.close();
+            final ConstrutorMalhaLabirinto base = construtorMalha;
+            avisouProximoNivel = true; // (Não avisa outra vez: a troca é automática)
+            proximoNivel = CompletableFuture.supplyAsync(
+                    () -> prepararProximoNivel(preso ? libertarJogador(novoMapa, xJogador, zJogador) : novoMapa, base),
+                    arquiteto);
+            proximoNivel.thenRun(() -> enqueue(this::trocarParaProximoNivel));
+            return;
+        }
+
+        // 2. Só os chunks que mudaram são refeitos (aos poucos, nos próximos frames)
+        gestorChunks.aplicarDiff(proximo.malha, proximo.fisica, proximo.sujos);
+        System.out.println("Novo nível: " + proximo.sujos.size() + " chunks a reconstruir.");
+
+        miniMapa.atualizar(proximo.malha);
+
+        this.construtorMalha = proximo.malha;
+        this.mapaLabirinto = novoMapa;
+        this.pathfinder = proximo.pathfinder;
+
+        // 3. O "Balcão de Pedidos" passa a responder sobre o mapa novo
+        servicoCaminhos.close();
+        servicoCaminhos = proximo.caminhos;
+
+        // 4. E começa logo a calcular a visibilidade deste e a evoluir o seguinte
+        calcularVisibilidade();
+        comecarProximoNivel();
     }
-    
+
     /**
-     * Constrói UM bloco de CHÃO AZUL (para mostrar o caminho do A*).
+     * O bloco (x, z) é livre e há caminho dele até ao Fim do mapa?
      */
-    private void criarBlocoCaminho(float x, float z) {
-        float raioLargura = 2.0f, raioAltura = 0.1f, raioEspessura = 2.0f;
-        Box forma = new Box(raioLargura, raioAltura, raioEspessura);
-        Geometry geo = new Geometry("Caminho", forma);
-        
-        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        mat.setColor("Color", ColorRGBA.Blue); // <-- AZUL
-        geo.setMaterial(mat);
-
-        // A física é igual ao chão normal
-        CollisionShape cs = CollisionShapeFactory.createBoxShape(geo);
-        RigidBodyControl rbc = new RigidBodyControl(cs, 0);
-        geo.addControl(rbc);
-        bulletAppState.getPhysicsSpace().add(rbc);
-        rootNode.attachChild(geo);
-        rbc.setPhysicsLocation(new Vector3f(x, 0, z)); // Y=0
+    private static boolean ligadoAoFim(Pathfinder pathfinder, String[] mapa, int x, int z) {
+        Node noFim = pathfinder.getNoFim();
+        if (mapa[z].charAt(x) == 'X' || noFim == null) {
+            return false;
+        }
+        return pathfinder.encontrarCaminho(x, z, noFim.x, noFim.z) != null;
     }
 
     /**
-     * Lê o mapa e constrói o chão e as paredes.
+     * Uma cópia do mapa com o bloco do jogador aberto e todos os bolsos ligados uns
+     * aos outros (nenhum é enchido de parede, nem o do jogador). Corre no "Arquiteto".
      */
-    private void construirLabirinto() {
-        float tamanhoBloco = 4.0f;
-        float alturaParede = 3.0f;
-        
-        for (int z = 0; z < mapaLabirinto.length; z++) {
-            String linha = mapaLabirinto[z];
-            for (int x = 0; x < linha.length(); x++) {
-                
-                float posX = x * tamanhoBloco;
-                float posZ = z * tamanhoBloco;
-                
-                // 1. Cria SEMPRE um chão verde
-                criarBlocoChao(posX, posZ); 
-                
-                // 2. Se for 'X', cria uma parede
-                char caractere = linha.charAt(x);
-                if (caractere == 'X') {
-                    float posY = alturaParede / 2;
-                    criarParede(posX, posY, posZ);
-                }
-            }
+    private static String[] libertarJogador(String[] mapa, int x, int z) {
+        MapaGenetico ajustado = new MapaGenetico(mapa[0].length(), mapa.length);
+        for (int linha = 0; linha < mapa.length; linha++) {
+            ajustado.grelha[linha] = mapa[linha].toCharArray();
         }
+        ajustado.grelha[z][x] = 'O';
+        new ReparadorConectividade(ajustado.largura, ajustado.altura, 1).reparar(ajustado);
+        return ajustado.paraStringArray();
     }
-    
-    private void desenharCaminho(List<Node> caminho) {
-        float tamanhoBloco = 4.0f;
-        
-        // Pega no nó de início e fim
-        Node noInicio = pathfinder.getNoInicio();
+
+    /**
+     * Calcula (fora da thread do jogo) o mapa de visibilidade do labirinto atual
+     * e entrega-o ao GestorChunks, para esconder o que está atrás das paredes.
+     */
+    private void calcularVisibilidade() {
+        final String[] mapa = mapaLabirinto;
+        CompletableFuture.supplyAsync(() -> VisibilidadeLabirinto.calcular(mapa, TAMANHO_CHUNK), arquiteto)
+                .thenAccept(pvs -> enqueue(() -> {
+                    // (Se entretanto o nível mudou, este resultado já não serve)
+                    if (mapa == mapaLabirinto) {
+                        gestorChunks.setVisibilidade(pvs);
+                    }
+                }));
+    }
+
+    /**
+     * Pede (sem bloquear o jogo) o caminho do bloco onde o jogador está até ao Fim.
+     * Carregar outra vez antes da resposta cancela o pedido anterior.
+     */
+    private void pedirPista() {
         Node noFim = pathfinder.getNoFim();
-        
-        for (Node no : caminho) {
-            float posX = no.x * tamanhoBloco;
-            float posZ = no.z * tamanhoBloco;
-
-            // Decide qual cor pintar
-            if (no.equals(noInicio)) {
-                criarBlocoSpawn(posX, posZ); // Pinta o Início de Amarelo
-            } else if (no.equals(noFim)) {
-                // (O Fim já foi pintado no simpleInitApp, mas não faz mal)
-                // criarBlocoFim(posX, posZ); 
-            } else {
-                criarBlocoCaminho(posX, posZ); // Pinta o resto de Azul
-            }
+        if (noFim == null) {
+            return;
         }
+        Vector3f pos = player.getPhysicsLocation(tempPosicao);
+        int x = Math.round(pos.x / TAMANHO_BLOCO);
+        int z = Math.round(pos.z / TAMANHO_BLOCO);
+        servicoCaminhos.pedir("Pista", x, z, noFim.x, noFim.z, 10, 500)
+                .thenAccept(caminho -> {
+                    if (caminho != null) {
+                        System.out.println("Pista: faltam " + (caminho.size() - 1) + " blocos até ao Fim."
+                                + " (latência média " + String.format("%.2f", servicoCaminhos.getLatenciaMediaMs()) + " ms)");
+                    } else {
+                        System.out.println("Pista: não há caminho a partir daqui!");
+                    }
+                });
     }
 
     /**
@@ -356,9 +472,21 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
         inputManager.addMapping("LookDown", new MouseAxisTrigger(MouseInput.AXIS_Y, true));
         inputManager.addListener(this, "LookRight", "LookLeft", "LookUp", "LookDown");
         
-        // Tecla 'F' (Interruptor da Câmara)
-        inputManager.addMapping("ToggleCamera", new KeyTrigger(KeyInput.KEY_F));
-        inputManager.addListener(this, "ToggleCamera");
+        // Tecla 'F' (Mostra/esconde o mini-mapa)
+        inputManager.addMapping("ToggleMiniMapa", new KeyTrigger(KeyInput.KEY_F));
+        inputManager.addListener(this, "ToggleMiniMapa");
+
+        // Tecla 'H' (Pede uma "pista": quantos blocos faltam até ao Fim)
+        inputManager.addMapping("Pista", new KeyTrigger(KeyInput.KEY_H));
+        inputManager.addListener(this, "Pista");
+
+        // Tecla 'F3' (Mostra/esconde o cronómetro dos frames)
+        inputManager.addMapping("TogglePerfil", new KeyTrigger(KeyInput.KEY_F3));
+        inputManager.addListener(this, "TogglePerfil");
+
+        // Tecla 'N' (Troca para o próximo nível, se já acabou de evoluir)
+        inputManager.addMapping("ProximoNivel", new KeyTrigger(KeyInput.KEY_N));
+        inputManager.addListener(this, "ProximoNivel");
     }
 
     /**
@@ -370,15 +498,33 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
      */
     @Override
     public void onAction(String name, boolean isPressed, float tpf) {
-        
+        if (player == null) {
+            return; // O nível ainda está a ser preparado
+        }
+
         switch (name) {
             case "Left" -> left = isPressed;
             case "Right" -> right = isPressed;
             case "Up" -> up = isPressed;
             case "Down" -> down = isPressed;
-            case "ToggleCamera" -> {
+            case "ToggleMiniMapa" -> {
+                if (isPressed) {
+                    miniMapa.setEnabled(!miniMapa.isEnabled());
+                }
+            }
+            case "Pista" -> {
+                if (isPressed) {
+                    pedirPista();
+                }
+            }
+            case "TogglePerfil" -> {
+                if (isPressed) {
+                    perfilFrames.setEnabled(!perfilFrames.isEnabled());
+                }
+            }
+            case "ProximoNivel" -> {
                 if (isPressed) {
-                    modoCameraCima = !modoCameraCima;
+                    trocarParaProximoNivel();
                 }
             }
         }
@@ -393,22 +539,25 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
      */
     @Override
     public void onAnalog(String name, float value, float tpf) {
+        if (player == null) {
+            return;
+        }
         float rotationSpeed = 2.0f;
         float rotationAmount = value * rotationSpeed;
 
         switch (name) {
             case "LookRight" -> {
-                tempRotation.fromAngleAxis(-rotationAmount, Vector3f.UNIT_Y);
+                tempRotation.fromAngleNormalAxis(-rotationAmount, Vector3f.UNIT_Y);
                 Vector3f oldDirectionR = player.getViewDirection();
-                Vector3f newDirectionR = tempRotation.mult(oldDirectionR);
-                player.setViewDirection(newDirectionR);
-                // <-- BREAK ADICIONADO (CRÍTICO)
+                // (Escreve no vetor temporário em vez de criar um novo)
+                tempRotation.mult(oldDirectionR, tempDirecaoVista);
+                player.setViewDirection(tempDirecaoVista);
             }
             case "LookLeft" -> {
-                tempRotation.fromAngleAxis(rotationAmount, Vector3f.UNIT_Y);
+                tempRotation.fromAngleNormalAxis(rotationAmount, Vector3f.UNIT_Y);
                 Vector3f oldDirectionL = player.getViewDirection();
-                Vector3f newDirectionL = tempRotation.mult(oldDirectionL);
-                player.setViewDirection(newDirectionL);
+                tempRotation.mult(oldDirectionL, tempDirecaoVista);
+                player.setViewDirection(tempDirecaoVista);
             }
 
             case "LookUp" -> camVerticalAngle -= rotationAmount * 0.5f;
@@ -433,40 +582,38 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
      */
     @Override
     public void simpleUpdate(float tpf) {
+        if (player == null) {
+            return; // O nível ainda está a ser preparado (ver montarNivel)
+        }
+
+        // (Tudo aqui usa os vetores "temp" da classe: ZERO alocações por frame)
 
         // --- 1. Lógica de Movimento (WASD) ---
-        Vector3f camDir = cam.getDirection();
-        Vector3f camLeft = cam.getLeft();
-        Vector3f walkDirection = new Vector3f(0, 0, 0);
+        Vector3f camDir = cam.getDirection(tempCamDir);
+        Vector3f camLeft = cam.getLeft(tempCamLeft);
+        walkDirection.set(0, 0, 0);
 
         if (up) { walkDirection.addLocal(camDir); }
-        if (down) { walkDirection.addLocal(camDir.negate()); }
+        if (down) { walkDirection.subtractLocal(camDir); }
         if (left) { walkDirection.addLocal(camLeft); }
-        if (right) { walkDirection.addLocal(camLeft.negate()); }
-
-        player.setWalkDirection(walkDirection.setY(0).normalizeLocal().mult(0.1f));
-
-        // --- 2. Lógica da Câmara (Interruptor F) ---
-        if (modoCameraCima == false) {
-            // --- MODO 1ª PESSOA ---
-            Vector3f posCorpoJogador = player.getPhysicsLocation();
-            Vector3f dirCorpoJogador = player.getViewDirection();
-            cam.setLocation(posCorpoJogador.add(new Vector3f(0, 1.5f, 0)));
-            Quaternion rotCorpo = tempRotation;
-            rotCorpo.lookAt(dirCorpoJogador, Vector3f.UNIT_Y);
-            Quaternion rotPescoco = new Quaternion();
-            rotPescoco.fromAngleAxis(camVerticalAngle, Vector3f.UNIT_X);
-            Quaternion rotFinal = rotCorpo.mult(rotPescoco);
-            cam.setRotation(rotFinal);
-        } else {
-            // --- MODO VISTA DE CIMA (DIAGONAL) ---
-            // (CORRIGIDO: 150f era muito alto e 0f no Z era "plano")
-            Vector3f posJogador = player.getPhysicsLocation();
-            // Podes brincar com estes valores! (Y=20, Z=-15)
-            Vector3f offsetCamera = new Vector3f(0f, 100f, 0f); 
-            Vector3f novaPosCamera = posJogador.add(offsetCamera);
-            cam.setLocation(novaPosCamera);
-            cam.lookAt(posJogador, Vector3f.UNIT_Y);
+        if (right) { walkDirection.subtractLocal(camLeft); }
+
+        player.setWalkDirection(walkDirection.setY(0).normalizeLocal().multLocal(0.1f));
+
+        // --- 2. Lógica da Câmara (1ª pessoa; a vista de cima é o mini-mapa, tecla F) ---
+        Vector3f posCorpoJogador = player.getPhysicsLocation(tempPosicao);
+        Vector3f dirCorpoJogador = player.getViewDirection();
+        cam.setLocation(posCorpoJogador.addLocal(0, 1.5f, 0));
+        Quaternion rotCorpo = tempRotation;
+        rotCorpo.lookAt(dirCorpoJogador, Vector3f.UNIT_Y);
+        // (fromAngleNormalAxis: o eixo já é unitário; o fromAngleAxis criava um Vector3f normalizado)
+        rotPescoco.fromAngleNormalAxis(camVerticalAngle, Vector3f.UNIT_X);
+        cam.setRotation(rotCorpo.multLocal(rotPescoco));
+
+        // --- 3. Avisa (uma vez) quando o próximo nível está pronto ---
+        if (!avisouProximoNivel && proximoNivel != null && proximoNivel.isDone()) {
+            avisouProximoNivel = true;
+            System.out.println("--- PRÓXIMO NÍVEL PRONTO! (tecla N) ---");
         }
     }
 
@@ -474,4 +621,44 @@ public class Main extends SimpleApplication implements ActionListener, AnalogLis
     public void simpleRender(RenderManager rm) {
         // Deixa vazio por agora
     }
+
+    /**
+     * O que prepararNivel entrega a montarNivel: tudo construído, nada ligado à cena.
+     */
+    private static class NivelPreparado {
+        String[] mapa;
+        Pathfinder pathfinder;
+        Vector3f spawn;
+        BulletAppState fisica;
+        ConstrutorMalhaLabirinto malha;
+        GestorChunks chunks;
+        ServicoConsultaCaminho caminhos;
+    }
+
+    /**
+     * O que prepararProximoNivel entrega a trocarParaProximoNivel.
+     */
+    private static class ProximoNivel {
+        String[] mapa;
+        ConstrutorMalhaLabirinto base;
+        Pathfinder pathfinder;
+        ConstrutorMalhaLabirinto malha;
+        ConstrutorFisicaLabirinto fisica;
+        Set<Long> sujos;
+        ServicoConsultaCaminho caminhos;
+    }
+
+    @Override
+    public void destroy() {
+        if (servicoCaminhos != null) {
+            servicoCaminhos.close();
+        }
+        if (proximoNivel != null) {
+            proximoNivel.thenAccept(proximo -> proximo.caminhos.close());
+        }
+        if (arquiteto != null) {
+            arquiteto.shutdownNow();
+        }
+        super.destroy();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.mygame;
+
+import com.jme3.app.Application;
+import com.jme3.app.SimpleApplication;
+import com.jme3.app.state.BaseAppState;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.shape.Quad;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.ui.Picture;
+import com.jme3.util.BufferUtils;
+import java.nio.ByteBuffer;
+
+/**
+ * O "Mini-Mapa" (tecla F): o labirinto visto de cima, num canto do ecrã.
+ *
+ * Em vez de desenhar a cena 3D outra vez com uma câmara lá em cima, o mapa é
+ * "pintado" UMA vez numa textura pequena (1 pixel por bloco) a partir do
+ * String[] do labirinto, e só é repintado quando o labirinto ou o caminho mudam
+ * (ver atualizar). Por frame, só o marcador do jogador se mexe.
+ */
+public class MiniMapa extends BaseAppState {
+
+    // Quantos pixels do ecrã ocupa cada bloco no mini-mapa
+    private static final float PIXELS_POR_BLOCO = 6f;
+    private static final float MARGEM = 10f;
+    private static final float TAMANHO_MARCADOR = 6f;
+
+    // As cores dos blocos (iguais às do mundo 3D, ver ConstrutorMalhaLabirinto)
+    private static final byte[] COR_PAREDE = {(byte) 160, 0, 0, (byte) 255};
+    private static final byte[] COR_CHAO = {0, (byte) 110, 0, (byte) 255};
+    private static final byte[] COR_CAMINHO = {0, 0, (byte) 255, (byte) 255};
+    private static final byte[] COR_SPAWN = {(byte) 255, (byte) 255, 0, (byte) 255};
+    private static final byte[] COR_FIM = {0, (byte) 255, (byte) 255, (byte) 255};
+
+    private final float tamanhoBloco;
+
+    private ConstrutorMalhaLabirinto construtorMalha;
+    private int largura;
+    private int altura;
+
+    private Image imagem;
+    private Texture2D textura;
+    private Picture quadro;
+    private Geometry marcador;
+
+    /**
+     * @param construtorMalha O construtor do labirinto atual (dá o mapa e o caminho).
+     * @param tamanhoBloco O lado de cada bloco no mundo 3D.
+     */
+    public MiniMapa(ConstrutorMalhaLabirinto construtorMalha, float tamanhoBloco) {
+        this.construtorMalha = construtorMalha;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    @Override
+    protected void initialize(Application app) {
+        quadro = new Picture("MiniMapa");
+
+        marcador = new Geometry("MarcadorJogador", new Quad(TAMANHO_MARCADOR, TAMANHO_MARCADOR));
+        Material matMarcador = new Material(app.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
+        matMarcador.setColor("Color", ColorRGBA.White);
+        marcador.setMaterial(matMarcador);
+
+        pintar(app);
+    }
+
+    @Override
+    protected void cleanup(Application app) {
+    }
+
+    @Override
+    protected void onEnable() {
+        com.jme3.scene.Node gui = ((SimpleApplication) getApplication()).getGuiNode();
+        gui.attachChild(quadro);
+        gui.attachChild(marcador);
+    }
+
+    @Override
+    protected void onDisable() {
+        quadro.removeFromParent();
+        marcador.removeFromParent();
+    }
+
+    /**
+     * Repinta o mini-mapa para um labirinto novo (ou um caminho novo).
+     * Se o tamanho for o mesmo, reaproveita a textura.
+     * @param construtorMalha O construtor do labirinto atual.
+     */
+    public void atualizar(ConstrutorMalhaLabirinto construtorMalha) {
+        this.construtorMalha = construtorMalha;
+        if (isInitialized()) {
+            pintar(getApplication());
+        }
+    }
+
+    /**
+     * Escreve a cor de cada bloco na textura (1 pixel por bloco).
+     * A linha z = 0 do mapa fica no topo do mini-mapa.
+     */
+    private void pintar(Application app) {
+        String[] mapa = construtorMalha.getMapa();
+        int novaAltura = mapa.length;
+        int novaLargura = mapa[0].length();
+
+        if (imagem == null || novaLargura != largura || novaAltura != altura) {
+            largura = novaLargura;
+            altura = novaAltura;
+            imagem = new Image(Image.Format.RGBA8, largura, altura,
+                    BufferUtils.createByteBuffer(largura * altura * 4), ColorSpace.sRGB);
+            textura = new Texture2D(imagem);
+            // Blocos "quadrados" e nítidos (sem esborratar ao ampliar)
+            textura.setMagFilter(Texture.MagFilter.Nearest);
+            textura.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+            quadro.setTexture(app.getAssetManager(), textura, false);
+            quadro.setWidth(largura * PIXELS_POR_BLOCO);
+            quadro.setHeight(altura * PIXELS_POR_BLOCO);
+            quadro.setPosition(app.getCamera().getWidth() - MARGEM - largura * PIXELS_POR_BLOCO,
+                    app.getCamera().getHeight() - MARGEM - altura * PIXELS_POR_BLOCO);
+        }
+
+        ByteBuffer dados = imagem.getData(0);
+        dados.clear();
+        // (A textura começa em baixo: a última linha do mapa é a primeira da imagem)
+        for (int z = altura - 1; z >= 0; z--) {
+            String linha = mapa[z];
+            for (int x = 0; x < largura; x++) {
+                byte[] cor;
+                if (linha.charAt(x) == 'X') {
+                    cor = COR_PAREDE;
+                } else {
+                    cor = switch (construtorMalha.getDestaque(x, z)) {
+                        case ConstrutorMalhaLabirinto.DESTAQUE_CAMINHO -> COR_CAMINHO;
+                        case ConstrutorMalhaLabirinto.DESTAQUE_SPAWN -> COR_SPAWN;
+                        case ConstrutorMalhaLabirinto.DESTAQUE_FIM -> COR_FIM;
+                        default -> COR_CHAO;
+                    };
+                }
+                dados.put(cor);
+            }
+        }
+        dados.flip();
+        imagem.setUpdateNeeded();
+    }
+
+    @Override
+    public void update(float tpf) {
+        // Só o marcador se mexe (sem alocar: a posição da câmara é a do jogador em 1ª pessoa)
+        Vector3f posicao = getApplication().getCamera().getLocation();
+        float blocoX = posicao.x / tamanhoBloco;
+        float blocoZ = posicao.z / tamanhoBloco;
+        Vector3f canto = quadro.getLocalTranslation();
+        // (O bloco x ocupa [x - 0.5, x + 0.5] no mundo, e [x, x + 1] na textura)
+        float px = canto.x + (blocoX + 0.5f) * PIXELS_POR_BLOCO;
+        float py = canto.y + (altura - (blocoZ + 0.5f)) * PIXELS_POR_BLOCO;
+        marcador.setLocalTranslation(px - TAMANHO_MARCADOR / 2, py - TAMANHO_MARCADOR / 2, 1);
+    }
+}
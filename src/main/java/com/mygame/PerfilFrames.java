@@ -0,0 +1,153 @@
+package com.mygame;
+
+import com.jme3.app.Application;
+import com.jme3.app.SimpleApplication;
+import com.jme3.app.state.BaseAppState;
+import com.jme3.font.BitmapFont;
+import com.jme3.font.BitmapText;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * O "Cronómetro" do jogo: mede quanto tempo demora cada frame e quanta memória
+ * a thread do jogo aloca por frame, e mostra no ecrã (tecla F3):
+ * p50 / p99 / máximo do tempo de frame e os bytes alocados por frame.
+ * Serve para apanhar "soluços" causados pelo Garbage Collector.
+ *
+ * Os tempos vão para um histograma fixo (baldes de 0.1 ms até 100 ms), por isso
+ * medir não aloca nada. O texto no ecrã só é refeito 2 vezes por segundo
+ * (e essa alocação é a única que o próprio cronómetro faz).
+ */
+public class PerfilFrames extends BaseAppState {
+
+    // Histograma: 1000 baldes de 0.1 ms (0 a 100 ms) + 1 balde para "mais de 100 ms"
+    private static final float LARGURA_BALDE_MS = 0.1f;
+    private static final int NUM_BALDES = 1001;
+
+    // De quanto em quanto tempo fechamos a "janela" de medição e atualizamos o texto
+    private static final float JANELA_SEGUNDOS = 0.5f;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int[] histograma = new int[NUM_BALDES];
+    private int framesNaJanela = 0;
+    private float maximoMsNaJanela = 0;
+    private long bytesNaJanela = 0;
+    private float tempoNaJanela = 0;
+    private long bytesAntes = -1;
+
+    // Resultados da última janela fechada
+    private float p50Ms;
+    private float p99Ms;
+    private float maximoMs;
+    private long bytesPorFrame;
+
+    private BitmapText texto;
+
+    @Override
+    protected void initialize(Application app) {
+        BitmapFont fonte = app.getAssetManager().loadFont("Interface/Fonts/Default.fnt");
+        texto = new BitmapText(fonte);
+        texto.setSize(fonte.getCharSet().getRenderedSize());
+        texto.setLocalTranslation(10, app.getCamera().getHeight() - 10, 0);
+        texto.setText("Perfil: a medir...");
+    }
+
+    @Override
+    protected void cleanup(Application app) {
+    }
+
+    @Override
+    protected void onEnable() {
+        ((SimpleApplication) getApplication()).getGuiNode().attachChild(texto);
+        bytesAntes = -1;
+    }
+
+    @Override
+    protected void onDisable() {
+        texto.removeFromParent();
+    }
+
+    @Override
+    public void update(float tpf) {
+        // 1. Tempo deste frame -> balde do histograma
+        float ms = tpf * 1000f;
+        int balde = Math.min((int) (ms / LARGURA_BALDE_MS), NUM_BALDES - 1);
+        histograma[balde]++;
+        framesNaJanela++;
+        if (ms > maximoMsNaJanela) {
+            maximoMsNaJanela = ms;
+        }
+
+        // 2. Memória alocada pela thread do jogo desde o último frame
+        long bytesAgora = THREAD_MX.getCurrentThreadAllocatedBytes();
+        if (bytesAntes >= 0) {
+            bytesNaJanela += bytesAgora - bytesAntes;
+        }
+        bytesAntes = bytesAgora;
+
+        // 3. Fecha a janela de vez em quando
+        tempoNaJanela += tpf;
+        if (tempoNaJanela >= JANELA_SEGUNDOS) {
+            fecharJanela();
+        }
+    }
+
+    /**
+     * Calcula os percentis da janela, atualiza o texto e recomeça a contar.
+     */
+    private void fecharJanela() {
+        p50Ms = percentil(0.50f);
+        p99Ms = percentil(0.99f);
+        maximoMs = maximoMsNaJanela;
+        bytesPorFrame = bytesNaJanela / Math.max(1, framesNaJanela);
+
+        texto.setText(String.format("Frame p50 %.2f ms | p99 %.2f ms | max %.2f ms | %d B/frame",
+                p50Ms, p99Ms, maximoMs, bytesPorFrame));
+
+        Arrays.fill(histograma, 0);
+        framesNaJanela = 0;
+        maximoMsNaJanela = 0;
+        bytesNaJanela = 0;
+        tempoNaJanela = 0;
+        // O texto acabou de alocar: não contamos isso no próximo frame
+        bytesAntes = THREAD_MX.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * O tempo de frame abaixo do qual está a fração 'p' dos frames da janela
+     * (o limite superior do balde onde o percentil cai).
+     */
+    private float percentil(float p) {
+        int alvo = (int) Math.ceil(p * framesNaJanela);
+        int acumulado = 0;
+        for (int i = 0; i < NUM_BALDES; i++) {
+            acumulado += histograma[i];
+            if (acumulado >= alvo) {
+                return (i + 1) * LARGURA_BALDE_MS;
+            }
+        }
+        return NUM_BALDES * LARGURA_BALDE_MS;
+    }
+
+    /** @return A mediana do tempo de frame na última janela (ms). */
+    public float getP50Ms() {
+        return p50Ms;
+    }
+
+    /** @return O percentil 99 do tempo de frame na última janela (ms). */
+    public float getP99Ms() {
+        return p99Ms;
+    }
+
+    /** @return O pior frame da última janela (ms). */
+    public float getMaximoMs() {
+        return maximoMs;
+    }
+
+    /** @return Os bytes alocados, em média, por frame na última janela. */
+    public long getBytesPorFrame() {
+        return bytesPorFrame;
+    }
+}